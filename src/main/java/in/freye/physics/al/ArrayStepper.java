@@ -0,0 +1,390 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.MathArrays;
+
+import java.util.stream.IntStream;
+
+/**
+ * Führt Zeitschritte direkt auf spaltenweise gespeicherten Körpern aus.
+ * Die Phasen und Formeln entsprechen denen in Sphere (siehe dort für Herleitungen),
+ * arbeiten aber auf primitiven Komponenten und wiederverwendbaren Puffern statt auf neuen Objekten.
+ */
+final class ArrayStepper {
+    private final double sizeX, sizeY, sizeZ;
+    /** Schwelle für Geschwindigkeiten nach Wandkollisionen (siehe Sphere.handleWallCollision) */
+    private final double threshold;
+    private final double gx, gy, gz;
+    private final double airDensity;
+    /** Indizes der Körper, deren Masse eine signifikante Gravitation ausübt */
+    private final int[] gravitySources;
+    /** Verfahren für die gegenseitige Gravitation; Positionen, Massen und Feld der Quellen im aktuellen Zwischenschritt */
+    private final GravitySolver gravitySolver;
+    private final double[] gsx, gsy, gsz, gsm;
+    private GravitySolver.GravityField field;
+    /** Beschleunigung durch das Gravitationsfeld, je Körper drei Komponenten */
+    private final double[] eg;
+    /** Breitphase der Kollisionsdetektion (null: alle Paare werden getestet) */
+    private final PairFinder pairs;
+    /** Verfahren für die Bewegung in step() */
+    private final Integrator integrator;
+
+    // Puffer: Zustand nach Beschleunigung ("prev"), nach Kollisionskorrektur, nach Kollisionsantwort
+    private double[] ppx, ppy, ppz, pvx, pvy, pvz;
+    private double[] cpx, cpy, cpz, cvx, cvy, cvz;
+    private double[] dvx, dvy, dvz;
+    /** Schlafende Körper im aktuellen Zwischenschritt (null: alle Körper werden berechnet) */
+    private boolean[] asleep;
+    /** Beschleunigung vor dem vorherigen Zwischenschritt (nur mit adaptiver Schrittweite) */
+    private double[] pax, pay, paz;
+
+    ArrayStepper(Columns c, Vector3D size, Vector3D gravity, double airDensity, PairFinder pairs, GravitySolver gravitySolver) {
+        this(c, size, gravity, airDensity, pairs, gravitySolver, Integrator.TAYLOR);
+    }
+
+    ArrayStepper(Columns c, Vector3D size, Vector3D gravity, double airDensity, PairFinder pairs, GravitySolver gravitySolver, Integrator integrator) {
+        sizeX = size.getX(); sizeY = size.getY(); sizeZ = size.getZ();
+        threshold = Math.min(0.001, 0.001 * V3.min(size));
+        gx = gravity.getX(); gy = gravity.getY(); gz = gravity.getZ();
+        this.airDensity = airDensity;
+        this.pairs = pairs;
+        this.integrator = integrator;
+        // Massen ändern sich durch Zeitschritte nicht, die Gravitationsquellen bleiben also gleich
+        gravitySources = IntStream.range(0, c.n).filter(i -> c.mass[i] >= World.GRAVITY_SIGNIFICANT_MASS).toArray();
+        this.gravitySolver = gravitySolver;
+        int n = c.n, m = gravitySources.length;
+        gsx = new double[m]; gsy = new double[m]; gsz = new double[m]; gsm = new double[m];
+        for (int k = 0; k < m; k++)
+            gsm[k] = c.mass[gravitySources[k]];
+        eg = gravitySolver == GravitySolver.DIRECT ? null : new double[3 * n];
+        ppx = new double[n]; ppy = new double[n]; ppz = new double[n];
+        pvx = new double[n]; pvy = new double[n]; pvz = new double[n];
+        cpx = new double[n]; cpy = new double[n]; cpz = new double[n];
+        cvx = new double[n]; cvy = new double[n]; cvz = new double[n];
+        dvx = new double[n]; dvy = new double[n]; dvz = new double[n];
+    }
+
+    /** Simuliert einen Zeitschritt dt und verändert dabei die übergebenen Spalten */
+    void step(Columns c, double dt) {
+        step(c, dt, null);
+    }
+
+    /**
+     * Simuliert einen Zeitschritt dt und verändert dabei die übergebenen Spalten
+     * @param sleepers Schlafzustand der Körper (null: alle Körper werden berechnet), schlafende Körper werden nur
+     *                 in die Puffer übernommen
+     */
+    void step(Columns c, double dt, Sleepers sleepers) {
+        if (sleepers != null) sleepers.prepare();
+        asleep = sleepers == null ? null : sleepers.asleep;
+        if (integrator.isTaylor()) {
+            prepareGravity(c);
+            // Phasen ohne Wechselwirkung zwischen Körpern in einem Durchlauf je Körper
+            IntStream.range(0, c.n).parallel().forEach(i -> {
+                calcAcceleration(c, i);
+                applyMovement(c, i, dt);
+                handleWallCollision(c, i);
+            });
+        } else {
+            IntStream.range(0, c.n).parallel().forEach(i -> savePrevious(c, i));
+            // Jeder Kick benötigt die Positionen aller Körper nach dem vorherigen Drift
+            for (int s = 0; s < integrator.kick.length; s++) {
+                double drift = integrator.drift[s] * dt, kick = integrator.kick[s] * dt;
+                IntStream.range(0, c.n).parallel().forEach(i -> drift(c, i, drift));
+                prepareGravity(c);
+                IntStream.range(0, c.n).parallel().forEach(i -> {
+                    accelerate(c, i);
+                    kick(c, i, kick);
+                });
+            }
+            double drift = integrator.drift[integrator.kick.length] * dt;
+            IntStream.range(0, c.n).parallel().forEach(i -> {
+                drift(c, i, drift);
+                handleWallCollision(c, i);
+            });
+        }
+        interact(c, dt, sleepers);
+    }
+
+    /**
+     * Beendet einen Zeitschritt dt, in dem die Körper schon bewegt wurden (BlockStepper):
+     * Wandkollisionen und alle Phasen mit Wechselwirkung. Der Zustand vor dem Schritt muss mit savePrevious()
+     * gesichert worden sein, die Beschleunigung in c ist die des letzten Teilschritts.
+     */
+    void finishStep(Columns c, double dt) {
+        asleep = null;
+        IntStream.range(0, c.n).parallel().forEach(i -> handleWallCollision(c, i));
+        interact(c, dt, null);
+    }
+
+    /** Phasen mit Wechselwirkung zwischen den Körpern, danach Tausch der Puffer */
+    private void interact(Columns c, double dt, Sleepers sleepers) {
+        // Ab hier wirken die Körper aufeinander, jede Phase benötigt die vollständigen Ergebnisse der vorherigen
+        if (pairs != null) pairs.update(c.n, c.px, c.py, c.pz, c.radius);
+        // Schlafende Körper, die ein wacher (beweglicher) Körper berührt, wachen auf und werden ab hier berechnet
+        if (sleepers != null) {
+            IntStream.range(0, c.n).parallel().forEach(i -> {
+                if (asleep[i] || !c.movable[i]) return;
+                for (int k = first(i), end = end(c, i); k < end; k++) {
+                    int j = candidate(k);
+                    sleepers.touch(i, j, c.px[j] - c.px[i], c.py[j] - c.py[i], c.pz[j] - c.pz[i], c.radius[i], c.radius[j]);
+                }
+            });
+            sleepers.wakeTouched();
+        }
+        IntStream.range(0, c.n).parallel().forEach(i -> calcEntityCollisionCorrections(c, i));
+        IntStream.range(0, c.n).parallel().forEach(i -> applyEntityCollisionDeflections(c, i));
+        // Puffer tauschen: Positionen aus der Korrektur, Geschwindigkeiten aus der Kollisionsantwort
+        double[] t;
+        t = c.px; c.px = cpx; cpx = t;
+        t = c.py; c.py = cpy; cpy = t;
+        t = c.pz; c.pz = cpz; cpz = t;
+        t = c.vx; c.vx = dvx; dvx = t;
+        t = c.vy; c.vy = dvy; dvy = t;
+        t = c.vz; c.vz = dvz; dvz = t;
+        // Ruhezeiten der wachen Körper über die tatsächliche Geschwindigkeitsänderung im Zwischenschritt
+        if (sleepers != null)
+            IntStream.range(0, c.n).parallel().filter(i -> c.movable[i]).forEach(i -> {
+                double ux = c.vx[i] - pvx[i], uy = c.vy[i] - pvy[i], uz = c.vz[i] - pvz[i];
+                sleepers.update(i, V3.norm(c.vx[i], c.vy[i], c.vz[i]), V3.norm(ux, uy, uz), dt);
+            });
+    }
+
+    /** Körper i schläft im aktuellen Zwischenschritt */
+    private boolean asleep(int i) {
+        return asleep != null && asleep[i];
+    }
+
+    /** Berechnet nur die Gesamtbeschleunigung aller Körper im aktuellen Zustand (für EventStepper) */
+    void calcAccelerations(Columns c) {
+        prepareGravity(c);
+        IntStream.range(0, c.n).parallel().forEach(i -> calcAcceleration(c, i));
+    }
+
+    /** Gibt an, ob sich die Beschleunigungen nur durch Zeitschritte ändern (Luftwiderstand, gegenseitige Gravitation) */
+    boolean hasVaryingAcceleration() {
+        return airDensity != 0 || gravitySources.length > 0;
+    }
+
+    /** Sichert die Positionen der Quellen (sie werden im folgenden Durchlauf schon bewegt) und baut das Feld auf */
+    private void prepareGravity(Columns c) {
+        for (int k = 0; k < gravitySources.length; k++) {
+            int j = gravitySources[k];
+            gsx[k] = c.px[j]; gsy[k] = c.py[j]; gsz[k] = c.pz[j];
+        }
+        buildField();
+    }
+
+    /**
+     * Wie prepareGravity(), aber mit vorhergesagten Positionen der Quellen (für BlockStepper):
+     * Quelle j befindet sich seit age[j] Sekunden auf ihrer Parabel aus Position, Geschwindigkeit und Beschleunigung in c
+     */
+    void prepareGravity(Columns c, double[] age) {
+        for (int k = 0; k < gravitySources.length; k++) {
+            int j = gravitySources[k];
+            double t = age[j];
+            gsx[k] = V3.add(V3.add(c.px[j], t*t, 0.5 * c.ax[j]), t, c.vx[j]);
+            gsy[k] = V3.add(V3.add(c.py[j], t*t, 0.5 * c.ay[j]), t, c.vy[j]);
+            gsz[k] = V3.add(V3.add(c.pz[j], t*t, 0.5 * c.az[j]), t, c.vz[j]);
+        }
+        buildField();
+    }
+
+    private void buildField() {
+        if (eg != null)
+            field = gravitySolver.build(gravitySources.length, gsx, gsy, gsz, gsm, new Vector3D(sizeX, sizeY, sizeZ));
+    }
+
+    /**
+     * Größte Schrittweite für Körper i wegen der Nähe zu Gravitationsquellen (aus der letzten Vorbereitung des Felds,
+     * wie in adaptiveStep() nur bei direkter Summe)
+     */
+    double gravityStep(Columns c, int i, StepControl control) {
+        double step = Double.POSITIVE_INFINITY;
+        if (eg != null) return step;
+        for (int k = 0; k < gravitySources.length; k++) {
+            if (gravitySources[k] == i) continue;
+            double dx = gsx[k] - c.px[i], dy = gsy[k] - c.py[i], dz = gsz[k] - c.pz[i];
+            step = Math.min(step, control.gravityStep(Math.sqrt(dx*dx + dy*dy + dz*dz), gsm[k]));
+        }
+        return step;
+    }
+
+    /**
+     * Größte Schrittweite, die StepControl für alle beweglichen Körper erlaubt (entspricht World.adaptiveStep)
+     * @param previousStep Länge des vorherigen Zwischenschritts (0: erster Zwischenschritt)
+     */
+    double adaptiveStep(Columns c, StepControl control, double previousStep, double maxStep) {
+        if (pax == null) {
+            pax = new double[c.n]; pay = new double[c.n]; paz = new double[c.n];
+        }
+        double g = Math.sqrt(gx*gx + gy*gy + gz*gz);
+        // Gravitationsquellen werden wie in calcAcceleration nur bei direkter Summe einzeln betrachtet
+        int[] sources = eg == null ? gravitySources : new int[0];
+        double step = IntStream.range(0, c.n).parallel().mapToDouble(i -> {
+            if (!c.movable[i]) return maxStep;
+            double jx = c.ax[i] - pax[i], jy = c.ay[i] - pay[i], jz = c.az[i] - paz[i];
+            double jerk = previousStep == 0 ? 0 : Math.sqrt(jx*jx + jy*jy + jz*jz) / previousStep;
+            double a = Math.sqrt(c.ax[i]*c.ax[i] + c.ay[i]*c.ay[i] + c.az[i]*c.az[i]);
+            double v = Math.sqrt(c.vx[i]*c.vx[i] + c.vy[i]*c.vy[i] + c.vz[i]*c.vz[i]);
+            double result = control.bodyStep(v, Math.max(a, g), jerk, c.radius[i]);
+            for (int j : sources) {
+                if (j == i) continue;
+                double dx = c.px[j] - c.px[i], dy = c.py[j] - c.py[i], dz = c.pz[j] - c.pz[i];
+                result = Math.min(result, control.gravityStep(Math.sqrt(dx*dx + dy*dy + dz*dz), c.mass[j]));
+            }
+            return result;
+        }).min().orElse(maxStep);
+        System.arraycopy(c.ax, 0, pax, 0, c.n);
+        System.arraycopy(c.ay, 0, pay, 0, c.n);
+        System.arraycopy(c.az, 0, paz, 0, c.n);
+        return control.limit(step, previousStep, maxStep);
+    }
+
+    /** Entspricht Sphere.calcAcceleration */
+    private void calcAcceleration(Columns c, int i) {
+        savePrevious(c, i);
+        accelerate(c, i);
+    }
+
+    /** Zustand vor Bewegungsupdate sichern (entspricht "prev" in World) */
+    void savePrevious(Columns c, int i) {
+        ppx[i] = c.px[i]; ppy[i] = c.py[i]; ppz[i] = c.pz[i];
+        pvx[i] = c.vx[i]; pvy[i] = c.vy[i]; pvz[i] = c.vz[i];
+    }
+
+    /** Gesamtbeschleunigung von Körper i im aktuellen Zustand (Gravitationsquellen aus prepareGravity) */
+    void accelerate(Columns c, int i) {
+        if (!c.movable[i] || asleep(i)) return;
+        double px = c.px[i], py = c.py[i], pz = c.pz[i];
+        double egx = 0, egy = 0, egz = 0;
+        if (field != null) {
+            field.accelerationAt(px, py, pz, eg, 3 * i);
+            egx = eg[3 * i]; egy = eg[3 * i + 1]; egz = eg[3 * i + 2];
+        } else for (int k = 0; k < gsm.length; k++) {
+            if (gsx[k] == px && gsy[k] == py && gsz[k] == pz) continue;
+            double dx = gsx[k] - px, dy = gsy[k] - py, dz = gsz[k] - pz;
+            // a = G * m / r²  * (r / |r|)
+            double f = World.GRAVITY_CONSTANT * gsm[k] / Math.pow(Math.sqrt(dx*dx + dy*dy + dz*dz), 3);
+            egx += dx * f; egy += dy * f; egz += dz * f;
+        }
+        // Strömungswiderstand: Fw = 0.5 * cw * rho * A * v²
+        double vNorm = Math.sqrt(c.vx[i]*c.vx[i] + c.vy[i]*c.vy[i] + c.vz[i]*c.vz[i]);
+        double drag = vNorm == 0 ? 0 : -vNorm * 0.5 * ShapeType.SPHERE.dragCoefficient * airDensity * (Math.PI*c.radius[i]*c.radius[i]) / c.mass[i];
+        c.ax[i] = c.sx[i] + gx + egx + c.vx[i] * drag;
+        c.ay[i] = c.sy[i] + gy + egy + c.vy[i] * drag;
+        c.az[i] = c.sz[i] + gz + egz + c.vz[i] * drag;
+    }
+
+    /** Entspricht Sphere.applyMovement */
+    void applyMovement(Columns c, int i, double dt) {
+        if (!c.movable[i] || asleep(i)) return;
+        c.px[i] = V3.add(V3.add(c.px[i], dt*dt, 0.5 * c.ax[i]), dt, c.vx[i]);
+        c.py[i] = V3.add(V3.add(c.py[i], dt*dt, 0.5 * c.ay[i]), dt, c.vy[i]);
+        c.pz[i] = V3.add(V3.add(c.pz[i], dt*dt, 0.5 * c.az[i]), dt, c.vz[i]);
+        c.vx[i] = V3.add(c.vx[i], dt, c.ax[i]);
+        c.vy[i] = V3.add(c.vy[i], dt, c.ay[i]);
+        c.vz[i] = V3.add(c.vz[i], dt, c.az[i]);
+    }
+
+    /** Gleichförmige Bewegung über dt (Drift einer symplektischen Zerlegung, siehe Integrator) */
+    private void drift(Columns c, int i, double dt) {
+        if (!c.movable[i] || asleep(i) || dt == 0) return;
+        c.px[i] = V3.add(c.px[i], dt, c.vx[i]);
+        c.py[i] = V3.add(c.py[i], dt, c.vy[i]);
+        c.pz[i] = V3.add(c.pz[i], dt, c.vz[i]);
+    }
+
+    /** Änderung der Geschwindigkeit durch die aktuelle Beschleunigung über dt (Kick, siehe Integrator) */
+    private void kick(Columns c, int i, double dt) {
+        if (!c.movable[i] || asleep(i)) return;
+        c.vx[i] = V3.add(c.vx[i], dt, c.ax[i]);
+        c.vy[i] = V3.add(c.vy[i], dt, c.ay[i]);
+        c.vz[i] = V3.add(c.vz[i], dt, c.az[i]);
+    }
+
+    /** Entspricht Sphere.handleWallCollision, jede Achse wird einzeln getestet */
+    private void handleWallCollision(Columns c, int i) {
+        if (!c.movable[i] || asleep(i)) return;
+        double r = c.radius[i], b = c.bounciness[i];
+        double v;
+        if (!Double.isNaN(v = Sphere.wallCollision(c.px[i], c.vx[i], ppx[i], pvx[i], c.ax[i], r, b, sizeX, threshold))) {
+            c.px[i] = c.px[i] < r ? r : sizeX - r;
+            c.vx[i] = v;
+        }
+        if (!Double.isNaN(v = Sphere.wallCollision(c.py[i], c.vy[i], ppy[i], pvy[i], c.ay[i], r, b, sizeY, threshold))) {
+            c.py[i] = c.py[i] < r ? r : sizeY - r;
+            c.vy[i] = v;
+        }
+        if (!Double.isNaN(v = Sphere.wallCollision(c.pz[i], c.vz[i], ppz[i], pvz[i], c.az[i], r, b, sizeZ, threshold))) {
+            c.pz[i] = c.pz[i] < r ? r : sizeZ - r;
+            c.vz[i] = v;
+        }
+    }
+
+    /** Entspricht Sphere.calcEntityCollisionCorrections, schreibt in die Korrektur-Puffer */
+    private void calcEntityCollisionCorrections(Columns c, int i) {
+        double ax = c.px[i], ay = c.py[i], az = c.pz[i];
+        double avx = c.vx[i], avy = c.vy[i], avz = c.vz[i];
+        if (c.movable[i] && !asleep(i)) {
+            for (int k = first(i), end = end(c, i); k < end; k++) {
+                int j = candidate(k);
+                if (!colliding(c, i, j)) continue;
+                // Position bei Kollision: Korrigiert die Hälfte des Abstands (bzw. den ganzen, wenn j immovable ist)
+                double dx = ax - c.px[j], dy = ay - c.py[j], dz = az - c.pz[j];
+                double norm = Math.sqrt(dx*dx + dy*dy + dz*dz);
+                double inv = 1 / norm, overlap = c.radius[i] + c.radius[j] - norm, share = c.movable[j] ? 0.5 : 1;
+                double cx = ax + dx * inv * overlap * share;
+                double cy = ay + dy * inv * overlap * share;
+                double cz = az + dz * inv * overlap * share;
+                // tColl = -(v/a) + sqrt((v/a)² - 2(p-pColl)/a), mit Beträgen des Zustands vor dem Bewegungsupdate
+                double vN = Math.sqrt(pvx[i]*pvx[i] + pvy[i]*pvy[i] + pvz[i]*pvz[i]);
+                double aN = Math.sqrt(c.ax[i]*c.ax[i] + c.ay[i]*c.ay[i] + c.az[i]*c.az[i]);
+                double pN = Math.sqrt(ppx[i]*ppx[i] + ppy[i]*ppy[i] + ppz[i]*ppz[i]);
+                double cN = Math.sqrt(cx*cx + cy*cy + cz*cz);
+                double tColl = -(vN/aN) + Math.sqrt(Math.pow(vN/aN, 2) - 2 * (pN - cN) / aN);
+                if (Double.isNaN(tColl)) tColl = -(vN/aN) + Math.sqrt(Math.pow(vN/aN, 2) - 2 * (cN - pN) / aN);
+                ax = cx; ay = cy; az = cz;
+                // tColl ist NaN bei konstanter Geschwindigkeit, dann muss diese nicht korrigiert werden
+                avx = Double.isNaN(tColl) ? c.vx[i] : V3.add(pvx[i], tColl, c.ax[i]);
+                avy = Double.isNaN(tColl) ? c.vy[i] : V3.add(pvy[i], tColl, c.ay[i]);
+                avz = Double.isNaN(tColl) ? c.vz[i] : V3.add(pvz[i], tColl, c.az[i]);
+            }
+        }
+        cpx[i] = ax; cpy[i] = ay; cpz[i] = az;
+        cvx[i] = avx; cvy[i] = avy; cvz[i] = avz;
+    }
+
+    /** Entspricht Sphere.applyEntityCollisionDeflections: Detektion mit unkorrigierten, Antwort mit korrigierten Zuständen */
+    private void applyEntityCollisionDeflections(Columns c, int i) {
+        double avx = cvx[i], avy = cvy[i], avz = cvz[i];
+        if (c.movable[i] && !asleep(i)) {
+            for (int k = first(i), end = end(c, i); k < end; k++) {
+                int j = candidate(k);
+                if (!colliding(c, i, j)) continue;
+                // v1' = (v1 + 2*m2/(m1+m2) * dot(v2-v1, p1-p2) / |p1-p2|² * (p1-p2)) * bounciness
+                double dx = cpx[i] - cpx[j], dy = cpy[i] - cpy[j], dz = cpz[i] - cpz[j];
+                double f = (c.movable[j] ? 2*c.mass[j]/(c.mass[i]+c.mass[j]) : 2)
+                        * MathArrays.linearCombination(cvx[j] - avx, dx, cvy[j] - avy, dy, cvz[j] - avz, dz)
+                        / (dx*dx + dy*dy + dz*dz);
+                avx = V3.add(avx, f, dx) * c.bounciness[i];
+                avy = V3.add(avy, f, dy) * c.bounciness[i];
+                avz = V3.add(avz, f, dz) * c.bounciness[i];
+            }
+        }
+        dvx[i] = avx; dvy[i] = avy; dvz[i] = avz;
+    }
+
+    // Iteration über die Kandidaten von Körper i: Ohne Breitphase sind das alle Indizes 0..n-1
+    private int first(int i) { return pairs == null ? 0 : pairs.offsets[i]; }
+    private int end(Columns c, int i) { return pairs == null ? c.n : pairs.offsets[i+1]; }
+    private int candidate(int k) { return pairs == null ? k : pairs.neighbors[k]; }
+
+    /** Kollisionsdetektion wie in Sphere.isColliding (mit Toleranz von 0.1 Nanometern) */
+    private static boolean colliding(Columns c, int i, int j) {
+        if (i == j || c.id[i] == c.id[j]) return false;
+        double dx = c.px[j] - c.px[i], dy = c.py[j] - c.py[i], dz = c.pz[j] - c.pz[i];
+        if (dx == 0 && dy == 0 && dz == 0) return false;
+        return Math.sqrt(dx*dx + dy*dy + dz*dz) + 1.0e-10 < c.radius[i] + c.radius[j];
+    }
+}
@@ -0,0 +1,222 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.map.primitive.ImmutableLongDoubleMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongDoubleMaps;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.List;
+import java.util.stream.DoubleStream;
+
+/**
+ * Alternative Implementierung von Physicable, die alle Körper spaltenweise in primitiven Arrays speichert.
+ * Die Physik entspricht der von World/Sphere, ein Aufruf von simulateTime() kopiert die Arrays aber nur einmal
+ * und führt alle Zwischenschritte direkt auf dieser Kopie aus (keine Listen und Vektor-Objekte pro Zwischenschritt).
+ * Spawnable-Objekte der Körper werden erst bei Aufruf von getEntities() erzeugt.
+ */
+public class ArrayWorld implements Physicable {
+    /** Minimale Aktualisierungen pro Sekunde */
+    private final double updateFreq;
+    /** size: Größe des Raums; gravity: Vektor der Beschleunigung eines homogenen Gravitationsfelds */
+    private final Vector3D size, gravity;
+    /** Dichte des Mediums, das den Raum ausfüllt */
+    private final double airDensity;
+    /** Verfahren, mit dem mögliche Kollisionspaare gesucht werden */
+    private final BroadPhase broadPhase;
+    /** Verfahren, mit dem die gegenseitige Gravitation der Körper berechnet wird */
+    private final GravitySolver gravitySolver;
+    /** Wahl der Länge der Zwischenschritte */
+    private final StepControl stepControl;
+    /** Verfahren, mit dem Position und Geschwindigkeit in einem Zwischenschritt fortgeschrieben werden */
+    private final Integrator integrator;
+    /** Einschlafen ruhender Körper; Ruhezeit der ruhenden Körper nach ID */
+    private final SleepPolicy sleepPolicy;
+    private final ImmutableLongDoubleMap restTimes;
+    /** Alle Körper im Raum (werden nach der Erzeugung dieser Welt nicht mehr verändert) */
+    private final Columns columns;
+    /** Hierarchie der unbeweglichen Körper (wird nur neu aufgebaut, wenn sich die unbeweglichen Körper ändern) */
+    private final StaticBodies statics;
+    /** Zwischenspeicher für getEntities(), wird beim ersten Aufruf erzeugt */
+    private volatile Shape[] entityViews;
+
+    /**
+     * Factory-Methode:
+     * Erstellt eine neue Welt für physikalische Simulation mit spaltenweiser Speicherung
+     * @param updateFrequency Anzahl, wie oft die Welt mindestens pro Sekunde aktualisiert wird
+     *                        (Genauigkeitsversprechen des Systems)
+     * @param size Größe des Quaders, der die Welt darstellt
+     */
+    public static Physicable create(double updateFrequency, Vector3D size) {
+        return create(updateFrequency, size, Integrator.TAYLOR);
+    }
+
+    /**
+     * Factory-Methode:
+     * Erstellt eine neue Welt, deren Körper mit dem angegebenen Verfahren bewegt werden
+     * (z.B. Integrator.YOSHIDA4 für Umlaufbahnen mit wenigen Zwischenschritten)
+     * @see #create(double, Vector3D)
+     */
+    public static Physicable create(double updateFrequency, Vector3D size, Integrator integrator) {
+        return new ArrayWorld(updateFrequency, size, Vector3D.ZERO, 0, BroadPhase.SPATIAL_HASH, GravitySolver.DIRECT, StepControl.FIXED, integrator, SleepPolicy.NEVER, LongDoubleMaps.immutable.empty(), new Columns(0));
+    }
+
+    ArrayWorld(double updateFrequency, Vector3D size, Vector3D gravity, double airDensity, BroadPhase broadPhase, GravitySolver gravitySolver,
+          StepControl stepControl, Integrator integrator, SleepPolicy sleepPolicy, ImmutableLongDoubleMap restTimes, Columns columns) {
+        this(updateFrequency, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes, columns,
+                columns == null ? null : StaticBodies.of(columns));
+    }
+
+    private ArrayWorld(double updateFrequency, Vector3D size, Vector3D gravity, double airDensity, BroadPhase broadPhase, GravitySolver gravitySolver,
+                       StepControl stepControl, Integrator integrator, SleepPolicy sleepPolicy, ImmutableLongDoubleMap restTimes, Columns columns, StaticBodies statics) {
+        assert V3.isValidVector(size, gravity) && broadPhase != null && gravitySolver != null && stepControl != null && integrator != null && sleepPolicy != null && restTimes != null && columns != null && statics != null : "Die Eigenschaften müssen initialisiert sein";
+        assert DoubleStream.of(size.toArray()).allMatch(d -> d > 0) : "Der Raum muss ein realer Quader sein";
+        assert updateFrequency > 0 : "Der minimale Update-Schritt muss positiv sein";
+        this.updateFreq = updateFrequency;
+        this.size = size;
+        this.gravity = gravity;
+        this.airDensity = airDensity;
+        this.broadPhase = broadPhase;
+        this.gravitySolver = gravitySolver;
+        this.stepControl = stepControl;
+        this.integrator = integrator;
+        this.sleepPolicy = sleepPolicy;
+        this.restTimes = restTimes;
+        this.columns = columns;
+        this.statics = statics;
+    }
+
+    /** Erzeugt eine Welt mit denselben Eigenschaften, aber anderen beweglichen Körpern (z.B. nach einem Zeitschritt) */
+    private ArrayWorld with(Columns newColumns) {
+        return with(newColumns, restTimes, statics);
+    }
+
+    /** Erzeugt eine Welt mit denselben Eigenschaften, aber anderen Körpern, Ruhezeiten und unbeweglichen Körpern */
+    private ArrayWorld with(Columns newColumns, ImmutableLongDoubleMap newRestTimes, StaticBodies newStatics) {
+        return new ArrayWorld(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, newRestTimes, newColumns, newStatics);
+    }
+
+    /** Ruhezeiten ohne die Körper in der Nähe von Zeile i in c (diese wachen auf) */
+    private static ImmutableLongDoubleMap wakeAround(ImmutableLongDoubleMap times, Columns c, int i) {
+        if (times.isEmpty()) return times;
+        MutableLongSet near = new LongHashSet();
+        for (int j = 0; j < c.n; j++)
+            if (Sleepers.nearby(c.px[j] - c.px[i], c.py[j] - c.py[i], c.pz[j] - c.pz[i], c.radius[j], c.radius[i]))
+                near.add(c.id[j]);
+        return times.reject((id, t) -> id == c.id[i] || near.contains(id));
+    }
+
+    public Spawner createSpawnableAt(Vector3D position) {
+        assert V3.compareComponents(position, size, (p, s) -> p >= 0 && p < s) : "Die Position muss im Raum liegen";
+        return new WorldSpawner(position);
+    }
+
+    public Physicable spawn(Spawnable... entities) {
+        assert entities != null : "Liste von Körpern muss existieren";
+        // Zwei Körper im Raum dürfen nicht dieselbe ID oder Position haben (auch nicht innerhalb der neuen Körper)
+        List<Shape> accepted = new SpawnFilter(entities).accept(columns);
+        if (accepted.isEmpty()) return this;
+        Columns c = columns.copy(columns.n + accepted.size());
+        for (int i = 0; i < accepted.size(); i++)
+            c.set(columns.n + i, accepted.get(i));
+        ImmutableLongDoubleMap times = Sleepers.wakeAround(restTimes, size, c.n, c.id, c.px, c.py, c.pz, c.radius, columns.n);
+        // Neue Körper werden angehängt, nur neue unbewegliche Körper verändern die Hierarchie
+        return with(c, times, accepted.stream().allMatch(Spawnable::getMovable) ? statics : StaticBodies.of(c));
+    }
+
+    public Physicable replace(long id, Spawnable entity) {
+        int i = columns.indexOf(id);
+        assert i >= 0 : "Die Welt muss den Körper mit der angegebenen ID enthalten";
+        // Körper in der Nähe des alten und des neuen Zustands wachen auf
+        ImmutableLongDoubleMap times = wakeAround(restTimes, columns, i);
+        if (entity == null) {
+            // Die Indizes der folgenden unbeweglichen Körper verschieben sich
+            Columns c = columns.without(i);
+            return with(c, times, statics.isEmpty() ? statics : StaticBodies.of(c));
+        }
+        assert entity instanceof Shape : "Körper muss existieren und Instanz von Shape sein";
+        Columns c = columns.copy();
+        c.set(i, entity);
+        return with(c, wakeAround(times, c, i), columns.movable[i] && entity.getMovable() ? statics : StaticBodies.of(c));
+    }
+
+    public Physicable simulateTime(double timeStep) {
+        return simulateTime(timeStep, null);
+    }
+
+    public Physicable simulateTime(double timeStep, StepObserver observer) {
+        assert Double.isFinite(timeStep) && timeStep >= 0 : "Zeit kann nur endliche Schritte und nicht rückwärts laufen";
+        if (timeStep == 0 || columns.n == 0 && observer == null) return this;
+        // Die Sitzung kopiert die Spalten einmal, alle Zwischenschritte verändern nur diese Kopie
+        return startSession().simulateTime(timeStep, observer).snapshot();
+    }
+
+    public SimulationResult simulateTimeUntil(double timeStep, long deadline) {
+        assert Double.isFinite(timeStep) && timeStep >= 0 : "Zeit kann nur endliche Schritte und nicht rückwärts laufen";
+        if (timeStep == 0 || columns.n == 0) return new SimulationResult(this, timeStep, true);
+        SimulationSession session = startSession();
+        return SimulationResult.of(session, timeStep, session.simulateTimeUntil(timeStep, deadline));
+    }
+
+    public SimulationSession startSession() {
+        return new SimulationSession(this, columns, true, statics, restTimes, (c, times) -> with(c, times, statics));
+    }
+
+    public Physicable setGravity(Vector3D newGravity) {
+        assert V3.isValidVector(newGravity) : "Gravitation muss in Rechnungen anwendbar sein";
+        return new ArrayWorld(updateFreq, size, newGravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, LongDoubleMaps.immutable.empty(), columns, statics);
+    }
+
+    public Physicable setAirDensity(double newAirDensity) {
+        assert newAirDensity >= 0 && Double.isFinite(newAirDensity) : "Dichte des Mediums im Raum muss eine endliche, positive Größe sein";
+        return new ArrayWorld(updateFreq, size, gravity, newAirDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, LongDoubleMaps.immutable.empty(), columns, statics);
+    }
+
+    public Physicable setBroadPhase(BroadPhase newBroadPhase) {
+        assert newBroadPhase != null : "Ein Verfahren für die Breitphase muss angegeben werden";
+        return new ArrayWorld(updateFreq, size, gravity, airDensity, newBroadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes, columns, statics);
+    }
+
+    public Physicable setGravitySolver(GravitySolver newGravitySolver) {
+        assert newGravitySolver != null : "Ein Verfahren für die Gravitation muss angegeben werden";
+        return new ArrayWorld(updateFreq, size, gravity, airDensity, broadPhase, newGravitySolver, stepControl, integrator, sleepPolicy, LongDoubleMaps.immutable.empty(), columns, statics);
+    }
+
+    public Physicable setStepControl(StepControl newStepControl) {
+        assert newStepControl != null : "Ein Verfahren für die Schrittweite muss angegeben werden";
+        return new ArrayWorld(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, newStepControl, integrator, sleepPolicy, restTimes, columns, statics);
+    }
+
+    public Physicable setIntegrator(Integrator newIntegrator) {
+        assert newIntegrator != null : "Ein Verfahren für die Bewegung muss angegeben werden";
+        return new ArrayWorld(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, newIntegrator, sleepPolicy, restTimes, columns, statics);
+    }
+
+    public Physicable setSleepPolicy(SleepPolicy newSleepPolicy) {
+        assert newSleepPolicy != null : "Ein Verfahren für das Einschlafen muss angegeben werden";
+        return new ArrayWorld(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, newSleepPolicy, restTimes, columns, statics);
+    }
+
+    public double getUpdateFreq() { return updateFreq; }
+    public Vector3D getSize() { return size; }
+    public Vector3D getGravity() { return gravity; }
+    public double getAirDensity() { return airDensity; }
+    public BroadPhase getBroadPhase() { return broadPhase; }
+    public GravitySolver getGravitySolver() { return gravitySolver; }
+    public StepControl getStepControl() { return stepControl; }
+    public Integrator getIntegrator() { return integrator; }
+    public SleepPolicy getSleepPolicy() { return sleepPolicy; }
+    public boolean isSleeping(long id) { return Sleepers.isAsleep(sleepPolicy, restTimes, id); }
+
+    /** Spalten der Körper (dürfen nicht verändert werden) */
+    Columns getColumns() { return columns; }
+    /** Ruhezeit der ruhenden Körper nach ID */
+    ImmutableLongDoubleMap getRestTimes() { return restTimes; }
+
+    public Shape[] getEntities() {
+        // Die Welt ist unveränderlich, die Objekte müssen also nur einmal erzeugt werden
+        if (entityViews == null)
+            entityViews = columns.toShapes();
+        return entityViews.clone();
+    }
+}
@@ -0,0 +1,184 @@
+package in.freye.physics.al;
+
+import java.util.Arrays;
+
+/**
+ * Octree über die Gravitationsquellen für das Barnes-Hut-Verfahren.
+ * Jeder Knoten ist ein Würfel, der in acht gleich große Teilwürfel zerfällt; ein Blatt enthält bis zu LEAF_SIZE
+ * Quellen, die bei der Abfrage einzeln summiert werden. Für jeden Knoten werden Gesamtmasse und Schwerpunkt gespeichert.
+ *
+ * Bei der Abfrage wird ein Knoten als eine Punktmasse im Schwerpunkt behandelt, wenn er aus Sicht des Punkts
+ * klein genug erscheint (Kantenlänge / Abstand < theta) und den Punkt nicht selbst enthält, sonst wird er geöffnet.
+ * Der Baum wird einmal pro Zwischenschritt sequentiell aufgebaut und danach nur noch gelesen.
+ */
+final class BarnesHutTree implements GravitySolver.GravityField {
+    /** Maximale Anzahl Quellen pro Blatt (kleine Gruppen direkt zu summieren ist schneller als weiter abzusteigen) */
+    private static final int LEAF_SIZE = 4;
+    /** Maximale Tiefe, darunter werden nahezu gleiche Positionen ohne Grenze in einem Blatt gesammelt */
+    private static final int MAX_DEPTH = 48;
+    /** Markierungen in body[]: leerer Knoten, innerer Knoten */
+    private static final int EMPTY = -1, INTERNAL = -2;
+
+    private final double theta;
+    private final double[] x, y, z, m;
+    /** Je Quelle: nächste Quelle im selben Blatt (-1: keine) */
+    private final int[] nextInLeaf;
+
+    /** Anzahl der Knoten, Knoten 0 ist die Wurzel */
+    private int count;
+    /** Mittelpunkt und halbe Kantenlänge der Würfel */
+    private double[] cx, cy, cz, half;
+    /** Gesamtmasse und Schwerpunkt der Knoten */
+    private double[] mass, sx, sy, sz;
+    /** Je Knoten acht Kinder (0: nicht vorhanden, die Wurzel ist nie ein Kind) */
+    private int[] child;
+    /** Erste Quelle eines Blatts, EMPTY oder INTERNAL */
+    private int[] body;
+    /** Anzahl der Quellen in einem Blatt */
+    private int[] leafSize;
+
+    BarnesHutTree(double theta, int n, double[] x, double[] y, double[] z, double[] m) {
+        this.theta = theta;
+        this.x = x; this.y = y; this.z = z; this.m = m;
+        nextInLeaf = new int[n];
+        allocate(Math.max(2 * n, 8));
+        if (n == 0) return;
+        // Wurzel: kleinster Würfel um alle Quellen
+        double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]); maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]); maxY = Math.max(maxY, y[i]);
+            minZ = Math.min(minZ, z[i]); maxZ = Math.max(maxZ, z[i]);
+        }
+        double extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        newNode(0.5 * (minX + maxX), 0.5 * (minY + maxY), 0.5 * (minZ + maxZ), 0.5 * extent * (1 + 1e-9) + Double.MIN_NORMAL);
+        for (int i = 0; i < n; i++)
+            insert(i, 0, 0);
+        summarize(0);
+    }
+
+    private void allocate(int capacity) {
+        cx = new double[capacity]; cy = new double[capacity]; cz = new double[capacity]; half = new double[capacity];
+        mass = new double[capacity]; sx = new double[capacity]; sy = new double[capacity]; sz = new double[capacity];
+        child = new int[8 * capacity];
+        body = new int[capacity];
+        leafSize = new int[capacity];
+    }
+
+    private int newNode(double x, double y, double z, double h) {
+        if (count == body.length) {
+            int capacity = 2 * count;
+            cx = Arrays.copyOf(cx, capacity); cy = Arrays.copyOf(cy, capacity); cz = Arrays.copyOf(cz, capacity);
+            half = Arrays.copyOf(half, capacity);
+            body = Arrays.copyOf(body, capacity); leafSize = Arrays.copyOf(leafSize, capacity);
+            // Masse und Schwerpunkt werden erst nach dem Einfügen aller Quellen berechnet
+            mass = new double[capacity]; sx = new double[capacity]; sy = new double[capacity]; sz = new double[capacity];
+            child = Arrays.copyOf(child, 8 * capacity);
+        }
+        cx[count] = x; cy[count] = y; cz[count] = z; half[count] = h;
+        body[count] = EMPTY;
+        return count++;
+    }
+
+    /** Fügt Quelle i in den Teilbaum von node ein */
+    private void insert(int i, int node, int depth) {
+        while (body[node] == INTERNAL) {
+            node = childFor(node, i);
+            depth++;
+        }
+        if (leafSize[node] < LEAF_SIZE || depth >= MAX_DEPTH) {
+            // EMPTY (-1) beendet auch die Verkettung
+            nextInLeaf[i] = body[node];
+            body[node] = i;
+            leafSize[node]++;
+            return;
+        }
+        // Volles Blatt teilen: Vorhandene Quellen auf die Kinder verteilen, dann i einfügen
+        int old = body[node];
+        body[node] = INTERNAL;
+        leafSize[node] = 0;
+        while (old >= 0) {
+            int next = nextInLeaf[old];
+            insert(old, node, depth);
+            old = next;
+        }
+        insert(i, node, depth);
+    }
+
+    /** Gibt das Kind zurück, in dessen Würfel Quelle i liegt, und legt es bei Bedarf an */
+    private int childFor(int node, int i) {
+        int octant = (x[i] >= cx[node] ? 1 : 0) | (y[i] >= cy[node] ? 2 : 0) | (z[i] >= cz[node] ? 4 : 0);
+        int c = child[8 * node + octant];
+        if (c == 0) {
+            double h = 0.5 * half[node];
+            c = newNode(cx[node] + ((octant & 1) != 0 ? h : -h), cy[node] + ((octant & 2) != 0 ? h : -h),
+                    cz[node] + ((octant & 4) != 0 ? h : -h), h);
+            child[8 * node + octant] = c;
+        }
+        return c;
+    }
+
+    /** Berechnet Gesamtmasse und Schwerpunkt eines Teilbaums */
+    private void summarize(int node) {
+        double mSum = 0, xSum = 0, ySum = 0, zSum = 0;
+        if (body[node] == INTERNAL) {
+            for (int k = 0; k < 8; k++) {
+                int c = child[8 * node + k];
+                if (c == 0) continue;
+                summarize(c);
+                mSum += mass[c]; xSum += mass[c] * sx[c]; ySum += mass[c] * sy[c]; zSum += mass[c] * sz[c];
+            }
+        } else {
+            for (int i = body[node]; i >= 0; i = nextInLeaf[i]) {
+                mSum += m[i]; xSum += m[i] * x[i]; ySum += m[i] * y[i]; zSum += m[i] * z[i];
+            }
+        }
+        mass[node] = mSum;
+        sx[node] = xSum / mSum; sy[node] = ySum / mSum; sz[node] = zSum / mSum;
+    }
+
+    public void accelerationAt(double px, double py, double pz, double[] out, int offset) {
+        double ax = 0, ay = 0, az = 0;
+        // Tiefensuche mit eigenem Stapel (je Ebene höchstens sieben noch offene Geschwister)
+        int[] stack = new int[7 * (MAX_DEPTH + 1) + 1];
+        int top = 0;
+        if (count > 0) stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (body[node] != INTERNAL) {
+                // Blatt: Quellen einzeln wie in der direkten Summe
+                for (int i = body[node]; i >= 0; i = nextInLeaf[i]) {
+                    if (x[i] == px && y[i] == py && z[i] == pz) continue;
+                    double dx = x[i] - px, dy = y[i] - py, dz = z[i] - pz;
+                    double d = Math.sqrt(dx*dx + dy*dy + dz*dz);
+                    double f = force(m[i], d);
+                    ax += dx * f; ay += dy * f; az += dz * f;
+                }
+                continue;
+            }
+            double dx = sx[node] - px, dy = sy[node] - py, dz = sz[node] - pz;
+            double d2 = dx*dx + dy*dy + dz*dz;
+            double h = half[node];
+            boolean outside = Math.abs(px - cx[node]) > h || Math.abs(py - cy[node]) > h || Math.abs(pz - cz[node]) > h;
+            // Kantenlänge / Abstand < theta, quadriert verglichen (Wurzel nur für zusammengefasste Knoten)
+            if (outside && 4 * h * h < theta * theta * d2) {
+                // Teilbaum erscheint klein genug: Punktmasse im Schwerpunkt
+                double f = force(mass[node], Math.sqrt(d2));
+                ax += dx * f; ay += dy * f; az += dz * f;
+            } else {
+                for (int k = 8 * node; k < 8 * node + 8; k++)
+                    if (child[k] != 0) stack[top++] = child[k];
+            }
+        }
+        out[offset] = ax; out[offset+1] = ay; out[offset+2] = az;
+    }
+
+    /**
+     * a = G * m / r² * (r / |r|), ohne den Vektor r
+     * (d³ als Produkt statt Math.pow(d, 3): Die Abfrage besteht fast nur aus diesen Termen)
+     */
+    private static double force(double m, double d) {
+        return World.GRAVITY_CONSTANT * m / (d * d * d);
+    }
+}
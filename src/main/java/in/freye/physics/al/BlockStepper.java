@@ -0,0 +1,117 @@
+package in.freye.physics.al;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Hierarchische Blockschritte auf spaltenweise gespeicherten Körpern (StepControl.blocks()).
+ * Ein Zwischenschritt dt = 1 / updateFreq wird in 2^maxLevel Ticks geteilt. Jeder Körper wählt aus seiner
+ * Beschleunigung eine eigene Schrittweite dt / 2^k (k <= maxLevel) und bewegt sich in diesem Teilschritt wie in
+ * ArrayStepper auf einer Parabel mit konstanter Beschleunigung. In einem Tick werden nur die Körper berechnet, deren
+ * Teilschritt dort endet; die Positionen der übrigen Gravitationsquellen werden auf ihrer Parabel vorhergesagt.
+ * Ein Teilschritt beginnt immer bei einem Vielfachen seiner eigenen Länge, am Ende von dt sind also alle Körper
+ * wieder gleichzeitig. Dann folgen wie bei FIXED Wandkollisionen und Kollisionen zwischen Körpern (ArrayStepper).
+ *
+ * Wählen alle Körper die Stufe 0, entspricht ein Zwischenschritt exakt einem Schritt von ArrayStepper.
+ */
+final class BlockStepper {
+    /** In einem Tick sind oft nur wenige Körper fällig, erst ab dieser Anzahl lohnt sich die parallele Berechnung */
+    private static final int PARALLEL_MIN = 256;
+
+    private final ArrayStepper stepper;
+    private final StepControl control;
+    /** Anzahl Ticks je Zwischenschritt (2^maxLevel) */
+    private final long ticks;
+    /** Beginn und Länge des laufenden Teilschritts je Körper in Ticks */
+    private final long[] start, length;
+    /** Zeit seit Beginn des laufenden Teilschritts je Körper (für die Vorhersage der Quellen) */
+    private final double[] age;
+    /**
+     * Beschleunigung bei der vorherigen Auswertung und Länge des vorherigen Teilschritts in Sekunden
+     * (0: noch keine), bleiben über die Zwischenschritte erhalten
+     */
+    private final double[] pax, pay, paz, previous;
+    /** Körper, deren Teilschritt im aktuellen Tick endet (die ersten dueCount Einträge) */
+    private final int[] due;
+    private int dueCount;
+
+    BlockStepper(Columns c, StepControl control, ArrayStepper stepper) {
+        this.stepper = stepper;
+        this.control = control;
+        ticks = 1L << control.maxLevel();
+        start = new long[c.n];
+        length = new long[c.n];
+        age = new double[c.n];
+        pax = new double[c.n]; pay = new double[c.n]; paz = new double[c.n];
+        previous = new double[c.n];
+        due = new int[c.n];
+    }
+
+    /** Simuliert einen Zwischenschritt dt und verändert dabei die übergebenen Spalten */
+    void step(Columns c, double dt) {
+        double tick = dt / ticks;
+        IntStream.range(0, c.n).parallel().forEach(i -> stepper.savePrevious(c, i));
+        // Alle Körper beginnen bei Tick 0 einen neuen Teilschritt
+        Arrays.fill(start, 0);
+        Arrays.fill(length, 0);
+        next(c.n);
+        for (long k = 0; k < ticks; k = next(c.n)) {
+            long now = k;
+            // Teilschritte, die jetzt enden, abschließen: Der Körper erreicht die aktuelle Zeit
+            forEachDue(i -> { if (length[i] > 0) stepper.applyMovement(c, i, length[i] * tick); });
+            for (int i = 0; i < c.n; i++)
+                age[i] = start[i] + length[i] == now ? 0 : (now - start[i]) * tick;
+            stepper.prepareGravity(c, age);
+            // Fällige Körper: neue Beschleunigung, Stufe für den nächsten Teilschritt
+            forEachDue(i -> {
+                stepper.accelerate(c, i);
+                length[i] = chooseLength(c, i, now, tick);
+                start[i] = now;
+            });
+        }
+        // Alle Teilschritte enden am Ende von dt
+        forEachDue(i -> stepper.applyMovement(c, i, length[i] * tick));
+        stepper.finishStep(c, dt);
+    }
+
+    /** Tick, bei dem der nächste Teilschritt endet (höchstens ticks), sammelt die dann fälligen Körper in due */
+    private long next(int n) {
+        long next = ticks;
+        dueCount = 0;
+        for (int i = 0; i < n; i++) {
+            long end = start[i] + length[i];
+            if (end < next) {
+                next = end;
+                dueCount = 0;
+            }
+            if (end == next) due[dueCount++] = i;
+        }
+        return next;
+    }
+
+    private void forEachDue(IntConsumer action) {
+        IntStream indices = IntStream.range(0, dueCount);
+        (dueCount >= PARALLEL_MIN ? indices.parallel() : indices).forEach(k -> action.accept(due[k]));
+    }
+
+    /**
+     * Länge des nächsten Teilschritts von Körper i in Ticks: größte Zweierpotenz, die die erlaubte Schrittweite
+     * nicht überschreitet und bei der der Teilschritt bei einem Vielfachen seiner Länge beginnt
+     */
+    private long chooseLength(Columns c, int i, long now, double tick) {
+        if (!c.movable[i]) return ticks - now;
+        double jx = c.ax[i] - pax[i], jy = c.ay[i] - pay[i], jz = c.az[i] - paz[i];
+        double jerk = previous[i] == 0 ? 0 : Math.sqrt(jx*jx + jy*jy + jz*jz) / previous[i];
+        double step = Math.min(control.accuracyStep(jerk, c.radius[i]), stepper.gravityStep(c, i, control));
+        // Höchstens doppelt so lang wie der vorherige Teilschritt (die Schätzung über diesen bleibt gültig),
+        // ohne vorherigen Teilschritt ist die Änderung der Beschleunigung unbekannt: kleinste Schrittweite
+        step = Math.min(step, previous[i] > 0 ? 2 * previous[i] : tick);
+        long len = ticks;
+        while (len > 1 && len * tick > step) len >>= 1;
+        while (now % len != 0) len >>= 1;
+        pax[i] = c.ax[i]; pay[i] = c.ay[i]; paz[i] = c.az[i];
+        previous[i] = len * tick;
+        return len;
+    }
+}
@@ -0,0 +1,44 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+/**
+ * Verfahren, mit dem vor der exakten Kollisionsdetektion mögliche Kollisionspaare gesucht werden.
+ * Alle Verfahren liefern dieselben Kollisionen, sie unterscheiden sich nur im Rechenaufwand.
+ */
+public enum BroadPhase {
+    /** Jeder Körper wird gegen jeden anderen getestet: O(n²) */
+    ALL_PAIRS {
+        PairFinder create(Vector3D worldSize) { return null; }
+    },
+    /**
+     * Uniformes Gitter über den Raum, die Zellgröße richtet sich nach dem größten Radius.
+     * Nur Körper in benachbarten Zellen werden getestet.
+     */
+    SPATIAL_HASH {
+        PairFinder create(Vector3D worldSize) { return new SpatialHashGrid(worldSize); }
+    },
+    /**
+     * Sortierte Intervallgrenzen je Achse, die über Zwischenschritte hinweg mit Insertion Sort nachsortiert werden.
+     * Geeignet für langgestreckte Räume und stark unterschiedliche Radien, in fast ruhenden Szenen nahezu O(n).
+     */
+    SWEEP_AND_PRUNE {
+        PairFinder create(Vector3D worldSize) { return new SweepAndPrune(); }
+    };
+
+    /**
+     * Erzeugt die Datenstruktur für die Kandidatensuche
+     * @return null, wenn alle Paare getestet werden sollen
+     */
+    abstract PairFinder create(Vector3D worldSize);
+
+    /**
+     * Erzeugt die Datenstruktur für die Kandidatensuche, unbewegliche Körper werden über ihre Hierarchie gesucht
+     * (bei ALL_PAIRS werden weiterhin alle Paare getestet)
+     * @param statics Hierarchie der unbeweglichen Körper der Welt
+     */
+    PairFinder create(Vector3D worldSize, StaticBodies statics) {
+        PairFinder pairs = create(worldSize);
+        return pairs == null || statics.isEmpty() ? pairs : new StaticSplit(pairs, statics);
+    }
+}
@@ -0,0 +1,121 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.Arrays;
+
+/**
+ * Spaltenweise Speicherung aller Körper einer Welt ("structure of arrays").
+ * Jede Eigenschaft liegt in einem eigenen primitiven Array, Index i beschreibt in jedem Array denselben Körper.
+ * Die Arrays werden nur von ArrayStepper und EventStepper während eines Zeitschritts verändert,
+ * eine in einer ArrayWorld gespeicherte Instanz bleibt unverändert.
+ */
+final class Columns {
+    /** Anzahl der Körper */
+    final int n;
+    final long[] id;
+    /** Komponenten von Position, Geschwindigkeit, Gesamtbeschleunigung und Eigenbeschleunigung */
+    double[] px, py, pz, vx, vy, vz;
+    final double[] ax, ay, az, sx, sy, sz;
+    final double[] mass, density, bounciness, radius;
+    final boolean[] movable;
+
+    Columns(int n) {
+        this.n = n;
+        id = new long[n];
+        px = new double[n]; py = new double[n]; pz = new double[n];
+        vx = new double[n]; vy = new double[n]; vz = new double[n];
+        ax = new double[n]; ay = new double[n]; az = new double[n];
+        sx = new double[n]; sy = new double[n]; sz = new double[n];
+        mass = new double[n];
+        density = new double[n];
+        bounciness = new double[n];
+        radius = new double[n];
+        movable = new boolean[n];
+    }
+
+    /** Überträgt die Körper in Spalten (Reihenfolge bleibt erhalten) */
+    static Columns of(Spawnable[] entities) {
+        Columns c = new Columns(entities.length);
+        for (int i = 0; i < entities.length; i++)
+            c.set(i, entities[i]);
+        return c;
+    }
+
+    /** Schreibt die Eigenschaften des Körpers in Zeile i */
+    void set(int i, Spawnable e) {
+        assert e.getType() == ShapeType.SPHERE : "Spaltenweise Speicherung ist nur für Kugeln implementiert";
+        id[i] = e.getId();
+        px[i] = e.getPos().getX(); py[i] = e.getPos().getY(); pz[i] = e.getPos().getZ();
+        vx[i] = e.getVel().getX(); vy[i] = e.getVel().getY(); vz[i] = e.getVel().getZ();
+        ax[i] = e.getAcc().getX(); ay[i] = e.getAcc().getY(); az[i] = e.getAcc().getZ();
+        sx[i] = e.getSelfAcc().getX(); sy[i] = e.getSelfAcc().getY(); sz[i] = e.getSelfAcc().getZ();
+        mass[i] = e.getMass();
+        density[i] = e.getDensity();
+        bounciness[i] = e.getBounciness();
+        radius[i] = (double) e.getTypeData()[0];
+        movable[i] = e.getMovable();
+    }
+
+    /** Kopiert Zeile j aus einer anderen Instanz in Zeile i */
+    void set(int i, Columns c, int j) {
+        id[i] = c.id[j];
+        px[i] = c.px[j]; py[i] = c.py[j]; pz[i] = c.pz[j];
+        vx[i] = c.vx[j]; vy[i] = c.vy[j]; vz[i] = c.vz[j];
+        ax[i] = c.ax[j]; ay[i] = c.ay[j]; az[i] = c.az[j];
+        sx[i] = c.sx[j]; sy[i] = c.sy[j]; sz[i] = c.sz[j];
+        mass[i] = c.mass[j];
+        density[i] = c.density[j];
+        bounciness[i] = c.bounciness[j];
+        radius[i] = c.radius[j];
+        movable[i] = c.movable[j];
+    }
+
+    /** Erzeugt eine unabhängige Kopie mit m Zeilen (m >= n), die ersten n Zeilen werden übernommen */
+    Columns copy(int m) {
+        assert m >= n : "Eine Kopie darf keine Körper verlieren";
+        Columns c = new Columns(m);
+        System.arraycopy(id, 0, c.id, 0, n);
+        System.arraycopy(px, 0, c.px, 0, n); System.arraycopy(py, 0, c.py, 0, n); System.arraycopy(pz, 0, c.pz, 0, n);
+        System.arraycopy(vx, 0, c.vx, 0, n); System.arraycopy(vy, 0, c.vy, 0, n); System.arraycopy(vz, 0, c.vz, 0, n);
+        System.arraycopy(ax, 0, c.ax, 0, n); System.arraycopy(ay, 0, c.ay, 0, n); System.arraycopy(az, 0, c.az, 0, n);
+        System.arraycopy(sx, 0, c.sx, 0, n); System.arraycopy(sy, 0, c.sy, 0, n); System.arraycopy(sz, 0, c.sz, 0, n);
+        System.arraycopy(mass, 0, c.mass, 0, n);
+        System.arraycopy(density, 0, c.density, 0, n);
+        System.arraycopy(bounciness, 0, c.bounciness, 0, n);
+        System.arraycopy(radius, 0, c.radius, 0, n);
+        System.arraycopy(movable, 0, c.movable, 0, n);
+        return c;
+    }
+
+    Columns copy() {
+        return copy(n);
+    }
+
+    /** Gibt eine Kopie ohne Zeile i zurück */
+    Columns without(int i) {
+        Columns c = new Columns(n - 1);
+        for (int j = 0, k = 0; j < n; j++)
+            if (j != i) c.set(k++, this, j);
+        return c;
+    }
+
+    /** Sucht die Zeile des Körpers mit der angegebenen ID, -1 wenn nicht vorhanden */
+    int indexOf(long entityId) {
+        for (int i = 0; i < n; i++)
+            if (id[i] == entityId) return i;
+        return -1;
+    }
+
+    /** Erzeugt unveränderliche Kugel-Objekte aus den Spalten */
+    Shape[] toShapes() {
+        Shape[] shapes = new Shape[n];
+        Arrays.setAll(shapes, i -> new Sphere(id[i],
+                new Vector3D(px[i], py[i], pz[i]),
+                new Vector3D(vx[i], vy[i], vz[i]),
+                new Vector3D(ax[i], ay[i], az[i]),
+                new Vector3D(sx[i], sy[i], sz[i]),
+                movable[i], radius[i], density[i], bounciness[i]));
+        return shapes;
+    }
+}
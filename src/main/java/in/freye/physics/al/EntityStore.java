@@ -0,0 +1,221 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.list.ImmutableList;
+
+/**
+ * Unveränderliche Menge der Körper einer Welt (World) in Einfügereihenfolge.
+ *
+ * Es gibt zwei Darstellungen, die jeweils erst bei Bedarf aus der anderen erzeugt und dann behalten werden:
+ * - Liste (list()): für Zeitschritte, die ohnehin jeden Körper berechnen und eine neue Liste erzeugen
+ * - persistenter Baum (Trie): für Bearbeitungen einzelner Körper. Die Körper liegen in Plätzen eines Vektors
+ *   (Trie mit 32 Kindern je Knoten, Platz = Einfügereihenfolge), eine Hash-Array-Mapped-Trie (IdMap) ordnet jeder ID
+ *   ihren Platz zu. Suchen, Ersetzen und Löschen nach ID kopieren nur die Knoten auf dem Weg zum Körper
+ *   (O(log n)), alle übrigen Knoten werden mit der vorherigen Menge geteilt. Gelöschte Körper hinterlassen leere
+ *   Plätze, überwiegen diese, wird der Vektor einmal kompakt neu aufgebaut.
+ * Nach einem Zeitschritt kostet die erste Bearbeitung also O(n) für den Aufbau des Baums, alle weiteren O(log n).
+ */
+final class EntityStore {
+    /** Menge ohne Körper */
+    static final EntityStore EMPTY = new EntityStore(Lists.immutable.empty(), null);
+
+    private static final int BITS = 5, WIDTH = 1 << BITS, MASK = WIDTH - 1;
+
+    /** Darstellungen der Körper, mindestens eine ist gesetzt (die andere wird bei Bedarf erzeugt) */
+    private ImmutableList<Shape> list;
+    private Trie trie;
+
+    private EntityStore(ImmutableList<Shape> list, Trie trie) {
+        this.list = list;
+        this.trie = trie;
+    }
+
+    /** Menge mit den Körpern einer Liste (z.B. nach einem Zeitschritt), der Baum wird erst bei Bedarf aufgebaut */
+    static EntityStore of(ImmutableList<Shape> entities) {
+        return entities.isEmpty() ? EMPTY : new EntityStore(entities, null);
+    }
+
+    int size() {
+        ImmutableList<Shape> l = list;
+        return l != null ? l.size() : trie.size;
+    }
+
+    boolean contains(long id) {
+        return trie().slot(id) >= 0;
+    }
+
+    /** Körper mit der angegebenen ID (null: nicht enthalten) */
+    Shape get(long id) {
+        Trie t = trie();
+        int slot = t.slot(id);
+        return slot < 0 ? null : t.get(slot);
+    }
+
+    /** Menge mit einem zusätzlichen Körper am Ende (ID darf nicht enthalten sein) */
+    EntityStore with(Shape entity) {
+        assert !contains(entity.id) : "Die ID des Körpers darf nicht vergeben sein";
+        return new EntityStore(null, trie().with(entity));
+    }
+
+    /** Menge, in der der Körper mit der ID id an seinem Platz durch entity ersetzt ist */
+    EntityStore replace(long id, Shape entity) {
+        assert contains(id) : "Die Menge muss den Körper mit der angegebenen ID enthalten";
+        assert entity.id == id || !contains(entity.id) : "Die ID des neuen Körpers darf nicht vergeben sein";
+        return new EntityStore(null, trie().replace(id, entity));
+    }
+
+    /** Menge ohne den Körper mit der ID id, die Reihenfolge der übrigen bleibt erhalten */
+    EntityStore without(long id) {
+        assert contains(id) : "Die Menge muss den Körper mit der angegebenen ID enthalten";
+        Trie t = trie().without(id);
+        return t.size == 0 ? EMPTY : new EntityStore(null, t);
+    }
+
+    /** Prüft, ob ein Körper exakt an dieser Position liegt (Durchlauf über alle Körper ohne die Liste aufzubauen) */
+    boolean occupied(Vector3D pos) {
+        double x = pos.getX(), y = pos.getY(), z = pos.getZ();
+        ImmutableList<Shape> l = list;
+        if (l != null) return l.anySatisfy(e -> e.pos.getX() == x && e.pos.getY() == y && e.pos.getZ() == z);
+        return trie.occupied(trie.root, trie.shift, x, y, z);
+    }
+
+    /** Körper in Einfügereihenfolge als Liste */
+    ImmutableList<Shape> list() {
+        ImmutableList<Shape> l = list;
+        if (l == null) list = l = Lists.immutable.with(trie.toArray());
+        return l;
+    }
+
+    Shape[] toArray() {
+        ImmutableList<Shape> l = list;
+        return l != null ? l.toArray(new Shape[0]) : trie.toArray();
+    }
+
+    /**
+     * Baum der Körper. Die Darstellungen sind selbst unveränderlich, gleichzeitig aufgerufen entsteht
+     * höchstens eine zweite, gleichwertige Darstellung.
+     */
+    private Trie trie() {
+        Trie t = trie;
+        if (t == null) trie = t = Trie.of(list.toArray(new Shape[0]));
+        return t;
+    }
+
+    /** Vektor der Körper nach Platz und HAMT der Plätze nach ID */
+    private static final class Trie {
+        /** Wurzel des Vektors: innere Knoten enthalten Kinder, Blätter die Körper (null: gelöscht) */
+        final Object[] root;
+        /** Bits der Platznummer unterhalb der Wurzel (0: die Wurzel ist ein Blatt) */
+        final int shift;
+        /** Anzahl vergebener Plätze (einschließlich gelöschter) und Anzahl der Körper */
+        final int slots, size;
+        final IdMap ids;
+
+        Trie(Object[] root, int shift, int slots, int size, IdMap ids) {
+            this.root = root;
+            this.shift = shift;
+            this.slots = slots;
+            this.size = size;
+            this.ids = ids;
+        }
+
+        /** Baut den Vektor von unten auf (Plätze 0..n-1) */
+        static Trie of(Shape[] entities) {
+            int n = entities.length;
+            Object[][] nodes = new Object[Math.max(1, (n + MASK) >>> BITS)][];
+            for (int k = 0; k < nodes.length; k++) {
+                nodes[k] = new Object[WIDTH];
+                System.arraycopy(entities, k * WIDTH, nodes[k], 0, Math.max(0, Math.min(WIDTH, n - k * WIDTH)));
+            }
+            int shift = 0;
+            while (nodes.length > 1) {
+                Object[][] parents = new Object[(nodes.length + MASK) >>> BITS][];
+                for (int k = 0; k < parents.length; k++) {
+                    parents[k] = new Object[WIDTH];
+                    System.arraycopy(nodes, k * WIDTH, parents[k], 0, Math.min(WIDTH, nodes.length - k * WIDTH));
+                }
+                nodes = parents;
+                shift += BITS;
+            }
+            IdMap ids = IdMap.EMPTY;
+            for (int i = 0; i < n; i++)
+                ids = ids.put(entities[i].id, i);
+            return new Trie(nodes[0], shift, n, n, ids);
+        }
+
+        int slot(long id) {
+            return ids.get(id);
+        }
+
+        Shape get(int slot) {
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS)
+                node = (Object[]) node[(slot >>> level) & MASK];
+            return (Shape) node[slot & MASK];
+        }
+
+        Trie with(Shape entity) {
+            Object[] r = root;
+            int s = shift;
+            // Der Vektor ist voll: neue Wurzel eine Ebene höher
+            if ((long) slots == 1L << (shift + BITS)) {
+                r = new Object[WIDTH];
+                r[0] = root;
+                s += BITS;
+            }
+            return new Trie(set(r, s, slots, entity), s, slots + 1, size + 1, ids.put(entity.id, slots));
+        }
+
+        Trie replace(long id, Shape entity) {
+            int slot = slot(id);
+            IdMap newIds = entity.id == id ? ids : ids.remove(id).put(entity.id, slot);
+            return new Trie(set(root, shift, slot, entity), shift, slots, size, newIds);
+        }
+
+        Trie without(long id) {
+            int slot = slot(id);
+            Trie t = new Trie(set(root, shift, slot, null), shift, slots, size - 1, ids.remove(id));
+            // Überwiegen die leeren Plätze, wird kompakt neu aufgebaut (amortisiert O(1) je gelöschtem Körper)
+            int empty = t.slots - t.size;
+            return empty > WIDTH && empty > t.size ? of(t.toArray()) : t;
+        }
+
+        /** Kopiert die Knoten auf dem Weg zum Platz slot und setzt dort value */
+        private static Object[] set(Object[] node, int level, int slot, Object value) {
+            Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+            int i = (slot >>> level) & MASK;
+            copy[i] = level == 0 ? value : set((Object[]) copy[i], level - BITS, slot, value);
+            return copy;
+        }
+
+        boolean occupied(Object[] node, int level, double x, double y, double z) {
+            for (Object child : node) {
+                if (child == null) continue;
+                if (level > 0) {
+                    if (occupied((Object[]) child, level - BITS, x, y, z)) return true;
+                    continue;
+                }
+                Vector3D p = ((Shape) child).pos;
+                if (p.getX() == x && p.getY() == y && p.getZ() == z) return true;
+            }
+            return false;
+        }
+
+        /** Körper in der Reihenfolge der Plätze, ohne gelöschte */
+        Shape[] toArray() {
+            Shape[] result = new Shape[size];
+            collect(root, shift, result, 0);
+            return result;
+        }
+
+        private static int collect(Object[] node, int level, Shape[] result, int count) {
+            for (Object child : node) {
+                if (child == null) continue;
+                if (level == 0) result[count++] = (Shape) child;
+                else count = collect((Object[]) child, level - BITS, result, count);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Ereignisgesteuerte Simulation auf spaltenweise gespeicherten Körpern (StepControl.EVENT_DRIVEN).
+ * Innerhalb eines Zwischenschritts bleibt die Beschleunigung jedes Körpers konstant (wie in ArrayStepper), die Bahnen
+ * sind also Parabeln. Die Zeitpunkte der Kollisionen Kugel–Wand (quadratische Gleichung je Achse) und Kugel–Kugel
+ * (quadratisch, bei unterschiedlicher Beschleunigung der beiden Kugeln 4. Grades) werden exakt berechnet und in einer
+ * Prioritätswarteschlange nach Zeit geordnet. Die Simulation springt von Ereignis zu Ereignis, ein Körper wird erst bei
+ * seinem nächsten Ereignis oder am Ende des Zwischenschritts auf die aktuelle Zeit gebracht.
+ * Nach einer Kollision werden nur die Ereignisse der beteiligten Körper neu berechnet (O(n) je Ereignis),
+ * veraltete Ereignisse werden über Kollisionszähler erkannt und übersprungen.
+ * Häufen sich Ereignisse (z.B. bei aufeinander liegenden Kugeln), wird der Rest des Zwischenschritts mit ArrayStepper
+ * berechnet.
+ */
+final class EventStepper {
+    /** Höchstens so viele Ereignisse je Körper und Zwischenschritt, danach wird ArrayStepper verwendet */
+    private static final int MAX_EVENTS_PER_BODY = 100;
+    /** Toleranz für Berührung (0.1 Nanometer, wie in Sphere.isColliding) */
+    private static final double CONTACT = 1.0e-10;
+
+    private final double[] size;
+    /** Schwelle für Geschwindigkeiten nach Wandkollisionen (siehe Sphere.handleWallCollision) */
+    private final double threshold;
+    /** Berechnet die Beschleunigungen und übernimmt Zwischenschritte mit zu vielen Ereignissen */
+    private final ArrayStepper fallback;
+    private final PriorityQueue<Event> queue = new PriorityQueue<>(Comparator.comparingDouble((Event e) -> e.t));
+
+    // Zustand im Zwischenschritt: Komponenten je Achse, Zeitpunkt, zu dem Position und Geschwindigkeit eines Körpers
+    // gelten, Beschleunigung (an Wänden ruhende Achsen: 0), Beschleunigung zu Beginn des Zwischenschritts und Anzahl
+    // der Kollisionen
+    private double[][] p, v, a, a0;
+    private double[] time;
+    private int[] count;
+
+    /** Kollision von Körper i mit Körper j (j >= 0) oder mit der Wand -1 - j (Achse (-1 - j) / 2, Seite (-1 - j) % 2) */
+    private static final class Event {
+        final double t;
+        final int i, j, countI, countJ;
+
+        Event(double t, int i, int j, int countI, int countJ) {
+            this.t = t;
+            this.i = i;
+            this.j = j;
+            this.countI = countI;
+            this.countJ = countJ;
+        }
+    }
+
+    EventStepper(Columns c, Vector3D size, ArrayStepper fallback) {
+        this.size = size.toArray();
+        threshold = Math.min(0.001, 0.001 * V3.min(size));
+        this.fallback = fallback;
+        a = new double[3][c.n];
+        time = new double[c.n];
+        count = new int[c.n];
+    }
+
+    /** Simuliert einen Zeitschritt dt und verändert dabei die übergebenen Spalten */
+    void step(Columns c, double dt) {
+        int n = c.n;
+        fallback.calcAccelerations(c);
+        // ArrayStepper tauscht Puffer, die Arrays müssen also je Zwischenschritt neu zugeordnet werden
+        p = new double[][]{ c.px, c.py, c.pz };
+        v = new double[][]{ c.vx, c.vy, c.vz };
+        a0 = new double[][]{ c.ax, c.ay, c.az };
+        for (int i = 0; i < n; i++) {
+            time[i] = 0;
+            count[i] = 0;
+            constrain(c, i);
+        }
+        queue.clear();
+        for (int i = 0; i < n; i++) {
+            if (c.movable[i]) predictWalls(c, i, 0, dt);
+            for (int j = i + 1; j < n; j++)
+                if (c.movable[i] || c.movable[j]) predictPair(c, i, j, 0, dt);
+        }
+        int budget = MAX_EVENTS_PER_BODY * n;
+        while (!queue.isEmpty()) {
+            Event e = queue.poll();
+            if (e.countI != count[e.i] || e.j >= 0 && e.countJ != count[e.j]) continue;
+            if (budget-- == 0) {
+                for (int i = 0; i < n; i++)
+                    advance(c, i, e.t);
+                fallback.step(c, dt - e.t);
+                return;
+            }
+            advance(c, e.i, e.t);
+            if (e.j >= 0) {
+                advance(c, e.j, e.t);
+                collide(c, e.i, e.j);
+            } else {
+                collideWall(c, e.i, (-1 - e.j) / 2, (-1 - e.j) % 2);
+            }
+            // Erst beide Körper aktualisieren, damit das Ereignis des Paars i, j mit den neuen Zählern vorhergesagt wird
+            count[e.i]++;
+            constrain(c, e.i);
+            if (e.j >= 0) {
+                count[e.j]++;
+                constrain(c, e.j);
+            }
+            predictAll(c, e.i, e.t, dt, -1);
+            if (e.j >= 0) predictAll(c, e.j, e.t, dt, e.i);
+        }
+        for (int i = 0; i < n; i++)
+            advance(c, i, dt);
+    }
+
+    /** Bewegt Körper i mit konstanter Beschleunigung bis zum Zeitpunkt t (entspricht Sphere.applyMovement) */
+    private void advance(Columns c, int i, double t) {
+        double dt = t - time[i];
+        time[i] = t;
+        if (!c.movable[i] || dt == 0) return;
+        for (int k = 0; k < 3; k++) {
+            p[k][i] = V3.add(V3.add(p[k][i], dt*dt, 0.5 * a[k][i]), dt, v[k][i]);
+            v[k][i] = V3.add(v[k][i], dt, a[k][i]);
+        }
+    }
+
+    /**
+     * Eine Achse, auf der ein Körper langsamer als die Schwelle an einer Wand liegt und in sie hinein beschleunigt wird,
+     * ruht bis zur nächsten Kollision (sonst entstünden unendlich viele Wandkollisionen ohne Zeitabstand).
+     * Alle anderen Achsen erhalten wieder die Beschleunigung vom Beginn des Zwischenschritts, so fällt z.B. eine
+     * vom Boden angestoßene Kugel wieder.
+     */
+    private void constrain(Columns c, int i) {
+        for (int k = 0; k < 3; k++)
+            a[k][i] = c.movable[i] ? a0[k][i] : 0;
+        if (!c.movable[i]) return;
+        double r = c.radius[i];
+        for (int k = 0; k < 3; k++) {
+            boolean low = p[k][i] - r <= CONTACT && a[k][i] < 0, high = size[k] - r - p[k][i] <= CONTACT && a[k][i] > 0;
+            if ((low || high) && Math.abs(v[k][i]) < threshold) {
+                p[k][i] = low ? r : size[k] - r;
+                v[k][i] = 0;
+                a[k][i] = 0;
+            }
+        }
+    }
+
+    /** Berechnet alle Ereignisse von Körper i ab dem Zeitpunkt t neu (außer mit Körper skip) */
+    private void predictAll(Columns c, int i, double t, double horizon, int skip) {
+        if (c.movable[i]) predictWalls(c, i, t, horizon);
+        for (int j = 0; j < c.n; j++)
+            if (j != i && j != skip && (c.movable[i] || c.movable[j])) predictPair(c, i, j, t, horizon);
+    }
+
+    /** Berechnet die Wandkollisionen von Körper i, der schon auf den Zeitpunkt t gebracht wurde */
+    private void predictWalls(Columns c, int i, double t, double horizon) {
+        double r = c.radius[i];
+        for (int k = 0; k < 3; k++) {
+            // Abstand zur unteren Wand wächst mit v, zur oberen mit -v
+            schedule(new Event(t + contactTime(p[k][i] - r, v[k][i], a[k][i]), i, -1 - 2 * k, count[i], 0), horizon);
+            schedule(new Event(t + contactTime(size[k] - r - p[k][i], -v[k][i], -a[k][i]), i, -2 - 2 * k, count[i], 0), horizon);
+        }
+    }
+
+    /**
+     * Erster Zeitpunkt, an dem der Abstand gap + u·t + b/2·t² abnehmend 0 erreicht
+     * @return NaN, falls der Abstand nie 0 wird
+     */
+    static double contactTime(double gap, double u, double b) {
+        // An der Wand: sofort, falls der Körper sich hineinbewegt, sonst erst wenn die Beschleunigung ihn zurückbringt
+        if (gap <= 0) return u < 0 ? 0 : u > 0 && b < 0 ? -2 * u / b : Double.NaN;
+        if (b == 0) return u < 0 ? -gap / u : Double.NaN;
+        double disc = u * u - 2 * b * gap;
+        if (disc < 0) return Double.NaN;
+        // Numerisch stabile Lösung von b/2·t² + u·t + gap = 0 (die kleinere positive Nullstelle ist die erste Berührung,
+        // da der Abstand vorher positiv ist)
+        double q = -0.5 * (u + Math.copySign(Math.sqrt(disc), u));
+        double t1 = q / (0.5 * b), t2 = gap / q;
+        double t = Double.NaN;
+        if (t1 > 0) t = t1;
+        if (t2 > 0 && !(t2 >= t)) t = t2;
+        return t;
+    }
+
+    /** Berechnet die nächste Kollision der Kugeln i und j ab dem Zeitpunkt t */
+    private void predictPair(Columns c, int i, int j, double t, double horizon) {
+        // Relative Bewegung d(τ) = dp + dv·τ + h·τ² (unbewegliche Körper ruhen)
+        double ti = t - time[i], tj = t - time[j];
+        double pp = 0, pv = 0, vv = 0, ph = 0, vh = 0, hh = 0;
+        for (int k = 0; k < 3; k++) {
+            double pi = p[k][i], pj = p[k][j], vi = 0, vj = 0;
+            if (c.movable[i]) {
+                pi += v[k][i] * ti + 0.5 * a[k][i] * ti * ti;
+                vi = v[k][i] + a[k][i] * ti;
+            }
+            if (c.movable[j]) {
+                pj += v[k][j] * tj + 0.5 * a[k][j] * tj * tj;
+                vj = v[k][j] + a[k][j] * tj;
+            }
+            double dp = pj - pi, dv = vj - vi, h = 0.5 * (a[k][j] - a[k][i]);
+            pp += dp * dp; pv += dp * dv; vv += dv * dv;
+            ph += dp * h; vh += dv * h; hh += h * h;
+        }
+        double dist = c.radius[i] + c.radius[j], d0 = Math.sqrt(pp), range = horizon - t;
+        // Kugeln an gleicher Position kollidieren nicht (wie in Sphere.isColliding)
+        if (pp == 0) return;
+        // Obere Schranke der Annäherung bis zum Ende des Zwischenschritts: |dv|·τ + |h|·τ²
+        if (d0 - dist > Math.sqrt(vv) * range + Math.sqrt(hh) * range * range) return;
+        double f0 = pp - dist * dist;
+        // Berühren oder überlappen sich die Kugeln schon, kollidieren sie sofort, falls sie sich annähern
+        boolean touching = d0 - CONTACT <= dist;
+        if (touching && pv < 0) {
+            schedule(new Event(t, i, j, count[i], count[j]), horizon);
+            return;
+        }
+        double tau = Double.NaN;
+        if (hh == 0) {
+            // |d|² - R² = vv·τ² + 2pv·τ + f0, Annäherung nur bei pv < 0
+            if (touching || pv >= 0) return;
+            double disc = pv * pv - vv * f0;
+            if (disc < 0) return;
+            tau = f0 / (-pv + Math.sqrt(disc));
+        } else {
+            // |d|² - R² = hh·τ⁴ + 2vh·τ³ + (vv + 2ph)·τ² + 2pv·τ + f0,
+            // erste Nullstelle, an der sich die Kugeln annähern: d·d' = 2hh·τ³ + 3vh·τ² + (vv + 2ph)·τ + pv < 0
+            for (double root : roots(new double[]{ f0, 2 * pv, vv + 2 * ph, 2 * vh, hh }, 0, range)) {
+                if (root > 0 && ((2 * hh * root + 3 * vh) * root + vv + 2 * ph) * root + pv < 0) {
+                    tau = root;
+                    break;
+                }
+            }
+        }
+        schedule(new Event(t + tau, i, j, count[i], count[j]), horizon);
+    }
+
+    /**
+     * Reelle Nullstellen des Polynoms c[0] + c[1]·x + c[2]·x² + ... im Intervall [lo; hi], aufsteigend sortiert.
+     * Zwischen den Nullstellen der Ableitung (rekursiv) ist das Polynom monoton, dort wird jede Nullstelle mit einem
+     * Vorzeichenwechsel per Bisektion bestimmt.
+     */
+    static double[] roots(double[] c, double lo, double hi) {
+        int degree = c.length - 1;
+        while (degree > 0 && c[degree] == 0) degree--;
+        if (degree == 0 || !(lo < hi)) return new double[0];
+        if (degree == 1) {
+            double x = -c[0] / c[1];
+            return x >= lo && x <= hi ? new double[]{ x } : new double[0];
+        }
+        double[] derivative = new double[degree];
+        for (int k = 1; k <= degree; k++)
+            derivative[k - 1] = k * c[k];
+        double[] critical = roots(derivative, lo, hi);
+        double[] bounds = new double[critical.length + 2];
+        bounds[0] = lo;
+        System.arraycopy(critical, 0, bounds, 1, critical.length);
+        bounds[bounds.length - 1] = hi;
+        double[] result = new double[bounds.length];
+        int count = 0;
+        for (int k = 0; k + 1 < bounds.length; k++) {
+            double a = bounds[k], b = bounds[k + 1], fa = eval(c, degree, a), fb = eval(c, degree, b);
+            if (fa == 0) {
+                if (count == 0 || result[count - 1] != a) result[count++] = a;
+                continue;
+            }
+            if (fb != 0 && fa > 0 == fb > 0) continue;
+            // Bisektion bis zur Auflösung von double
+            while (true) {
+                double m = 0.5 * (a + b);
+                if (m <= a || m >= b) break;
+                double fm = eval(c, degree, m);
+                if (fm == 0) { a = b = m; break; }
+                if (fm > 0 == fa > 0) { a = m; fa = fm; } else b = m;
+            }
+            if (count == 0 || result[count - 1] != b) result[count++] = b;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Horner-Schema */
+    private static double eval(double[] c, int degree, double x) {
+        double y = c[degree];
+        for (int k = degree - 1; k >= 0; k--)
+            y = y * x + c[k];
+        return y;
+    }
+
+    private void schedule(Event e, double horizon) {
+        if (e.t <= horizon) queue.add(e);
+    }
+
+    /** Geschwindigkeiten nach der Kollision (entspricht Sphere.applyEntityCollisionDeflections für beide Kugeln) */
+    private void collide(Columns c, int i, int j) {
+        double[] n = new double[3], vi = new double[3], vj = new double[3];
+        for (int k = 0; k < 3; k++) {
+            n[k] = p[k][i] - p[k][j];
+            vi[k] = c.movable[i] ? v[k][i] : 0;
+            vj[k] = c.movable[j] ? v[k][j] : 0;
+        }
+        double nn = dot(n, n), dot = (dot(vj, n) - dot(vi, n)) / nn;
+        // v1' = (v1 + 2*m2/(m1+m2) * dot(v2-v1, p1-p2) / |p1-p2|² * (p1-p2)) * bounciness
+        double fi = c.movable[j] ? 2 * c.mass[j] / (c.mass[i] + c.mass[j]) : 2;
+        double fj = c.movable[i] ? 2 * c.mass[i] / (c.mass[i] + c.mass[j]) : 2;
+        for (int k = 0; k < 3; k++) {
+            if (c.movable[i]) v[k][i] = V3.add(vi[k], fi * dot, n[k]) * c.bounciness[i];
+            if (c.movable[j]) v[k][j] = V3.add(vj[k], -fj * dot, n[k]) * c.bounciness[j];
+        }
+    }
+
+    /** Reflexion an der Wand (entspricht Sphere.wallCollision zum exakten Kollisionszeitpunkt) */
+    private void collideWall(Columns c, int i, int axis, int side) {
+        double r = c.radius[i];
+        p[axis][i] = side == 0 ? r : size[axis] - r;
+        double v1 = -v[axis][i] * c.bounciness[i];
+        v[axis][i] = Math.abs(v1) < threshold ? 0 : v1;
+    }
+
+    private static double dot(double[] x, double[] y) {
+        return x[0] * y[0] + x[1] * y[1] + x[2] * y[2];
+    }
+}
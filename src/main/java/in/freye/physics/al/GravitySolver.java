@@ -0,0 +1,113 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.list.ImmutableList;
+
+/**
+ * Verfahren, mit dem die gegenseitige Gravitation der massereichen Körper berechnet wird.
+ * Gravitationsquellen sind alle Körper mit einer Masse ab World.GRAVITY_SIGNIFICANT_MASS.
+ */
+public abstract class GravitySolver {
+    /** Direkte Summe über alle Gravitationsquellen (exakt, O(n·m)) */
+    public static final GravitySolver DIRECT = new GravitySolver(Kind.DIRECT, 0) {
+        GravityField build(int n, double[] x, double[] y, double[] z, double[] m, Vector3D worldSize) { return null; }
+        public String toString() { return "DIRECT"; }
+    };
+
+    /** Arten der Verfahren, die Ordnungszahl ist die Kennung in Snapshot (nur am Ende erweitern) */
+    enum Kind { DIRECT, BARNES_HUT, PARTICLE_MESH }
+
+    /** Art des Verfahrens und sein Parameter, z.B. für Snapshot */
+    final Kind kind;
+    final double parameter;
+
+    /** Nur innerhalb des Pakets erweiterbar, Instanzen werden über die Factory-Methoden erzeugt */
+    GravitySolver(Kind kind, double parameter) {
+        this.kind = kind;
+        this.parameter = parameter;
+    }
+
+    /** Erzeugt das Verfahren zu Art und Parameter (Umkehrung von kind und parameter) */
+    static GravitySolver of(Kind kind, double parameter) {
+        return switch (kind) {
+            case DIRECT -> DIRECT;
+            case BARNES_HUT -> barnesHut(parameter);
+            case PARTICLE_MESH -> particleMesh((int) parameter);
+        };
+    }
+
+    /**
+     * Barnes-Hut-Verfahren: Die Quellen werden in einem Octree zusammengefasst, weit entfernte Teilbäume
+     * wirken über ihren Schwerpunkt (O(n·log m))
+     * @param theta Öffnungswinkel: Ein Teilbaum wird zusammengefasst, wenn Kantenlänge / Abstand < theta
+     *              (0 = exakt, typisch 0.3 bis 0.7)
+     */
+    public static GravitySolver barnesHut(double theta) {
+        assert theta >= 0 && Double.isFinite(theta) : "Der Öffnungswinkel muss eine endliche, positive Größe sein";
+        return new GravitySolver(Kind.BARNES_HUT, theta) {
+            GravityField build(int n, double[] x, double[] y, double[] z, double[] m, Vector3D worldSize) {
+                return new BarnesHutTree(theta, n, x, y, z, m);
+            }
+            public String toString() { return "BARNES_HUT(θ=" + theta + ")"; }
+        };
+    }
+
+    /**
+     * Particle-Mesh-Verfahren: Die Massen werden auf ein Gitter über den Raum verteilt, das Potential wird mit einer
+     * FFT berechnet (O(n + r³·log r)). Kräfte sind auf der Skala einer Gitterzelle geglättet,
+     * geeignet für dichte, gleichmäßige Massenverteilungen.
+     * @param resolution Anzahl der Zellen je Achse (Zweierpotenz, typisch 32 oder 64)
+     */
+    public static GravitySolver particleMesh(int resolution) {
+        assert resolution >= 2 && Integer.bitCount(resolution) == 1 : "Die Auflösung muss eine Zweierpotenz (mind. 2) sein";
+        return new GravitySolver(Kind.PARTICLE_MESH, resolution) {
+            /** Transformierte Green'sche Funktion, wird nur bei geänderter Raumgröße neu berechnet */
+            private volatile ParticleMesh.Kernel kernel;
+
+            GravityField build(int n, double[] x, double[] y, double[] z, double[] m, Vector3D worldSize) {
+                ParticleMesh.Kernel k = kernel;
+                if (k == null || !k.worldSize.equals(worldSize))
+                    kernel = k = new ParticleMesh.Kernel(resolution, worldSize);
+                return new ParticleMesh(k, n, x, y, z, m);
+            }
+            public String toString() { return "PARTICLE_MESH(" + resolution + ")"; }
+        };
+    }
+
+    /**
+     * Baut das Gravitationsfeld der Quellen für einen Zwischenschritt auf
+     * @param n Anzahl der Gravitationsquellen
+     * @param x,y,z Komponenten der Positionen (dürfen bis zur letzten Abfrage nicht verändert werden)
+     * @param m Massen
+     * @return null, wenn direkt über alle Quellen summiert werden soll
+     */
+    abstract GravityField build(int n, double[] x, double[] y, double[] z, double[] m, Vector3D worldSize);
+
+    /** Baut das Gravitationsfeld für eine Liste von Gravitationsquellen auf */
+    GravityField build(ImmutableList<Shape> sources, Vector3D worldSize) {
+        if (this == DIRECT) return null;
+        int n = sources.size();
+        double[] x = new double[n], y = new double[n], z = new double[n], m = new double[n];
+        for (int i = 0; i < n; i++) {
+            Shape s = sources.get(i);
+            x[i] = s.pos.getX(); y[i] = s.pos.getY(); z[i] = s.pos.getZ();
+            m[i] = s.mass;
+        }
+        return build(n, x, y, z, m, worldSize);
+    }
+
+    /** Gravitationsfeld der Quellen eines Zwischenschritts, kann parallel abgefragt werden */
+    interface GravityField {
+        /**
+         * Schreibt die Beschleunigung durch alle Quellen an einem Punkt nach out[offset] bis out[offset+2].
+         * Quellen, die genau auf dem Punkt liegen (der Körper selbst), werden nicht berücksichtigt.
+         */
+        void accelerationAt(double px, double py, double pz, double[] out, int offset);
+
+        default Vector3D accelerationAt(Vector3D p) {
+            double[] a = new double[3];
+            accelerationAt(p.getX(), p.getY(), p.getZ(), a, 0);
+            return new Vector3D(a);
+        }
+    }
+}
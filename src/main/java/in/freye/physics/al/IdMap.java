@@ -0,0 +1,138 @@
+package in.freye.physics.al;
+
+/**
+ * Unveränderliche Zuordnung von IDs zu int-Werten als Hash-Array-Mapped-Trie (HAMT), z.B. ID → Platz in EntityStore
+ * oder die Menge der durch Bearbeitungen geweckten Körper in World.
+ * Einfügen und Entfernen kopieren nur die Knoten auf dem Weg zur ID (O(log n)), alle übrigen Knoten werden mit der
+ * vorherigen Zuordnung geteilt.
+ *
+ * Knoten: bitmap gibt an, welche der 32 möglichen Kinder (je 5 Bits des Hashs) vorhanden sind, children enthält nur
+ * diese (Leaf oder IdMap). Da mix() umkehrbar ist, unterscheiden sich die Hashes verschiedener IDs spätestens im
+ * letzten Abschnitt, es gibt also keine Kollisionen.
+ */
+final class IdMap {
+    /** Zuordnung ohne IDs */
+    static final IdMap EMPTY = new IdMap(0, new Object[0]);
+
+    private static final int BITS = 5, MASK = (1 << BITS) - 1;
+
+    private final int bitmap;
+    private final Object[] children;
+
+    private IdMap(int bitmap, Object[] children) {
+        this.bitmap = bitmap;
+        this.children = children;
+    }
+
+    boolean isEmpty() {
+        return bitmap == 0;
+    }
+
+    /** Wert zur ID (-1: nicht enthalten) */
+    int get(long id) {
+        return get(id, mix(id), 0);
+    }
+
+    /** Zuordnung, in der id auf value (nicht negativ) verweist */
+    IdMap put(long id, int value) {
+        return put(id, value, mix(id), 0);
+    }
+
+    /** Zuordnung ohne id (dieselbe Zuordnung, falls id nicht enthalten ist) */
+    IdMap remove(long id) {
+        return remove(id, mix(id), 0);
+    }
+
+    private int get(long id, long hash, int shift) {
+        int bit = bit(hash, shift);
+        if ((bitmap & bit) == 0) return -1;
+        Object child = children[index(bit)];
+        if (child instanceof Leaf) return ((Leaf) child).id == id ? ((Leaf) child).value : -1;
+        return ((IdMap) child).get(id, hash, shift + BITS);
+    }
+
+    private IdMap put(long id, int value, long hash, int shift) {
+        int bit = bit(hash, shift), i = index(bit);
+        if ((bitmap & bit) == 0) {
+            Object[] copy = new Object[children.length + 1];
+            System.arraycopy(children, 0, copy, 0, i);
+            copy[i] = new Leaf(id, value);
+            System.arraycopy(children, i, copy, i + 1, children.length - i);
+            return new IdMap(bitmap | bit, copy);
+        }
+        Object child = children[i];
+        Object replacement;
+        if (child instanceof IdMap) replacement = ((IdMap) child).put(id, value, hash, shift + BITS);
+        else if (((Leaf) child).id == id) replacement = new Leaf(id, value);
+        else {
+            // Zwei IDs im selben Abschnitt: Unterknoten, der beide enthält
+            Leaf other = (Leaf) child;
+            replacement = EMPTY.put(other.id, other.value, mix(other.id), shift + BITS).put(id, value, hash, shift + BITS);
+        }
+        Object[] copy = children.clone();
+        copy[i] = replacement;
+        return new IdMap(bitmap, copy);
+    }
+
+    private IdMap remove(long id, long hash, int shift) {
+        Object result = removeFrom(id, hash, shift);
+        if (result instanceof IdMap) return (IdMap) result;
+        if (result == null) return EMPTY;
+        // Einzelnes Blatt an der Wurzel
+        Leaf leaf = (Leaf) result;
+        return EMPTY.put(leaf.id, leaf.value, mix(leaf.id), shift);
+    }
+
+    /** Knoten ohne die ID; ein einzelnes verbleibendes Blatt wird an den übergeordneten Knoten gegeben (null: leer) */
+    private Object removeFrom(long id, long hash, int shift) {
+        int bit = bit(hash, shift), i = index(bit);
+        if ((bitmap & bit) == 0) return this;
+        Object child = children[i];
+        Object replacement;
+        if (child instanceof Leaf) {
+            if (((Leaf) child).id != id) return this;
+            replacement = null;
+        } else {
+            replacement = ((IdMap) child).removeFrom(id, hash, shift + BITS);
+            if (replacement == child) return this;
+        }
+        if (replacement == null) {
+            if (children.length == 1) return null;
+            if (children.length == 2 && children[1 - i] instanceof Leaf) return children[1 - i];
+            Object[] copy = new Object[children.length - 1];
+            System.arraycopy(children, 0, copy, 0, i);
+            System.arraycopy(children, i + 1, copy, i, children.length - i - 1);
+            return new IdMap(bitmap & ~bit, copy);
+        }
+        if (replacement instanceof Leaf && children.length == 1) return replacement;
+        Object[] copy = children.clone();
+        copy[i] = replacement;
+        return new IdMap(bitmap, copy);
+    }
+
+    private static int bit(long hash, int shift) {
+        return 1 << (int) ((hash >>> shift) & MASK);
+    }
+
+    private int index(int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    /** Eintrag: Wert zur ID */
+    private static final class Leaf {
+        final long id;
+        final int value;
+
+        Leaf(long id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    /** Umkehrbare Durchmischung der ID (Abschluss von SplitMix64), damit auch fortlaufende IDs gleichmäßig verteilt sind */
+    private static long mix(long id) {
+        long z = (id ^ (id >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
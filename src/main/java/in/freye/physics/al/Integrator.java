@@ -0,0 +1,71 @@
+package in.freye.physics.al;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * Verfahren, mit dem Position und Geschwindigkeit über einen Zwischenschritt dt fortgeschrieben werden.
+ *
+ * TAYLOR (Standard) wertet die Beschleunigung einmal zu Beginn aus und bewegt den Körper auf einer Parabel
+ * (Fehler erster Ordnung in dt, Umlaufbahnen verlieren oder gewinnen über viele Umläufe stetig Energie).
+ * Die übrigen Verfahren sind symplektische Zerlegungen: Abwechselnd bewegen sich alle Körper gleichförmig
+ * ("Drift", x += c·v·dt) und erhalten die Beschleunigung an den neuen Positionen ("Kick", v += d·a·dt).
+ * Die Energie schwankt dabei nur beschränkt, Bahnen bleiben auch mit wenigen Schritten pro Umlauf geschlossen.
+ * Jeder Kick wertet die Gravitation an allen Körpern neu aus.
+ *
+ * Ereignisgesteuert (StepControl.EVENT_DRIVEN) und mit Blockschritten (StepControl.blocks()) bewegen sich die Körper
+ * immer auf Parabeln wie bei TAYLOR, das Verfahren wird dort nicht verwendet.
+ */
+public final class Integrator {
+    /** Parabel mit der Beschleunigung zu Beginn des Zwischenschritts (bisheriges Verfahren, Standard) */
+    public static final Integrator TAYLOR = new Integrator("TAYLOR", null, null);
+    /**
+     * Leapfrog (Störmer-Verlet, Drift-Kick-Drift): symplektisch, zweite Ordnung, eine Auswertung der Beschleunigung
+     * pro Zwischenschritt. Entspricht Velocity Verlet um einen halben Schritt versetzt.
+     */
+    public static final Integrator LEAPFROG = composition("LEAPFROG", new double[] { 0.5, 0.5 }, new double[] { 1 });
+    /**
+     * Yoshida (1990): drei Leapfrog-Schritte mit den Gewichten w1, w0, w1, symplektisch, vierte Ordnung,
+     * drei Auswertungen der Beschleunigung pro Zwischenschritt
+     */
+    public static final Integrator YOSHIDA4;
+
+    static {
+        double cbrt2 = Math.cbrt(2), w1 = 1 / (2 - cbrt2), w0 = -cbrt2 / (2 - cbrt2);
+        YOSHIDA4 = composition("YOSHIDA4", new double[] { w1 / 2, (w0 + w1) / 2, (w0 + w1) / 2, w1 / 2 }, new double[] { w1, w0, w1 });
+    }
+
+    private final String name;
+    /** Anteile von dt je Drift (eine mehr als Kicks) und je Kick (null: TAYLOR) */
+    final double[] drift, kick;
+
+    private Integrator(String name, double[] drift, double[] kick) {
+        this.name = name;
+        this.drift = drift;
+        this.kick = kick;
+    }
+
+    /**
+     * Eigene symplektische Zerlegung: Drift mit drift[0]·dt, Kick mit kick[0]·dt, Drift mit drift[1]·dt, ...,
+     * Drift mit drift[kick.length]·dt
+     * @param name Bezeichnung (toString)
+     * @param drift Anteile von dt der Drifts, eins mehr als Kicks, Summe 1
+     * @param kick Anteile von dt der Kicks (mindestens einer), Summe 1
+     */
+    public static Integrator composition(String name, double[] drift, double[] kick) {
+        assert name != null && drift != null && kick != null : "Bezeichnung und Anteile müssen angegeben werden";
+        assert kick.length > 0 && drift.length == kick.length + 1 : "Auf jeden Kick folgt ein Drift, vor dem ersten steht ein Drift";
+        assert Math.abs(DoubleStream.of(drift).sum() - 1) < 1e-12 && Math.abs(DoubleStream.of(kick).sum() - 1) < 1e-12
+                : "Die Anteile der Drifts und der Kicks müssen jeweils zusammen dt ergeben";
+        return new Integrator(name, Arrays.copyOf(drift, drift.length), Arrays.copyOf(kick, kick.length));
+    }
+
+    /** Gibt an, ob das Verfahren TAYLOR ist (eine Parabel pro Zwischenschritt) */
+    boolean isTaylor() {
+        return kick == null;
+    }
+
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,78 @@
+package in.freye.physics.al;
+
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.list.ImmutableList;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Breitphase der Kollisionsdetektion: Findet für jeden Körper die Indizes der Körper, mit denen er kollidieren könnte.
+ * Die Kandidaten werden konservativ über achsenparallele Hüllquader bestimmt,
+ * die exakte Detektion findet weiterhin in Sphere (bzw. ArrayStepper) statt.
+ *
+ * Die Kandidaten von Körper i liegen aufsteigend sortiert in neighbors[offsets[i]] bis neighbors[offsets[i+1]-1],
+ * dadurch werden Kollisionen in derselben Reihenfolge wie beim Testen aller Paare angewendet.
+ */
+abstract class PairFinder {
+    int[] offsets = new int[1], neighbors = new int[0];
+    /** Puffer für Positionen und Radien, wenn die Körper als Liste übergeben werden */
+    private double[] bx = new double[0], by = bx, bz = bx, br = bx;
+
+    /**
+     * Berechnet die Kandidaten neu
+     * @param n Anzahl der Körper
+     * @param x,y,z Komponenten der Positionen
+     * @param r Radien der Hüllkugeln
+     */
+    abstract void update(int n, double[] x, double[] y, double[] z, double[] r);
+
+    /** Berechnet die Kandidaten für eine Liste von Körpern neu (Index = Position in der Liste) */
+    void update(ImmutableList<Shape> entities) {
+        int n = entities.size();
+        if (bx.length < n) {
+            bx = new double[n]; by = new double[n]; bz = new double[n]; br = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            Shape e = entities.get(i);
+            bx[i] = e.pos.getX(); by[i] = e.pos.getY(); bz[i] = e.pos.getZ();
+            br[i] = e.boundingRadius();
+        }
+        update(n, bx, by, bz, br);
+    }
+
+    /** Kandidaten von Körper i als Liste */
+    <T> ImmutableList<T> select(int i, ImmutableList<T> entities) {
+        return Lists.immutable.fromStream(IntStream.range(offsets[i], offsets[i+1]).mapToObj(k -> entities.get(neighbors[k])));
+    }
+
+    /**
+     * Baut die Kandidatenlisten in zwei parallelen Durchläufen auf (Zählen, dann Füllen)
+     * @param candidates liefert alle Kandidaten eines Körpers (Reihenfolge beliebig, ohne Duplikate)
+     */
+    void build(int n, CandidateSource candidates) {
+        if (offsets.length < n + 1) offsets = new int[n + 1];
+        int[] count = new int[n];
+        IntStream.range(0, n).parallel().forEach(i -> candidates.forEach(i, j -> count[i]++));
+        offsets[0] = 0;
+        for (int i = 0; i < n; i++)
+            offsets[i+1] = offsets[i] + count[i];
+        if (neighbors.length < offsets[n]) neighbors = new int[offsets[n]];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int[] k = { offsets[i] };
+            candidates.forEach(i, j -> neighbors[k[0]++] = j);
+            Arrays.sort(neighbors, offsets[i], offsets[i+1]);
+        });
+    }
+
+    /** Konservativer Test: Überschneiden sich die Hüllquader der Körper i und j? */
+    static boolean boxesOverlap(int i, int j, double[] x, double[] y, double[] z, double[] r) {
+        double d = r[i] + r[j];
+        return Math.abs(x[i] - x[j]) <= d && Math.abs(y[i] - y[j]) <= d && Math.abs(z[i] - z[j]) <= d;
+    }
+
+    interface CandidateSource {
+        void forEach(int i, IntConsumer action);
+    }
+}
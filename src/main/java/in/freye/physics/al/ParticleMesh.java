@@ -0,0 +1,163 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+import java.util.stream.IntStream;
+
+/**
+ * Particle-Mesh-Verfahren für die gegenseitige Gravitation:
+ * Die Massen werden auf ein Gitter über den Raum verteilt ("Cloud in Cell"), das Potential wird als Faltung mit der
+ * Green'schen Funktion -G/r über eine FFT berechnet und die Beschleunigung (-grad φ) zurück auf die Körper interpoliert.
+ *
+ * Damit sich die Massen nicht periodisch über die Raumgrenzen hinweg anziehen, wird das Gitter für die Faltung
+ * in jeder Achse auf die doppelte Größe mit Nullen aufgefüllt (Hockney-Eastwood).
+ * Kräfte werden auf der Skala einer Zelle geglättet, das Verfahren eignet sich daher für dichte Massenverteilungen,
+ * nicht für einzelne enge Begegnungen. Die Selbstanziehung eines Körpers hebt sich durch die symmetrische
+ * Verteilung und Interpolation näherungsweise auf.
+ */
+final class ParticleMesh implements GravitySolver.GravityField {
+    /** Mittelwert von 1/r über eine Würfelzelle der Kantenlänge 1 um ihren Mittelpunkt (Wert des Kerns bei r = 0) */
+    private static final double SELF_CELL_FACTOR = 2.3800774;
+
+    private final int n;
+    private final double hx, hy, hz;
+    /** Beschleunigung in den Zellmittelpunkten, Index (i * n + j) * n + k */
+    private final double[] ax, ay, az;
+
+    /**
+     * Fourier-Transformierte der Green'schen Funktion auf dem aufgefüllten Gitter.
+     * Hängt nur von Auflösung und Raumgröße ab und wird daher über die Zwischenschritte hinweg wiederverwendet.
+     */
+    static final class Kernel {
+        final int n;
+        final Vector3D worldSize;
+        /** Der Kern ist reell und symmetrisch, seine Transformierte also ebenfalls reell */
+        final double[] transformed;
+
+        Kernel(int n, Vector3D worldSize) {
+            this.n = n;
+            this.worldSize = worldSize;
+            int m = 2 * n;
+            double hx = worldSize.getX() / n, hy = worldSize.getY() / n, hz = worldSize.getZ() / n;
+            double self = -World.GRAVITY_CONSTANT * SELF_CELL_FACTOR / Math.cbrt(hx * hy * hz);
+            double[] re = new double[m * m * m], im = new double[m * m * m];
+            IntStream.range(0, m).parallel().forEach(i -> {
+                // Indizes ab n stehen für negative Abstände
+                double dx = (i <= n ? i : i - m) * hx;
+                for (int j = 0; j < m; j++) {
+                    double dy = (j <= n ? j : j - m) * hy;
+                    for (int k = 0; k < m; k++) {
+                        double dz = (k <= n ? k : k - m) * hz;
+                        double r = Math.sqrt(dx*dx + dy*dy + dz*dz);
+                        re[(i * m + j) * m + k] = r == 0 ? self : -World.GRAVITY_CONSTANT / r;
+                    }
+                }
+            });
+            fft(re, im, m, TransformType.FORWARD);
+            transformed = re;
+        }
+    }
+
+    ParticleMesh(Kernel kernel, int count, double[] x, double[] y, double[] z, double[] mass) {
+        n = kernel.n;
+        int m = 2 * n;
+        hx = kernel.worldSize.getX() / n; hy = kernel.worldSize.getY() / n; hz = kernel.worldSize.getZ() / n;
+        // Massen auf das (aufgefüllte) Gitter verteilen
+        double[] re = new double[m * m * m], im = new double[m * m * m];
+        int[] i0 = new int[2], j0 = new int[2], k0 = new int[2];
+        double[] wi = new double[2], wj = new double[2], wk = new double[2];
+        for (int s = 0; s < count; s++) {
+            weights(x[s] / hx, i0, wi);
+            weights(y[s] / hy, j0, wj);
+            weights(z[s] / hz, k0, wk);
+            for (int a = 0; a < 2; a++)
+                for (int b = 0; b < 2; b++)
+                    for (int c = 0; c < 2; c++)
+                        re[(i0[a] * m + j0[b]) * m + k0[c]] += mass[s] * wi[a] * wj[b] * wk[c];
+        }
+        // Faltung mit dem Kern: Multiplikation im Frequenzraum
+        fft(re, im, m, TransformType.FORWARD);
+        double[] g = kernel.transformed;
+        IntStream.range(0, re.length).parallel().forEach(i -> { re[i] *= g[i]; im[i] *= g[i]; });
+        fft(re, im, m, TransformType.INVERSE);
+        // a = -grad φ mit zentralen Differenzen (am Rand einseitig), nur im nicht aufgefüllten Bereich gültig
+        ax = new double[n * n * n]; ay = new double[n * n * n]; az = new double[n * n * n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            for (int j = 0; j < n; j++)
+                for (int k = 0; k < n; k++) {
+                    int c = (i * n + j) * n + k;
+                    ax[c] = -derivative(re, m, i, j, k, 0, hx);
+                    ay[c] = -derivative(re, m, i, j, k, 1, hy);
+                    az[c] = -derivative(re, m, i, j, k, 2, hz);
+                }
+        });
+    }
+
+    public void accelerationAt(double px, double py, double pz, double[] out, int offset) {
+        int[] i0 = new int[2], j0 = new int[2], k0 = new int[2];
+        double[] wi = new double[2], wj = new double[2], wk = new double[2];
+        weights(px / hx, i0, wi);
+        weights(py / hy, j0, wj);
+        weights(pz / hz, k0, wk);
+        double rx = 0, ry = 0, rz = 0;
+        for (int a = 0; a < 2; a++)
+            for (int b = 0; b < 2; b++)
+                for (int c = 0; c < 2; c++) {
+                    int cell = (i0[a] * n + j0[b]) * n + k0[c];
+                    double w = wi[a] * wj[b] * wk[c];
+                    rx += w * ax[cell]; ry += w * ay[cell]; rz += w * az[cell];
+                }
+        out[offset] = rx; out[offset+1] = ry; out[offset+2] = rz;
+    }
+
+    /**
+     * Gewichte für "Cloud in Cell" bzw. lineare Interpolation entlang einer Achse
+     * @param u Koordinate in Zelleinheiten (Zellmittelpunkte liegen bei 0.5, 1.5, ...)
+     * @param index die beiden benachbarten Zellen (am Rand auf das Gitter beschränkt)
+     * @param weight Anteile der beiden Zellen
+     */
+    private void weights(double u, int[] index, double[] weight) {
+        double c = u - 0.5;
+        int lower = (int) Math.floor(c);
+        double f = c - lower;
+        index[0] = Math.max(0, Math.min(n - 1, lower));
+        index[1] = Math.max(0, Math.min(n - 1, lower + 1));
+        weight[0] = 1 - f;
+        weight[1] = f;
+    }
+
+    /** Ableitung von φ entlang einer Achse in Zelle (i, j, k) des aufgefüllten Gitters der Kantenlänge m */
+    private double derivative(double[] phi, int m, int i, int j, int k, int axis, double h) {
+        int[] p = { i, j, k };
+        int lower = Math.max(0, p[axis] - 1), upper = Math.min(n - 1, p[axis] + 1);
+        p[axis] = lower;
+        double low = phi[(p[0] * m + p[1]) * m + p[2]];
+        p[axis] = upper;
+        double high = phi[(p[0] * m + p[1]) * m + p[2]];
+        return (high - low) / ((upper - lower) * h);
+    }
+
+    /** Dreidimensionale FFT als eindimensionale Transformationen entlang jeder Achse (m muss eine Zweierpotenz sein) */
+    static void fft(double[] re, double[] im, int m, TransformType type) {
+        // Abstand aufeinanderfolgender Elemente einer Zeile je Achse
+        for (int stride : new int[]{ m * m, m, 1 }) {
+            IntStream.range(0, m * m).parallel().forEach(line -> {
+                // Startindex der Zeile: alle Kombinationen der beiden anderen Achsen
+                int start = stride == 1 ? line * m : stride == m ? (line / m) * m * m + line % m : line;
+                double[][] data = new double[2][m];
+                for (int t = 0; t < m; t++) {
+                    data[0][t] = re[start + t * stride];
+                    data[1][t] = im[start + t * stride];
+                }
+                FastFourierTransformer.transformInPlace(data, DftNormalization.STANDARD, type);
+                for (int t = 0; t < m; t++) {
+                    re[start + t * stride] = data[0][t];
+                    im[start + t * stride] = data[1][t];
+                }
+            });
+        }
+    }
+}
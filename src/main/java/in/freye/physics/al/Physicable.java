@@ -20,18 +20,51 @@ public interface Physicable {
 
     /** Simuliert die Änderungen im System, die im Zeitschritt deltaTime (Einheit Sekunde) passieren */
     Physicable simulateTime(double deltaTime);
+    /** Simuliert wie simulateTime(deltaTime) und meldet jeden Zwischenschritt an observer */
+    Physicable simulateTime(double deltaTime, StepObserver observer);
+    /**
+     * Simuliert wie simulateTime(deltaTime), bricht aber zwischen zwei Zwischenschritten ab, wenn der Thread
+     * unterbrochen wurde oder System.nanoTime() deadline erreicht hat (mindestens ein Zwischenschritt wird simuliert)
+     */
+    SimulationResult simulateTimeUntil(double deltaTime, long deadline);
+    /** Beginnt eine veränderliche Simulation ab diesem Zustand, Welten entstehen erst durch snapshot() */
+    SimulationSession startSession();
 
     /** Ändert die Beschleunigung durch allgemeine Gravitation des Raums */
     Physicable setGravity(Vector3D newGravity);
     /** Ändert die Dichte des Mediums im Raum */
     Physicable setAirDensity(double newAirDensity);
+    /** Ändert das Verfahren, mit dem mögliche Kollisionspaare gesucht werden (Breitphase) */
+    Physicable setBroadPhase(BroadPhase newBroadPhase);
+    /** Ändert das Verfahren, mit dem die gegenseitige Gravitation der Körper berechnet wird */
+    Physicable setGravitySolver(GravitySolver newGravitySolver);
+    /** Ändert die Wahl der Länge der Zwischenschritte (fest oder adaptiv) */
+    Physicable setStepControl(StepControl newStepControl);
+    /** Ändert das Verfahren, mit dem Position und Geschwindigkeit in Zwischenschritten fortgeschrieben werden */
+    Physicable setIntegrator(Integrator newIntegrator);
+    /** Ändert, ob und wann ruhende Körper einschlafen (nicht mehr berechnet werden) */
+    Physicable setSleepPolicy(SleepPolicy newSleepPolicy);
 
+    /** Gibt zurück, wie oft die Welt mindestens pro Sekunde aktualisiert wird */
+    double getUpdateFreq();
     /** Gibt die Größe des simulierten Raums zurück */
     Vector3D getSize();
     /** Gibt die Gravitation des simulierten Raums zurück */
     Vector3D getGravity();
     /** Gibt die Dichte des raumfüllenden Mediums zurück */
     double getAirDensity();
+    /** Gibt das Verfahren der Breitphase der Kollisionsdetektion zurück */
+    BroadPhase getBroadPhase();
+    /** Gibt das Verfahren für die gegenseitige Gravitation der Körper zurück */
+    GravitySolver getGravitySolver();
+    /** Gibt das Verfahren für die Länge der Zwischenschritte zurück */
+    StepControl getStepControl();
+    /** Gibt das Verfahren für die Bewegung in Zwischenschritten zurück */
+    Integrator getIntegrator();
+    /** Gibt zurück, ob und wann ruhende Körper einschlafen */
+    SleepPolicy getSleepPolicy();
+    /** Gibt an, ob der Körper mit der angegebenen ID schläft (in Zwischenschritten nicht berechnet wird) */
+    boolean isSleeping(long id);
     /** Gibt ein Array der im Raum vorhandenen Körper zurück */
     Spawnable[] getEntities();
 
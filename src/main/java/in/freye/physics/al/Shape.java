@@ -3,6 +3,8 @@ package in.freye.physics.al;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.eclipse.collections.api.list.ImmutableList;
 
+import java.util.function.UnaryOperator;
+
 
 public abstract class Shape implements Spawnable {
     /** Definiert eine (noch) nicht vorhandene ID */
@@ -23,8 +25,13 @@ public abstract class Shape implements Spawnable {
     /** mass: Masse; density: Dichte; bounciness: Reflexionsstärke bei Kollision */
     protected final double mass, density, bounciness;
 
+    /** Sorgt dafür, dass neue Körper keine der IDs bis einschließlich maxId erhalten (z.B. nach dem Laden eines Snapshots) */
+    static void reserveIds(long maxId) {
+        idCounter = Math.max(idCounter, maxId + 1);
+    }
+
     /**
-     * Die ID sollte nur in privaten Konstruktoren als Parameter verfügbar sein,
+     * Die ID sollte nur in paketinternen Konstruktoren als Parameter verfügbar sein,
      * damit nur Manipulationen desselben Objekts dieselbe ID haben, keine neuen Körper
      */
     Shape(long id, ShapeType type, Vector3D pos, Vector3D vel, Vector3D acc, Vector3D selfAcc, boolean movable, double mass, double density, double bounciness) {
@@ -51,6 +58,13 @@ public abstract class Shape implements Spawnable {
      * @param gravityEntities Liste der anderen Körper im System, die durch Gravitation andere Körper beschleunigen
      */
     abstract Shape calcAcceleration(Vector3D gravity, double airDensity, ImmutableList<Shape> gravityEntities);
+    /**
+     * Addiert eigene und externe Beschleunigung
+     * @param gravity Allgemeine Gravitation
+     * @param airDensity Dichte des Mediums im Raum
+     * @param eGravity Bereits berechnete Beschleunigung durch die Gravitation der anderen Körper (siehe GravitySolver)
+     */
+    abstract Shape calcAcceleration(Vector3D gravity, double airDensity, Vector3D eGravity);
     /**
      * Wendet folgende Formeln an:
      * pos = 0.5 * acc * dt² + vel * dt;
@@ -75,7 +89,20 @@ public abstract class Shape implements Spawnable {
      * @param detectEntities Körper im Raum (vor Korrektur)
      * @param deflectionEntities Körper im Raum (nach Korrektur)
      */
-    abstract Shape applyEntityCollisionDeflections(ImmutableList<Shape> detectEntities, ImmutableList<Shape> deflectionEntities);
+    Shape applyEntityCollisionDeflections(ImmutableList<Shape> detectEntities, ImmutableList<Shape> deflectionEntities) {
+        return applyEntityCollisionDeflections(detectEntities.select(this::equals).getAny(), detectEntities,
+                e -> deflectionEntities.select(e::equals).getAny());
+    }
+    /**
+     * Berechnet die neue Geschwindigkeit nach Kollisionen, basierend auf Impuls- und Energieerhaltung
+     * @param detectSelf Dieser Körper vor Korrektur
+     * @param detectEntities Körper im Raum (vor Korrektur)
+     * @param deflectionState liefert zu einem Körper vor Korrektur seinen Zustand nach Korrektur
+     *                        (z.B. über eine nach ID indizierte Tabelle, ohne die Liste zu durchsuchen)
+     */
+    abstract Shape applyEntityCollisionDeflections(Shape detectSelf, ImmutableList<Shape> detectEntities, UnaryOperator<Shape> deflectionState);
+    /** Radius der Kugel, die den Körper vollständig umschließt (Grundlage für die Breitphase der Kollisionsdetektion) */
+    abstract double boundingRadius();
 
     // Getter-Methoden
     public long getId() { return id; }
@@ -0,0 +1,40 @@
+package in.freye.physics.al;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Ergebnis von Physicable.simulateTimeUntil(): die Welt nach den simulierten Zwischenschritten und die Zeit,
+ * die tatsächlich simuliert wurde (weniger als angefordert, wenn die Simulation abgebrochen wurde).
+ */
+public final class SimulationResult {
+    private final Physicable world;
+    private final double simulatedTime;
+    private final boolean complete;
+
+    SimulationResult(Physicable world, double simulatedTime, boolean complete) {
+        assert world != null && simulatedTime >= 0 : "Ergebnis muss eine Welt und eine positive Zeit enthalten";
+        this.world = world;
+        this.simulatedTime = simulatedTime;
+        this.complete = complete;
+    }
+
+    /** Ergebnis einer Sitzung nach simulateTimeUntil() */
+    static SimulationResult of(SimulationSession session, double timeStep, boolean complete) {
+        return new SimulationResult(session.snapshot(), complete ? timeStep : session.getTime(), complete);
+    }
+
+    /**
+     * Abbruchbedingung zwischen zwei Zwischenschritten: Der Thread wurde unterbrochen (z.B. Future.cancel(true))
+     * oder System.nanoTime() hat deadline erreicht. Die Unterbrechung bleibt für den Aufrufer gesetzt.
+     */
+    static BooleanSupplier stopAt(long deadline) {
+        return () -> Thread.currentThread().isInterrupted() || System.nanoTime() - deadline >= 0;
+    }
+
+    /** Gibt die Welt nach dem letzten simulierten Zwischenschritt zurück */
+    public Physicable getWorld() { return world; }
+    /** Gibt die tatsächlich simulierte Zeit zurück (Einheit Sekunde) */
+    public double getSimulatedTime() { return simulatedTime; }
+    /** Gibt an, ob die angeforderte Zeit vollständig simuliert wurde */
+    public boolean isComplete() { return complete; }
+}
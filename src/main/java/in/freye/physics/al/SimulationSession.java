@@ -0,0 +1,161 @@
+package in.freye.physics.al;
+
+import org.eclipse.collections.api.map.primitive.ImmutableLongDoubleMap;
+
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Veränderliche Simulation ab dem Zustand einer Welt (Physicable.startSession()).
+ * Alle Zwischenschritte verändern dieselben Spalten und Puffer (ArrayStepper, EventStepper, BlockStepper),
+ * statt für jeden Zwischenschritt eine neue Welt zu erzeugen. Eine unveränderliche Welt entsteht erst durch
+ * snapshot(): ArrayWorld übernimmt die Spalten direkt (erst der nächste Zwischenschritt kopiert sie),
+ * World erzeugt die Körper-Objekte. snapshots() liefert daraus einen bedarfsgesteuerten Strom von Momentaufnahmen
+ * (z.B. für Darstellung, Aufzeichnung oder Auswertung langer Simulationen).
+ *
+ * Die Zwischenschritte entsprechen denen von ArrayWorld.simulateTime(), das selbst eine Sitzung verwendet
+ * (ebenso World für ereignisgesteuerte Schritte, Blockschritte und symplektische Integratoren).
+ * Anders als bei aufeinanderfolgenden Aufrufen von Physicable.simulateTime() bleiben die vorherige Schrittweite
+ * (adaptive Schrittweite) und die Stufen der Blockschritte über mehrere Aufrufe von simulateTime() erhalten.
+ * Eine Sitzung darf nur von einem Thread gleichzeitig verwendet werden, die erzeugten Welten sind unveränderlich.
+ */
+public final class SimulationSession {
+    private final double updateFreq;
+    private final StepControl stepControl;
+    private final ArrayStepper stepper;
+    /** Ereignisgesteuerte Schritte bzw. Blockschritte (null: nicht gewählt) */
+    private final EventStepper events;
+    private final BlockStepper blocks;
+    /** Schlafzustand der Körper (null: Ruhezeiten der Ausgangswelt bleiben unverändert) */
+    private final Sleepers sleepers;
+    private final ImmutableLongDoubleMap restTimes;
+    /** Erzeugt aus Spalten und Ruhezeiten eine Welt mit den Eigenschaften der Ausgangswelt */
+    private final BiFunction<Columns, ImmutableLongDoubleMap, Physicable> worlds;
+
+    /** Spalten der Körper, shared: gehören auch zur letzten Momentaufnahme (vor dem nächsten Schritt kopieren) */
+    private Columns c;
+    private boolean shared;
+    /** Letzte Momentaufnahme (null: seitdem wurde simuliert) */
+    private Physicable snapshot;
+    /** Länge des vorherigen Zwischenschritts (adaptive Schrittweite) und insgesamt simulierte Zeit */
+    private double step, time;
+
+    /**
+     * @param world Ausgangswelt (Eigenschaften)
+     * @param c Spalten der Körper, gehören ab jetzt der Sitzung
+     * @param shared c gehört auch zur Ausgangswelt und wird vor dem ersten Zwischenschritt kopiert
+     * @param worlds erzeugt aus Spalten (dürfen übernommen werden) und Ruhezeiten eine unveränderliche Welt
+     */
+    SimulationSession(Physicable world, Columns c, boolean shared, StaticBodies statics, ImmutableLongDoubleMap restTimes,
+                      BiFunction<Columns, ImmutableLongDoubleMap, Physicable> worlds) {
+        this.updateFreq = world.getUpdateFreq();
+        this.stepControl = world.getStepControl();
+        this.c = c;
+        this.shared = shared;
+        this.restTimes = restTimes;
+        this.worlds = worlds;
+        stepper = new ArrayStepper(c, world.getSize(), world.getGravity(), world.getAirDensity(),
+                world.getBroadPhase().create(world.getSize(), statics), world.getGravitySolver(), world.getIntegrator());
+        events = stepControl.isEventDriven() ? new EventStepper(c, world.getSize(), stepper) : null;
+        blocks = stepControl.isBlockStepped() ? new BlockStepper(c, stepControl, stepper) : null;
+        // Ereignisgesteuert und mit Blockschritten schlafen Körper nicht
+        sleepers = world.getSleepPolicy().isEnabled() && events == null && blocks == null ? new Sleepers(world.getSleepPolicy(), c.id, restTimes) : null;
+    }
+
+    /** Simuliert die Änderungen im Zeitschritt timeStep (Einheit Sekunde) direkt in dieser Sitzung */
+    public SimulationSession simulateTime(double timeStep) {
+        return simulateTime(timeStep, null);
+    }
+
+    /** Simuliert wie simulateTime(timeStep) und meldet jeden Zwischenschritt an observer */
+    public SimulationSession simulateTime(double timeStep, StepObserver observer) {
+        simulate(timeStep, observer, null);
+        return this;
+    }
+
+    /**
+     * Simuliert wie simulateTime(timeStep), bricht aber zwischen zwei Zwischenschritten ab, wenn der Thread
+     * unterbrochen wurde oder System.nanoTime() deadline erreicht hat (getTime() enthält die simulierte Zeit)
+     * @return true, wenn timeStep vollständig simuliert wurde
+     */
+    public boolean simulateTimeUntil(double timeStep, long deadline) {
+        return simulate(timeStep, null, SimulationResult.stopAt(deadline));
+    }
+
+    /**
+     * @param stop wird nach jedem Zwischenschritt geprüft, der nicht der letzte ist (null: kein Abbruch)
+     * @return false, wenn vor Ablauf von timeStep abgebrochen wurde
+     */
+    boolean simulate(double timeStep, StepObserver observer, BooleanSupplier stop) {
+        assert Double.isFinite(timeStep) && timeStep >= 0 : "Zeit kann nur endliche Schritte und nicht rückwärts laufen";
+        if (timeStep == 0) return true;
+        // Ereignisgesteuert mit konstanten Beschleunigungen ist der gesamte timeStep ein Zwischenschritt
+        double maxStep = events != null && !stepper.hasVaryingAcceleration() ? timeStep : 1/updateFreq;
+        for (double dt = timeStep; dt > 0; dt -= step) {
+            substep(dt, maxStep);
+            // Der Beobachter erhält eine eigene Kopie, die folgenden Zwischenschritte verändern c weiter
+            if (observer != null) observer.stepped(step, () -> worlds.apply(c.copy(), restTimes()));
+            if (stop != null && dt - step > 0 && stop.getAsBoolean()) return false;
+        }
+        return true;
+    }
+
+    /** Simuliert genau substeps Zwischenschritte (Länge nach StepControl, höchstens 1 / updateFreq) */
+    public SimulationSession simulateSteps(int substeps) {
+        assert substeps >= 0 : "Anzahl der Zwischenschritte darf nicht negativ sein";
+        for (int k = 0; k < substeps; k++)
+            substep(Double.POSITIVE_INFINITY, 1/updateFreq);
+        return this;
+    }
+
+    /**
+     * Unendlicher Strom von Momentaufnahmen: der aktuelle Zustand, danach je einer nach interval Sekunden
+     * simulierter Zeit. Der Strom ist sequentiell und bedarfsgesteuert, ein Abschnitt wird erst simuliert, wenn der
+     * Verbraucher das nächste Element anfordert. Langsame Verbraucher bremsen so die Simulation, statt dass sich
+     * Momentaufnahmen ansammeln; begrenzt wird z.B. mit limit() oder takeWhile().
+     * Die Sitzung darf währenddessen nicht anderweitig verwendet werden.
+     */
+    public Stream<Physicable> snapshots(double interval) {
+        assert Double.isFinite(interval) && interval > 0 : "Abstand der Momentaufnahmen muss positiv und endlich sein";
+        return Stream.iterate(snapshot(), w -> simulateTime(interval).snapshot());
+    }
+
+    /** Wie snapshots(double), aber je eine Momentaufnahme nach substeps Zwischenschritten */
+    public Stream<Physicable> snapshotsEvery(int substeps) {
+        assert substeps > 0 : "Abstand der Momentaufnahmen muss mindestens ein Zwischenschritt sein";
+        return Stream.iterate(snapshot(), w -> simulateSteps(substeps).snapshot());
+    }
+
+    /** Ein Zwischenschritt, der höchstens dt lang ist, verändert c (Länge danach in step) */
+    private void substep(double dt, double maxStep) {
+        if (shared) {
+            c = c.copy();
+            shared = false;
+        }
+        snapshot = null;
+        step = Math.min(dt, stepControl.isAdaptive() ? stepper.adaptiveStep(c, stepControl, step, maxStep) : maxStep);
+        if (events != null) events.step(c, step);
+        else if (blocks != null) blocks.step(c, step);
+        else stepper.step(c, step, sleepers);
+        time += step;
+    }
+
+    /** Gibt die aktuelle Welt als unveränderliches Objekt zurück (bis zum nächsten Zwischenschritt dasselbe Objekt) */
+    public Physicable snapshot() {
+        if (snapshot == null) {
+            snapshot = worlds.apply(c, restTimes());
+            shared = true;
+        }
+        return snapshot;
+    }
+
+    /** Gibt die seit Beginn der Sitzung simulierte Zeit zurück */
+    public double getTime() {
+        return time;
+    }
+
+    private ImmutableLongDoubleMap restTimes() {
+        return sleepers == null ? restTimes : sleepers.toMap(c.id);
+    }
+}
@@ -0,0 +1,56 @@
+package in.freye.physics.al;
+
+/**
+ * Einschlafen ruhender Körper: Ein beweglicher Körper, der lange genug fast still liegt, wird in den Zwischenschritten
+ * nicht mehr berechnet (Beschleunigung, Bewegung, Wand- und Körperkollisionen). Er bleibt unverändert, bis ein wacher
+ * Körper ihn berührt oder die Welt in seiner Nähe bearbeitet wird (spawn, replace). Änderungen an Gravitation,
+ * Luftdichte oder Gravitationsverfahren wecken alle Körper.
+ * Große Szenen, die zur Ruhe gekommen sind, kosten so pro Zwischenschritt fast nichts.
+ */
+public final class SleepPolicy {
+    /** Körper schlafen nie ein (Standard) */
+    public static final SleepPolicy NEVER = new SleepPolicy(0, 0, Double.POSITIVE_INFINITY);
+
+    /** Geschwindigkeit, unter der ein Körper als ruhend gilt */
+    final double speed;
+    /** Änderung der Geschwindigkeit pro Sekunde, unter der ein Körper als ruhend gilt */
+    final double acceleration;
+    /** Zeit, die ein Körper ununterbrochen ruhen muss, bevor er einschläft */
+    final double time;
+
+    private SleepPolicy(double speed, double acceleration, double time) {
+        this.speed = speed;
+        this.acceleration = acceleration;
+        this.time = time;
+    }
+
+    /** Einschlafen nach 0.5s unter 1cm/s (Geschwindigkeitsänderung unter 1m/s², etwa ein Zehntel der Erdbeschleunigung) */
+    public static SleepPolicy enabled() {
+        return enabled(0.01, 1, 0.5);
+    }
+
+    /**
+     * @param speed Geschwindigkeit, unter der ein Körper als ruhend gilt
+     * @param acceleration Änderung der Geschwindigkeit pro Sekunde (tatsächlich, nach Kollisionen), unter der ein
+     *                     Körper als ruhend gilt (ein Körper im Umkehrpunkt eines Wurfs ruht also nicht)
+     * @param time Zeit, die ein Körper ununterbrochen ruhen muss, bevor er einschläft
+     */
+    public static SleepPolicy enabled(double speed, double acceleration, double time) {
+        assert speed > 0 && acceleration > 0 : "Die Schwellen müssen positiv sein";
+        assert time >= 0 && Double.isFinite(time) : "Die Zeit bis zum Einschlafen muss endlich und nicht negativ sein";
+        return new SleepPolicy(speed, acceleration, time);
+    }
+
+    /** Erzeugt das Verfahren zu den Schwellen und der Zeit (unendliche Zeit: NEVER), z.B. für Snapshot */
+    static SleepPolicy of(double speed, double acceleration, double time) {
+        return Double.isInfinite(time) ? NEVER : enabled(speed, acceleration, time);
+    }
+
+    boolean isEnabled() {
+        return this != NEVER;
+    }
+
+    public String toString() {
+        return isEnabled() ? "SLEEP(v<" + speed + ", a<" + acceleration + ", t>=" + time + ")" : "NEVER";
+    }
+}
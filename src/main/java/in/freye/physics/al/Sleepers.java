@@ -0,0 +1,112 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.map.primitive.ImmutableLongDoubleMap;
+import org.eclipse.collections.api.map.primitive.MutableLongDoubleMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongDoubleMaps;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.Arrays;
+
+/**
+ * Schlafzustand der Körper während eines Aufrufs von simulateTime() (Index wie in entities bzw. Columns).
+ * Zwischen den Aufrufen speichert die Welt nur die Ruhezeiten der ruhenden Körper nach ID.
+ */
+final class Sleepers {
+    private final SleepPolicy policy;
+    /** Zeit, die ein Körper schon ununterbrochen ruht */
+    private final double[] rest;
+    /** Körper, die im aktuellen Zwischenschritt nicht berechnet werden */
+    final boolean[] asleep;
+    /** Schlafende Körper, die im aktuellen Zwischenschritt von wachen berührt wurden */
+    private final boolean[] touched;
+
+    Sleepers(SleepPolicy policy, long[] ids, ImmutableLongDoubleMap restTimes) {
+        this.policy = policy;
+        rest = new double[ids.length];
+        asleep = new boolean[ids.length];
+        touched = new boolean[ids.length];
+        if (!restTimes.isEmpty())
+            for (int i = 0; i < ids.length; i++)
+                rest[i] = restTimes.getIfAbsent(ids[i], 0);
+    }
+
+    /** Bestimmt vor einem Zwischenschritt, welche Körper schlafen */
+    void prepare() {
+        for (int i = 0; i < rest.length; i++)
+            asleep[i] = rest[i] >= policy.time;
+    }
+
+    /**
+     * Schlafende Kugeln j, deren Hüllkugel die Kugel i berührt, werden geweckt (in wakeTouched()), falls i sich bewegt.
+     * Wache, aber ruhende Körper wecken ihre Nachbarn nicht, sonst könnten aufeinander liegende Körper nie einschlafen.
+     */
+    void touch(int i, int j, double dx, double dy, double dz, double ri, double rj) {
+        if (asleep[j] && !asleep[i] && rest[i] == 0 && Math.sqrt(dx*dx + dy*dy + dz*dz) < ri + rj)
+            touched[j] = true;
+    }
+
+    /** Weckt alle berührten Körper (nach dem parallelen Durchlauf über touch(), damit dieser nicht davon abhängt) */
+    void wakeTouched() {
+        for (int i = 0; i < rest.length; i++) {
+            if (!touched[i]) continue;
+            touched[i] = false;
+            asleep[i] = false;
+            rest[i] = 0;
+        }
+    }
+
+    /**
+     * Aktualisiert die Ruhezeit eines wachen Körpers nach einem Zwischenschritt
+     * @param speed Betrag der Geschwindigkeit nach dem Zwischenschritt
+     * @param deltaV Betrag der Geschwindigkeitsänderung im Zwischenschritt
+     */
+    void update(int i, double speed, double deltaV, double dt) {
+        if (asleep[i]) return;
+        rest[i] = speed < policy.speed && deltaV < policy.acceleration * dt ? rest[i] + dt : 0;
+    }
+
+    /** Ruhezeiten der ruhenden Körper nach ID für die nächste Welt */
+    ImmutableLongDoubleMap toMap(long[] ids) {
+        MutableLongDoubleMap map = LongDoubleMaps.mutable.empty();
+        for (int i = 0; i < ids.length; i++)
+            if (rest[i] > 0) map.put(ids[i], rest[i]);
+        return map.toImmutable();
+    }
+
+    /** Gibt an, ob ein Körper mit dieser Ruhezeit schläft */
+    static boolean isAsleep(SleepPolicy policy, ImmutableLongDoubleMap restTimes, long id) {
+        return policy.isEnabled() && restTimes.getIfAbsent(id, 0) >= policy.time;
+    }
+
+    /**
+     * Gibt an, ob ein Körper so nahe an einem bearbeiteten Körper liegt, dass er geweckt wird
+     * (etwas Abstand, damit auch auf dem Körper liegende Kugeln geweckt werden)
+     * @param dx,dy,dz Abstand der Mittelpunkte
+     */
+    static boolean nearby(double dx, double dy, double dz, double r1, double r2) {
+        return Math.sqrt(dx*dx + dy*dy + dz*dz) <= 1.1 * (r1 + r2);
+    }
+
+    /**
+     * Ruhezeiten ohne die Körper, die nahe an einem der Körper from bis n-1 liegen (neu eingefügte Körper wecken
+     * ihre Nachbarn). Die Nachbarn werden in einem Durchlauf über ein Gitter gesucht (SpatialHashGrid mit um den
+     * Abstand aus nearby() vergrößerten Hüllquadern), nicht je neuem Körper über alle Körper.
+     */
+    static ImmutableLongDoubleMap wakeAround(ImmutableLongDoubleMap times, Vector3D worldSize, int n, long[] id,
+                                             double[] x, double[] y, double[] z, double[] r, int from) {
+        if (times.isEmpty() || from == n) return times;
+        PairFinder grid = new SpatialHashGrid(worldSize);
+        grid.update(n, x, y, z, Arrays.stream(r, 0, n).map(d -> 1.1 * d).toArray());
+        MutableLongSet near = new LongHashSet();
+        for (int i = from; i < n; i++) {
+            near.add(id[i]);
+            for (int k = grid.offsets[i]; k < grid.offsets[i+1]; k++) {
+                int j = grid.neighbors[k];
+                if (nearby(x[j] - x[i], y[j] - y[i], z[j] - z[i], r[j], r[i])) near.add(id[j]);
+            }
+        }
+        return times.reject((i, t) -> near.contains(i));
+    }
+}
@@ -0,0 +1,240 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.map.primitive.ImmutableLongDoubleMap;
+import org.eclipse.collections.api.map.primitive.MutableLongDoubleMap;
+import org.eclipse.collections.impl.factory.primitive.LongDoubleMaps;
+import org.eclipse.collections.impl.map.mutable.primitive.LongDoubleHashMap;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * Binäres Abbild einer Welt: Eigenschaften des Raums und alle Körper, exakt (ohne Rundung) wiederherstellbar.
+ *
+ * Aufbau (Little Endian):
+ * Kopf mit HEADER_SIZE Bytes (Kennung, Version, Implementierung, Breitphase, Gravitationsverfahren, Art der
+ * Schrittweite, updateFreq, Größe, Gravitation, Luftdichte, Anzahl n, Parameter der Schrittweite, Schwellen und
+ * Zeit des Einschlafens), danach die Körper spaltenweise wie in Columns:
+ * n IDs (long), je n Werte für px, py, pz, vx, vy, vz, ax, ay, az, sx, sy, sz, mass, density, bounciness, radius
+ * (double) und n Bytes für movable.
+ * Am Ende stehen die Einstellungen variabler Länge: das Verfahren für die Bewegung (Name als Länge und UTF-8-Bytes,
+ * Anzahl k der Kicks, k + 1 Anteile der Drifts und k Anteile der Kicks; k = 0 für Integrator.TAYLOR) und die
+ * Ruhezeiten (Anzahl m, m IDs, m Zeiten).
+ * Jede Spalte wird über einen eigenen MappedByteBuffer am Stück kopiert, so bleiben auch Millionen von Körpern schnell.
+ */
+public final class Snapshot {
+    /** Kennung am Dateianfang ("SIMA") */
+    private static final int MAGIC = 0x414D4953;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 152;
+    /** Anzahl der double-Spalten */
+    private static final int DOUBLE_COLUMNS = 16;
+
+    private Snapshot() {}
+
+    /**
+     * Speichert die Welt in eine Datei. Es wird zunächst eine temporäre Datei geschrieben, die danach die Zieldatei
+     * ersetzt. Ein abgebrochener Schreibvorgang hinterlässt also nie einen halben Snapshot.
+     * Unterstützt werden Kugeln (der einzige ShapeType).
+     */
+    public static void save(Physicable world, Path file) throws IOException {
+        assert world != null && file != null : "Welt und Datei müssen angegeben werden";
+        Columns c = world instanceof ArrayWorld a ? a.getColumns() : Columns.of(world.getEntities());
+        long n = c.n;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer h = map(ch, MapMode.READ_WRITE, 0, HEADER_SIZE);
+            h.putInt(MAGIC).putInt(VERSION);
+            h.put((byte) (world instanceof ArrayWorld ? 1 : 0));
+            h.put((byte) world.getBroadPhase().ordinal());
+            h.put((byte) world.getGravitySolver().kind.ordinal());
+            StepControl stepControl = world.getStepControl();
+            h.put((byte) stepControl.kind.ordinal());
+            h.position(16);
+            h.putDouble(world.getGravitySolver().parameter);
+            h.putDouble(world.getUpdateFreq());
+            putVector(h, world.getSize());
+            putVector(h, world.getGravity());
+            h.putDouble(world.getAirDensity());
+            h.putLong(n);
+            h.putDouble(stepControl.tolerance).putDouble(stepControl.collisionFraction)
+                    .putDouble(stepControl.gravityFactor).putDouble(stepControl.minStepFraction);
+            SleepPolicy sleepPolicy = world.getSleepPolicy();
+            h.putDouble(sleepPolicy.speed).putDouble(sleepPolicy.acceleration).putDouble(sleepPolicy.time);
+
+            long offset = HEADER_SIZE;
+            map(ch, MapMode.READ_WRITE, offset, 8 * n).asLongBuffer().put(c.id, 0, c.n);
+            offset += 8 * n;
+            for (double[] column : doubleColumns(c)) {
+                map(ch, MapMode.READ_WRITE, offset, 8 * n).asDoubleBuffer().put(column, 0, c.n);
+                offset += 8 * n;
+            }
+            MappedByteBuffer movable = map(ch, MapMode.READ_WRITE, offset, n);
+            for (int i = 0; i < c.n; i++)
+                movable.put(i, (byte) (c.movable[i] ? 1 : 0));
+            offset += n;
+
+            Integrator integrator = world.getIntegrator();
+            byte[] name = integrator.toString().getBytes(StandardCharsets.UTF_8);
+            int kicks = integrator.isTaylor() ? 0 : integrator.kick.length;
+            ImmutableLongDoubleMap restTimes = world instanceof ArrayWorld a ? a.getRestTimes()
+                    : world instanceof World w ? w.getRestTimes() : LongDoubleMaps.immutable.empty();
+            ByteBuffer settings = map(ch, MapMode.READ_WRITE, offset,
+                    4 + name.length + 4 + (kicks == 0 ? 0 : 8 * (2 * kicks + 1)) + 4 + 16L * restTimes.size());
+            settings.putInt(name.length).put(name).putInt(kicks);
+            if (kicks > 0) {
+                for (double d : integrator.drift) settings.putDouble(d);
+                for (double k : integrator.kick) settings.putDouble(k);
+            }
+            settings.putInt(restTimes.size());
+            restTimes.forEachKey(settings::putLong);
+            restTimes.forEachKey(id -> settings.putDouble(restTimes.get(id)));
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lädt eine gespeicherte Welt in derselben Implementierung (World oder ArrayWorld), in der sie gespeichert wurde.
+     * Neu erzeugte Körper erhalten danach keine der geladenen IDs.
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder kein gültiger Snapshot ist
+     */
+    public static Physicable load(Path file) throws IOException {
+        assert file != null : "Datei muss angegeben werden";
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_SIZE)
+                throw new IOException("Keine Snapshot-Datei: " + file);
+            ByteBuffer h = map(ch, MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (h.getInt() != MAGIC)
+                throw new IOException("Keine Snapshot-Datei: " + file);
+            int version = h.getInt();
+            if (version != VERSION)
+                throw new IOException("Nicht unterstützte Snapshot-Version " + version + ": " + file);
+            boolean arrayWorld = h.get() == 1;
+            int broadPhaseIndex = h.get();
+            if (broadPhaseIndex < 0 || broadPhaseIndex >= BroadPhase.values().length)
+                throw new IOException("Unbekannte Breitphase in Snapshot-Datei: " + file);
+            BroadPhase broadPhase = BroadPhase.values()[broadPhaseIndex];
+            int solverIndex = h.get();
+            if (solverIndex < 0 || solverIndex >= GravitySolver.Kind.values().length)
+                throw new IOException("Unbekanntes Gravitationsverfahren in Snapshot-Datei: " + file);
+            int stepControlIndex = h.get();
+            if (stepControlIndex < 0 || stepControlIndex >= StepControl.Kind.values().length)
+                throw new IOException("Unbekanntes Verfahren für die Schrittweite in Snapshot-Datei: " + file);
+            h.position(16);
+            GravitySolver gravitySolver = GravitySolver.of(GravitySolver.Kind.values()[solverIndex], h.getDouble());
+            double updateFreq = h.getDouble();
+            Vector3D size = getVector(h), gravity = getVector(h);
+            double airDensity = h.getDouble();
+            long n = h.getLong();
+            StepControl stepControl = StepControl.of(StepControl.Kind.values()[stepControlIndex],
+                    h.getDouble(), h.getDouble(), h.getDouble(), h.getDouble());
+            SleepPolicy sleepPolicy = SleepPolicy.of(h.getDouble(), h.getDouble(), h.getDouble());
+            if (n < 0 || n > Integer.MAX_VALUE || ch.size() < HEADER_SIZE + (8 + 8 * DOUBLE_COLUMNS + 1) * n)
+                throw new IOException("Unvollständige Snapshot-Datei: " + file);
+
+            Columns c = new Columns((int) n);
+            long offset = HEADER_SIZE;
+            map(ch, MapMode.READ_ONLY, offset, 8 * n).asLongBuffer().get(c.id);
+            offset += 8 * n;
+            for (double[] column : doubleColumns(c)) {
+                map(ch, MapMode.READ_ONLY, offset, 8 * n).asDoubleBuffer().get(column);
+                offset += 8 * n;
+            }
+            MappedByteBuffer movable = map(ch, MapMode.READ_ONLY, offset, n);
+            long maxId = Shape.NO_ID;
+            for (int i = 0; i < c.n; i++) {
+                c.movable[i] = movable.get(i) != 0;
+                maxId = Math.max(maxId, c.id[i]);
+            }
+            offset += n;
+
+            ByteBuffer settings = map(ch, MapMode.READ_ONLY, offset, ch.size() - offset);
+            Integrator integrator;
+            ImmutableLongDoubleMap restTimes;
+            try {
+                integrator = getIntegrator(settings);
+                restTimes = getRestTimes(settings);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Unvollständige Snapshot-Datei: " + file);
+            }
+            if (integrator == null)
+                throw new IOException("Ungültiges Verfahren für die Bewegung in Snapshot-Datei: " + file);
+            if (settings.hasRemaining())
+                throw new IOException("Keine Snapshot-Datei: " + file);
+            Shape.reserveIds(maxId);
+
+            return arrayWorld
+                    ? new ArrayWorld(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes, c)
+                    : new World(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes, Lists.immutable.with(c.toShapes()));
+        }
+    }
+
+    /** Die double-Spalten in der Reihenfolge der Datei */
+    private static double[][] doubleColumns(Columns c) {
+        return new double[][] { c.px, c.py, c.pz, c.vx, c.vy, c.vz, c.ax, c.ay, c.az, c.sx, c.sy, c.sz,
+                c.mass, c.density, c.bounciness, c.radius };
+    }
+
+    /**
+     * Liest das Verfahren für die Bewegung. Die vordefinierten Verfahren werden als dieselben Objekte geladen.
+     * @return null, wenn die Anteile keine gültige Zerlegung sind
+     */
+    private static Integrator getIntegrator(ByteBuffer b) {
+        int length = b.getInt();
+        if (length < 0 || length > b.remaining()) throw new BufferUnderflowException();
+        byte[] name = new byte[length];
+        b.get(name);
+        int kicks = b.getInt();
+        if (kicks == 0) return Integrator.TAYLOR;
+        if (kicks < 0 || kicks > b.remaining() / 16) throw new BufferUnderflowException();
+        double[] drift = new double[kicks + 1], kick = new double[kicks];
+        for (int i = 0; i < drift.length; i++) drift[i] = b.getDouble();
+        for (int i = 0; i < kicks; i++) kick[i] = b.getDouble();
+        String n = new String(name, StandardCharsets.UTF_8);
+        for (Integrator known : new Integrator[] { Integrator.LEAPFROG, Integrator.YOSHIDA4 })
+            if (known.toString().equals(n) && Arrays.equals(known.drift, drift) && Arrays.equals(known.kick, kick))
+                return known;
+        if (Math.abs(DoubleStream.of(drift).sum() - 1) >= 1e-12 || Math.abs(DoubleStream.of(kick).sum() - 1) >= 1e-12)
+            return null;
+        return Integrator.composition(n, drift, kick);
+    }
+
+    private static ImmutableLongDoubleMap getRestTimes(ByteBuffer b) {
+        int m = b.getInt();
+        if (m < 0 || m > b.remaining() / 16) throw new BufferUnderflowException();
+        long[] ids = new long[m];
+        for (int i = 0; i < m; i++) ids[i] = b.getLong();
+        MutableLongDoubleMap times = new LongDoubleHashMap(m);
+        for (int i = 0; i < m; i++) times.put(ids[i], b.getDouble());
+        return times.toImmutable();
+    }
+
+    private static MappedByteBuffer map(FileChannel ch, MapMode mode, long offset, long size) throws IOException {
+        MappedByteBuffer b = ch.map(mode, offset, size);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        return b;
+    }
+
+    private static void putVector(ByteBuffer b, Vector3D v) {
+        b.putDouble(v.getX()).putDouble(v.getY()).putDouble(v.getZ());
+    }
+
+    private static Vector3D getVector(ByteBuffer b) {
+        return new Vector3D(b.getDouble(), b.getDouble(), b.getDouble());
+    }
+}
@@ -0,0 +1,78 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.Arrays;
+
+/**
+ * Breitphase mit uniformem Gitter ("spatial hash"):
+ * Der Raum wird in würfelförmige Zellen mit der Kantenlänge des größten Durchmessers eingeteilt.
+ * Zwei Kugeln können nur kollidieren, wenn ihre Mittelpunkte in derselben oder in benachbarten Zellen liegen.
+ * Die Zellen werden nicht als Array über den ganzen Raum angelegt, sondern über eine Hash-Tabelle mit Verkettung
+ * (head/next), dadurch ist der Speicherbedarf unabhängig von der Raumgröße O(n).
+ */
+final class SpatialHashGrid extends PairFinder {
+    /** Maximale Anzahl Zellen pro Achse (21 Bit je Achse im Schlüssel) */
+    private static final int MAX_CELLS = 1 << 21;
+
+    private final double sizeX, sizeY, sizeZ;
+    private double cellSize;
+    /** Zellschlüssel je Körper, Einstieg in die Verkettung je Hash-Wert, Verkettung der Körper einer Hash-Zelle */
+    private long[] keys = new long[0];
+    private int[] head = new int[0], next = new int[0];
+
+    SpatialHashGrid(Vector3D worldSize) {
+        sizeX = worldSize.getX(); sizeY = worldSize.getY(); sizeZ = worldSize.getZ();
+    }
+
+    void update(int n, double[] x, double[] y, double[] z, double[] r) {
+        double maxRadius = 0;
+        for (int i = 0; i < n; i++)
+            maxRadius = Math.max(maxRadius, r[i]);
+        // Zellgröße = größter Durchmesser, aber nicht mehr Zellen als im Schlüssel darstellbar
+        cellSize = Math.max(2 * maxRadius, Math.max(sizeX, Math.max(sizeY, sizeZ)) / (MAX_CELLS - 1));
+        if (keys.length < n) {
+            keys = new long[n];
+            next = new int[n];
+        }
+        // Tabellengröße: nächste Zweierpotenz >= 2n
+        int tableSize = Integer.highestOneBit(Math.max(2 * n - 1, 1)) << 1;
+        if (head.length != tableSize) head = new int[tableSize];
+        Arrays.fill(head, -1);
+        for (int i = 0; i < n; i++) {
+            keys[i] = key(cell(x[i]), cell(y[i]), cell(z[i]));
+            int h = hash(keys[i]);
+            next[i] = head[h];
+            head[h] = i;
+        }
+        build(n, (i, action) -> {
+            int cx = cell(x[i]), cy = cell(y[i]), cz = cell(z[i]);
+            // Eigene Zelle und 26 Nachbarzellen durchsuchen
+            for (int dx = -1; dx <= 1; dx++)
+                for (int dy = -1; dy <= 1; dy++)
+                    for (int dz = -1; dz <= 1; dz++) {
+                        int nx = cx + dx, ny = cy + dy, nz = cz + dz;
+                        if (nx < 0 || ny < 0 || nz < 0 || nx >= MAX_CELLS || ny >= MAX_CELLS || nz >= MAX_CELLS) continue;
+                        long k = key(nx, ny, nz);
+                        // Verschiedene Zellen können denselben Hash-Wert haben, daher wird der Schlüssel verglichen
+                        for (int j = head[hash(k)]; j >= 0; j = next[j])
+                            if (j != i && keys[j] == k && boxesOverlap(i, j, x, y, z, r))
+                                action.accept(j);
+                    }
+        });
+    }
+
+    /** Zellindex einer Koordinate (Positionen außerhalb des Raums werden der Randzelle zugeordnet) */
+    private int cell(double p) {
+        return (int) Math.max(0, Math.min(MAX_CELLS - 1, Math.floor(p / cellSize)));
+    }
+
+    private static long key(int cx, int cy, int cz) {
+        return cx | ((long) cy << 21) | ((long) cz << 42);
+    }
+
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (head.length - 1);
+    }
+}
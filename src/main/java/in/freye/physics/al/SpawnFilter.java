@@ -0,0 +1,118 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.factory.Sets;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Auswahl der Körper, die spawn() einfügt: Zwei Körper einer Welt dürfen nicht dieselbe ID oder Position haben,
+ * auch nicht innerhalb der neuen Körper (der erste gewinnt).
+ * IDs und Positionen der k neuen Körper liegen in Hash-Tabellen, die n vorhandenen Körper werden nur einmal
+ * durchlaufen (O(n + k) statt O(n·k)). Vorhandene Positionen werden zuerst nur über die
+ * x-Komponente in einer primitiven Tabelle gesucht, so entstehen keine Objekte je vorhandenem Körper.
+ * Wenige neue Körper (z.B. einzeln im Editor eingefügt) werden direkt verglichen, das ist schneller als jede Tabelle.
+ */
+final class SpawnFilter {
+    /** Bis zu dieser Anzahl neuer Körper wird direkt verglichen */
+    private static final int DIRECT_MAX = 8;
+
+    private final Spawnable[] entities;
+    /** IDs und Komponenten der Positionen der neuen Körper für den direkten Vergleich */
+    private final long[] ids;
+    private final double[] xs, ys, zs;
+    /** IDs, x-Komponenten (als Bitmuster) und Positionen der neuen Körper (null: direkter Vergleich) */
+    private final MutableLongSet newIds, newX;
+    private final MutableSet<Vector3D> newPositions;
+    /** IDs und Positionen, die schon vergeben sind */
+    private final MutableLongSet takenIds = new LongHashSet();
+    private final MutableSet<Vector3D> takenPositions = Sets.mutable.empty();
+
+    SpawnFilter(Spawnable[] entities) {
+        this.entities = entities;
+        int k = entities.length;
+        ids = new long[k];
+        xs = new double[k]; ys = new double[k]; zs = new double[k];
+        boolean hashed = k > DIRECT_MAX;
+        newIds = hashed ? new LongHashSet(entities.length) : null;
+        newX = hashed ? new LongHashSet(entities.length) : null;
+        newPositions = hashed ? Sets.mutable.withInitialCapacity(entities.length) : null;
+        for (int j = 0; j < k; j++) {
+            Spawnable s = entities[j];
+            assert s instanceof Shape : "Körper muss existieren und Instanz von Shape sein";
+            ids[j] = s.getId();
+            xs[j] = s.getPos().getX(); ys[j] = s.getPos().getY(); zs[j] = s.getPos().getZ();
+            if (!hashed) continue;
+            newIds.add(s.getId());
+            newX.add(bits(s.getPos().getX()));
+            newPositions.add(key(s.getPos()));
+        }
+    }
+
+    /** Gibt die einzufügenden Körper in der übergebenen Reihenfolge zurück (vorhandene Körper in existing[0..n)) */
+    List<Shape> accept(Shape[] existing, int n) {
+        for (int i = 0; i < n; i++) {
+            Shape e = existing[i];
+            existing(e.id, e.pos.getX(), e.pos.getY(), e.pos.getZ());
+        }
+        return accepted();
+    }
+
+    /** Gibt die einzufügenden Körper in der übergebenen Reihenfolge zurück (vorhandene Körper in Spalten) */
+    List<Shape> accept(Columns existing) {
+        for (int i = 0; i < existing.n; i++)
+            existing(existing.id[i], existing.px[i], existing.py[i], existing.pz[i]);
+        return accepted();
+    }
+
+    /** Merkt sich ID und Position eines vorhandenen Körpers, wenn ein neuer Körper sie ebenfalls hat */
+    private void existing(long id, double x, double y, double z) {
+        if (newIds == null) {
+            for (int j = 0; j < ids.length; j++) {
+                if (ids[j] == id) takenIds.add(id);
+                if (xs[j] == x && ys[j] == y && zs[j] == z) takenPositions.add(key(entities[j].getPos()));
+            }
+            return;
+        }
+        if (newIds.contains(id)) takenIds.add(id);
+        if (!newX.contains(bits(x))) return;
+        Vector3D p = key(new Vector3D(x, y, z));
+        if (newPositions.contains(p)) takenPositions.add(p);
+    }
+
+    /** Neue Körper, deren ID und Position weder vorhanden noch von einem vorherigen neuen Körper belegt sind */
+    private List<Shape> accepted() {
+        List<Shape> accepted = new ArrayList<>(entities.length);
+        for (Spawnable s : entities) {
+            Vector3D p = key(s.getPos());
+            if (takenIds.contains(s.getId()) || takenPositions.contains(p)) continue;
+            // Folgende neue Körper dürfen weder ID noch Position wiederholen
+            takenIds.add(s.getId());
+            takenPositions.add(p);
+            accepted.add((Shape) s);
+        }
+        return accepted;
+    }
+
+    /**
+     * Schlüssel für die Hash-Tabellen: equals() vergleicht die Komponenten mit ==, hashCode() unterscheidet aber
+     * 0.0 und -0.0, daher wird -0.0 durch 0.0 ersetzt
+     */
+    private static Vector3D key(Vector3D p) {
+        if (!isNegativeZero(p.getX()) && !isNegativeZero(p.getY()) && !isNegativeZero(p.getZ())) return p;
+        return new Vector3D(p.getX() + 0.0, p.getY() + 0.0, p.getZ() + 0.0);
+    }
+
+    /** Bitmuster einer Komponente, gleich für 0.0 und -0.0 */
+    private static long bits(double d) {
+        return Double.doubleToLongBits(d + 0.0);
+    }
+
+    private static boolean isNegativeZero(double d) {
+        return Double.doubleToRawLongBits(d) == Long.MIN_VALUE;
+    }
+}
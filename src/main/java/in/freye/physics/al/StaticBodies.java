@@ -0,0 +1,169 @@
+package in.freye.physics.al;
+
+import org.eclipse.collections.api.list.ImmutableList;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Hüllkörperhierarchie (BVH) über alle unbeweglichen Körper einer Welt.
+ * Unbewegliche Körper ändern sich durch Zeitschritte nicht, die Hierarchie wird daher nur beim Hinzufügen,
+ * Ersetzen oder Löschen von Körpern neu aufgebaut und von allen folgenden Welten übernommen.
+ * Bewegliche Körper fragen in jedem Zwischenschritt die unbeweglichen Kandidaten ab (siehe StaticSplit),
+ * die unbeweglichen Körper selbst nehmen an der Breitphase nicht mehr teil.
+ *
+ * Die Knoten sind achsenparallele Hüllquader, jedes Blatt enthält höchstens LEAF_SIZE Körper.
+ * Aufgeteilt wird am Median der Mittelpunkte entlang der längsten Achse, die Tiefe ist also O(log n).
+ * Gespeichert werden die Indizes der Körper in der Liste der Welt; da sich die Reihenfolge der Körper
+ * durch Zeitschritte und durch das Anhängen beweglicher Körper nicht ändert, bleiben sie gültig.
+ */
+final class StaticBodies {
+    /** Hierarchie ohne Körper */
+    static final StaticBodies EMPTY = new StaticBodies(new int[0], new double[0], new double[0], new double[0], new double[0]);
+    private static final int LEAF_SIZE = 4;
+
+    /** Indizes der unbeweglichen Körper in der Welt, aufsteigend sortiert */
+    final int[] indices;
+    /** Positionen und Radien in der Reihenfolge von indices */
+    private final double[] x, y, z, r;
+    /** Körper (als Position in indices) in der Reihenfolge der Blätter */
+    private final int[] order;
+    /** Hüllquader je Knoten */
+    private final double[] minX, minY, minZ, maxX, maxY, maxZ;
+    /** Innerer Knoten: Index des zweiten Kinds (das erste folgt direkt); Blatt: -1 - Beginn in order */
+    private final int[] child;
+    /** Anzahl der Körper je Blatt (0 für innere Knoten) */
+    private final int[] count;
+    private int nodes, depth;
+
+    private StaticBodies(int[] indices, double[] x, double[] y, double[] z, double[] r) {
+        this.indices = indices;
+        this.x = x; this.y = y; this.z = z; this.r = r;
+        int n = indices.length;
+        order = IntStream.range(0, n).toArray();
+        // Ein Binärbaum mit höchstens LEAF_SIZE Körpern je Blatt hat weniger als 2n Knoten
+        int capacity = Math.max(1, 2 * n);
+        minX = new double[capacity]; minY = new double[capacity]; minZ = new double[capacity];
+        maxX = new double[capacity]; maxY = new double[capacity]; maxZ = new double[capacity];
+        child = new int[capacity];
+        count = new int[capacity];
+        if (n > 0) build(0, n, 1);
+    }
+
+    /** Baut die Hierarchie über die unbeweglichen Körper einer Liste auf */
+    static StaticBodies of(ImmutableList<Shape> entities) {
+        int[] indices = IntStream.range(0, entities.size()).filter(i -> !entities.get(i).movable).toArray();
+        if (indices.length == 0) return EMPTY;
+        int n = indices.length;
+        double[] x = new double[n], y = new double[n], z = new double[n], r = new double[n];
+        for (int k = 0; k < n; k++) {
+            Shape e = entities.get(indices[k]);
+            x[k] = e.pos.getX(); y[k] = e.pos.getY(); z[k] = e.pos.getZ();
+            r[k] = e.boundingRadius();
+        }
+        return new StaticBodies(indices, x, y, z, r);
+    }
+
+    /** Baut die Hierarchie über die unbeweglichen Körper in Spalten auf */
+    static StaticBodies of(Columns c) {
+        int[] indices = IntStream.range(0, c.n).filter(i -> !c.movable[i]).toArray();
+        if (indices.length == 0) return EMPTY;
+        int n = indices.length;
+        double[] x = new double[n], y = new double[n], z = new double[n], r = new double[n];
+        for (int k = 0; k < n; k++) {
+            int i = indices[k];
+            x[k] = c.px[i]; y[k] = c.py[i]; z[k] = c.pz[i];
+            r[k] = c.radius[i];
+        }
+        return new StaticBodies(indices, x, y, z, r);
+    }
+
+    /** Baut eine Hierarchie über beliebige Kugeln auf, query() meldet deren Position in den Arrays (z.B. ruhende Körper) */
+    static StaticBodies of(double[] x, double[] y, double[] z, double[] r) {
+        return x.length == 0 ? EMPTY : new StaticBodies(IntStream.range(0, x.length).toArray(), x, y, z, r);
+    }
+
+    boolean isEmpty() {
+        return indices.length == 0;
+    }
+
+    /**
+     * Meldet die Indizes (in der Welt) aller unbeweglichen Körper, deren Hüllquader den Hüllquader der Kugel
+     * um (px, py, pz) mit Radius pr überschneidet (gleicher Test wie PairFinder.boxesOverlap), in beliebiger Reihenfolge
+     */
+    void query(double px, double py, double pz, double pr, IntConsumer action) {
+        if (isEmpty()) return;
+        // Eigener Stapel je Aufruf, damit parallel abgefragt werden kann
+        int[] stack = new int[depth + 1];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (px + pr < minX[node] || px - pr > maxX[node] || py + pr < minY[node] || py - pr > maxY[node]
+                    || pz + pr < minZ[node] || pz - pr > maxZ[node])
+                continue;
+            if (count[node] == 0) {
+                stack[top++] = child[node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            for (int t = -1 - child[node], end = t + count[node]; t < end; t++) {
+                int k = order[t];
+                double d = pr + r[k];
+                if (Math.abs(px - x[k]) <= d && Math.abs(py - y[k]) <= d && Math.abs(pz - z[k]) <= d)
+                    action.accept(indices[k]);
+            }
+        }
+    }
+
+    /** Baut den Teilbaum über order[from..to) auf und gibt den Index seiner Wurzel zurück */
+    private int build(int from, int to, int level) {
+        int node = nodes++;
+        depth = Math.max(depth, level);
+        minX[node] = minY[node] = minZ[node] = Double.POSITIVE_INFINITY;
+        maxX[node] = maxY[node] = maxZ[node] = Double.NEGATIVE_INFINITY;
+        // Ausdehnung der Mittelpunkte, um die Achse der Teilung zu wählen
+        double[] lo = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        double[] hi = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int t = from; t < to; t++) {
+            int k = order[t];
+            minX[node] = Math.min(minX[node], x[k] - r[k]); maxX[node] = Math.max(maxX[node], x[k] + r[k]);
+            minY[node] = Math.min(minY[node], y[k] - r[k]); maxY[node] = Math.max(maxY[node], y[k] + r[k]);
+            minZ[node] = Math.min(minZ[node], z[k] - r[k]); maxZ[node] = Math.max(maxZ[node], z[k] + r[k]);
+            lo[0] = Math.min(lo[0], x[k]); hi[0] = Math.max(hi[0], x[k]);
+            lo[1] = Math.min(lo[1], y[k]); hi[1] = Math.max(hi[1], y[k]);
+            lo[2] = Math.min(lo[2], z[k]); hi[2] = Math.max(hi[2], z[k]);
+        }
+        if (to - from <= LEAF_SIZE) {
+            child[node] = -1 - from;
+            count[node] = to - from;
+            return node;
+        }
+        int axis = hi[0] - lo[0] >= hi[1] - lo[1] && hi[0] - lo[0] >= hi[2] - lo[2] ? 0 : hi[1] - lo[1] >= hi[2] - lo[2] ? 1 : 2;
+        double[] key = axis == 0 ? x : axis == 1 ? y : z;
+        int mid = (from + to) >>> 1;
+        select(key, from, to - 1, mid);
+        build(from, mid, level + 1);
+        child[node] = build(mid, to, level + 1);
+        return node;
+    }
+
+    /** Quickselect: Ordnet order[lo..hi] so, dass order[k] den k-kleinsten Schlüssel hat und alle davor nicht größer sind */
+    private void select(double[] key, int lo, int hi, int k) {
+        while (lo < hi) {
+            double pivot = key[order[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (key[order[i]] < pivot) i++;
+                while (key[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int t = order[i]; order[i] = order[j]; order[j] = t;
+                    i++; j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package in.freye.physics.al;
+
+import java.util.Arrays;
+
+/**
+ * Breitphase mit getrennten unbeweglichen Körpern:
+ * Das eigentliche Verfahren (SpatialHashGrid, SweepAndPrune) sieht nur die beweglichen Körper,
+ * unbewegliche Kandidaten eines beweglichen Körpers liefert die vorab aufgebaute Hierarchie StaticBodies.
+ * Unbewegliche Körper erhalten keine Kandidaten (sie werden durch Kollisionen nicht verändert).
+ * Die Kandidatenlisten sind wie in PairFinder nach dem Index in der Welt sortiert.
+ */
+final class StaticSplit extends PairFinder {
+    private final PairFinder movables;
+    private final StaticBodies statics;
+    /**
+     * Für die zuletzt übergebene Anzahl n: Indizes der beweglichen Körper in der Welt (aufsteigend)
+     * und Position jedes Körpers in dynamic (-1: unbeweglich)
+     */
+    private int[] dynamic = new int[0], local = new int[0];
+    private int n = -1;
+    /** Positionen und Radien der beweglichen Körper */
+    private double[] bx = new double[0], by = bx, bz = bx, br = bx;
+
+    StaticSplit(PairFinder movables, StaticBodies statics) {
+        this.movables = movables;
+        this.statics = statics;
+    }
+
+    void update(int n, double[] x, double[] y, double[] z, double[] r) {
+        // Die Körper behalten in allen Zwischenschritten ihre Indizes, die Aufteilung wird nur einmal berechnet
+        if (this.n != n) {
+            this.n = n;
+            dynamic = new int[n - statics.indices.length];
+            local = new int[n];
+            Arrays.fill(local, -1);
+            for (int i = 0, s = 0, m = 0; i < n; i++) {
+                if (s < statics.indices.length && statics.indices[s] == i) s++;
+                else {
+                    dynamic[m] = i;
+                    local[i] = m++;
+                }
+            }
+            bx = new double[dynamic.length]; by = new double[dynamic.length];
+            bz = new double[dynamic.length]; br = new double[dynamic.length];
+        }
+        for (int m = 0; m < dynamic.length; m++) {
+            int i = dynamic[m];
+            bx[m] = x[i]; by[m] = y[i]; bz[m] = z[i]; br[m] = r[i];
+        }
+        movables.update(dynamic.length, bx, by, bz, br);
+        build(n, (i, action) -> {
+            int m = local[i];
+            if (m < 0) return;
+            for (int k = movables.offsets[m]; k < movables.offsets[m+1]; k++)
+                action.accept(dynamic[movables.neighbors[k]]);
+            statics.query(x[i], y[i], z[i], r[i], action);
+        });
+    }
+}
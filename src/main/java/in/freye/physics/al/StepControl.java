@@ -0,0 +1,164 @@
+package in.freye.physics.al;
+
+/**
+ * Wahl der Länge der Zwischenschritte in simulateTime().
+ * Die Länge 1 / updateFreq ist immer die größte Schrittweite (Genauigkeitsversprechen), adaptive Verfahren
+ * verkleinern sie nur dort, wo es nötig ist: schnelle Körper, die in einem Schritt durch andere hindurch fliegen
+ * könnten, enge Begegnungen mit Gravitationsquellen und schnelle Änderungen der Beschleunigung.
+ * Eine Szene mit wenigen kritischen Momenten kann so mit einer niedrigen updateFreq simuliert werden.
+ * Ereignisgesteuert (EVENT_DRIVEN) wird dagegen direkt von Kollision zu Kollision gerechnet.
+ * Mit Blockschritten (blocks()) wählt jeder Körper seine eigene Schrittweite, nur die Körper mit schnell
+ * veränderlicher Beschleunigung (z.B. ein Mond) werden oft berechnet.
+ */
+public final class StepControl {
+    /** Immer 1 / updateFreq (Standard) */
+    public static final StepControl FIXED = new StepControl(Kind.FIXED, 0, 0, 0, 1);
+    /**
+     * Ereignisgesteuert (siehe EventStepper): Zwischen zwei Kollisionen bewegen sich die Körper mit konstanter
+     * Beschleunigung, die Kollisionszeitpunkte werden exakt berechnet. Ohne Luftwiderstand und gegenseitige
+     * Gravitation ist die Beschleunigung konstant und ein Aufruf von simulateTime() ist ein einziger Zwischenschritt,
+     * sonst wird sie wie bei FIXED alle 1 / updateFreq neu berechnet.
+     */
+    public static final StepControl EVENT_DRIVEN = new StepControl(Kind.EVENT_DRIVEN, 0, 0, 0, 1);
+
+    /**
+     * Arten der Verfahren, die Ordnungszahl ist die Kennung in Snapshot (nur am Ende erweitern).
+     * BLOCKS: Schrittweite je Körper (Blockschritte, siehe BlockStepper) statt einer gemeinsamen
+     */
+    enum Kind { FIXED, EVENT_DRIVEN, ADAPTIVE, BLOCKS }
+
+    /** Art des Verfahrens und seine Parameter, z.B. für Snapshot */
+    final Kind kind;
+    /** Erlaubter Fehler der Position pro Schritt als Anteil des Radius */
+    final double tolerance;
+    /** Anteil des Radius, den ein Körper pro Schritt höchstens zurücklegt */
+    final double collisionFraction;
+    /** Anteil der Fallzeit sqrt(d³ / (G·m)) zu einer Gravitationsquelle, den ein Schritt höchstens dauert */
+    final double gravityFactor;
+    /** Kleinste Schrittweite als Anteil von 1 / updateFreq (begrenzt den Aufwand) */
+    final double minStepFraction;
+
+    private StepControl(Kind kind, double tolerance, double collisionFraction, double gravityFactor, double minStepFraction) {
+        this.kind = kind;
+        this.tolerance = tolerance;
+        this.collisionFraction = collisionFraction;
+        this.gravityFactor = gravityFactor;
+        this.minStepFraction = minStepFraction;
+    }
+
+    /** Erzeugt das Verfahren zu Art und Parametern (Umkehrung von kind und den Parametern) */
+    static StepControl of(Kind kind, double tolerance, double collisionFraction, double gravityFactor, double minStepFraction) {
+        return switch (kind) {
+            case FIXED -> FIXED;
+            case EVENT_DRIVEN -> EVENT_DRIVEN;
+            case ADAPTIVE -> adaptive(tolerance, collisionFraction, gravityFactor, minStepFraction);
+            case BLOCKS -> blocks(tolerance, gravityFactor, -Math.getExponent(minStepFraction));
+        };
+    }
+
+    /**
+     * Adaptive Schrittweite mit Standardwerten: Fehler bis 0.1% des Radius pro Schritt, höchstens ein halber Radius
+     * Weg pro Schritt, mindestens etwa 200 Schritte pro Umlauf um eine Gravitationsquelle,
+     * höchstens 1000 Zwischenschritte pro 1 / updateFreq
+     */
+    public static StepControl adaptive() {
+        return adaptive(1e-3, 0.5, 0.03, 1e-3);
+    }
+
+    /**
+     * @param tolerance erlaubter Fehler der Position pro Schritt als Anteil des Radius
+     *                  (geschätzt über die Änderung der Beschleunigung im vorherigen Schritt)
+     * @param collisionFraction Anteil des Radius, den ein Körper pro Schritt höchstens zurücklegt (< 1 verhindert,
+     *                          dass Körper durcheinander hindurch fliegen)
+     * @param gravityFactor Anteil von sqrt(d³ / (G·m)) im Abstand d zu einer Quelle der Masse m
+     *                      (wird nur mit GravitySolver.DIRECT ausgewertet)
+     * @param minStepFraction kleinste Schrittweite als Anteil von 1 / updateFreq
+     */
+    public static StepControl adaptive(double tolerance, double collisionFraction, double gravityFactor, double minStepFraction) {
+        assert tolerance > 0 && collisionFraction > 0 && gravityFactor > 0 : "Die Grenzen müssen positiv sein";
+        assert minStepFraction > 0 && minStepFraction <= 1 : "Die kleinste Schrittweite muss ein Anteil der größten sein";
+        return new StepControl(Kind.ADAPTIVE, tolerance, collisionFraction, gravityFactor, minStepFraction);
+    }
+
+    /**
+     * Blockschritte mit Standardwerten: Fehler bis 0.1% des Radius pro Schritt, mindestens etwa 200 Schritte pro
+     * Umlauf um eine Gravitationsquelle, Schrittweiten bis hinab zu 1 / updateFreq / 2^10
+     */
+    public static StepControl blocks() {
+        return blocks(1e-3, 0.03, 10);
+    }
+
+    /**
+     * Blockschritte: Jeder Körper wählt aus seiner Beschleunigung eine Schrittweite 1 / updateFreq / 2^k,
+     * in einem Teilschritt werden nur die fälligen Körper berechnet, die Positionen der übrigen Gravitationsquellen
+     * werden vorhergesagt. Kollisionen werden wie bei FIXED alle 1 / updateFreq behandelt.
+     * @param tolerance erlaubter Fehler der Position pro Schritt als Anteil des Radius
+     *                  (geschätzt über die Änderung der Beschleunigung im vorherigen Schritt des Körpers)
+     * @param gravityFactor Anteil von sqrt(d³ / (G·m)) im Abstand d zu einer Quelle der Masse m
+     *                      (wird nur mit GravitySolver.DIRECT ausgewertet)
+     * @param maxLevel größtes k (höchstens 30)
+     */
+    public static StepControl blocks(double tolerance, double gravityFactor, int maxLevel) {
+        assert tolerance > 0 && gravityFactor > 0 : "Die Grenzen müssen positiv sein";
+        assert maxLevel >= 0 && maxLevel <= 30 : "Die Anzahl der Stufen muss zwischen 0 und 30 liegen";
+        return new StepControl(Kind.BLOCKS, tolerance, Double.POSITIVE_INFINITY, gravityFactor, Math.scalb(1.0, -maxLevel));
+    }
+
+    boolean isAdaptive() {
+        return kind == Kind.ADAPTIVE;
+    }
+
+    boolean isBlockStepped() {
+        return kind == Kind.BLOCKS;
+    }
+
+    /** Größte Stufe k der Blockschritte (kleinste Schrittweite 1 / updateFreq / 2^k) */
+    int maxLevel() {
+        return -Math.getExponent(minStepFraction);
+    }
+
+    boolean isEventDriven() {
+        return kind == Kind.EVENT_DRIVEN;
+    }
+
+    /**
+     * Größte Schrittweite für einen Körper
+     * @param v Betrag der Geschwindigkeit
+     * @param a Betrag der Beschleunigung
+     * @param jerk Betrag der Änderung der Beschleunigung pro Sekunde im vorherigen Schritt (0: unbekannt)
+     */
+    double bodyStep(double v, double a, double jerk, double radius) {
+        // Weg v·dt + a/2·dt² = collisionFraction·r, nach dt aufgelöst (numerisch stabile Form)
+        double d = collisionFraction * radius;
+        double step = 2 * d / (v + Math.sqrt(v * v + 2 * a * d));
+        return Math.min(step, accuracyStep(jerk, radius));
+    }
+
+    /**
+     * Größte Schrittweite für den Abbruchfehler der Taylor-Entwicklung: jerk/6·dt³ <= tolerance·r
+     * @param jerk Betrag der Änderung der Beschleunigung pro Sekunde (0: unbekannt, keine Grenze)
+     */
+    double accuracyStep(double jerk, double radius) {
+        return jerk > 0 ? Math.cbrt(6 * tolerance * radius / jerk) : Double.POSITIVE_INFINITY;
+    }
+
+    /** Größte Schrittweite im Abstand d zu einer Gravitationsquelle der Masse m */
+    double gravityStep(double d, double m) {
+        return gravityFactor * Math.sqrt(d * d * d / (World.GRAVITY_CONSTANT * m));
+    }
+
+    /**
+     * Begrenzt die Schrittweite auf [minStep; maxStep] und auf das Doppelte des vorherigen Schritts
+     * (damit die Schätzung über den vorherigen Schritt gültig bleibt)
+     */
+    double limit(double step, double previous, double maxStep) {
+        if (previous > 0) step = Math.min(step, 2 * previous);
+        return Math.max(minStepFraction * maxStep, Math.min(maxStep, step));
+    }
+
+    public String toString() {
+        if (isEventDriven()) return "EVENT_DRIVEN";
+        if (isBlockStepped()) return "BLOCKS(tol=" + tolerance + ", grav=" + gravityFactor + ", levels=" + maxLevel() + ")";
+        return isAdaptive() ? "ADAPTIVE(tol=" + tolerance + ", col=" + collisionFraction + ", grav=" + gravityFactor + ")" : "FIXED";
+    }
+}
@@ -0,0 +1,17 @@
+package in.freye.physics.al;
+
+import java.util.function.Supplier;
+
+/**
+ * Beobachter für die Zwischenschritte von Physicable.simulateTime(), z.B. zum Aufzeichnen von Bahnen.
+ * Wird im simulierenden Thread nach jedem Zwischenschritt aufgerufen, sollte also schnell zurückkehren.
+ */
+@FunctionalInterface
+public interface StepObserver {
+    /**
+     * @param dt Dauer des gerade simulierten Zwischenschritts
+     * @param world liefert die Welt nach dem Zwischenschritt (wird erst beim Aufruf erzeugt,
+     *              ArrayWorld muss dafür ihre Spalten kopieren)
+     */
+    void stepped(double dt, Supplier<Physicable> world);
+}
@@ -0,0 +1,137 @@
+package in.freye.physics.al;
+
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Breitphase mit "Sweep and Prune":
+ * Für jede Achse wird eine sortierte Liste der Intervallgrenzen (Anfang/Ende der Hüllquader) gespeichert.
+ * Zwei Körper sind Kandidaten, wenn sich ihre Intervalle auf allen drei Achsen überschneiden.
+ *
+ * Die Listen bleiben über alle Zwischenschritte erhalten. Da sich die Körper pro Zwischenschritt nur wenig bewegen,
+ * sind die Listen fast sortiert und werden mit Insertion Sort in nahezu O(n) neu sortiert.
+ * Jede Vertauschung zweier Grenzen zeigt dabei an, dass ein Paar beginnt oder aufhört, sich zu überschneiden,
+ * die Menge der Kandidatenpaare wird also nur an diesen Stellen verändert.
+ * Im Gegensatz zum uniformen Gitter hängt der Aufwand nicht von der Form des Raums oder der Verteilung der Radien ab.
+ */
+final class SweepAndPrune extends PairFinder {
+    /** Anzahl der Körper, für die die Listen aufgebaut wurden (-1: noch nicht aufgebaut) */
+    private int size = -1;
+    /** Grenzen der Hüllquader je Achse und Körper */
+    private double[][] min, max;
+    /** Sortierte Grenzen je Achse, kodiert als (Index << 1) | (1, falls Ende des Intervalls) */
+    private int[][] ends;
+    /** Kandidatenpaare, kodiert als (kleinerer Index << 32) | größerer Index */
+    private final LongHashSet pairs = new LongHashSet();
+
+    void update(int n, double[] x, double[] y, double[] z, double[] r) {
+        if (size != n) {
+            min = new double[3][n];
+            max = new double[3][n];
+        }
+        double[][] p = { x, y, z };
+        for (int a = 0; a < 3; a++)
+            for (int i = 0; i < n; i++) {
+                min[a][i] = p[a][i] - r[i];
+                max[a][i] = p[a][i] + r[i];
+            }
+        if (size != n) initialize(n);
+        else for (int a = 0; a < 3; a++) insertionSort(a);
+        buildCandidates(n);
+    }
+
+    /** Erster Aufbau: Vollständige Sortierung und Durchlauf entlang der x-Achse */
+    private void initialize(int n) {
+        size = n;
+        ends = new int[3][];
+        for (int a = 0; a < 3; a++) {
+            int axis = a;
+            ends[a] = IntStream.range(0, 2 * n).boxed()
+                    .sorted(Comparator.comparingDouble((Integer e) -> value(axis, e)).thenComparingInt(e -> e & 1))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+        pairs.clear();
+        int[] active = new int[n];
+        int activeCount = 0;
+        for (int e : ends[0]) {
+            int i = e >>> 1;
+            if (isEnd(e)) {
+                for (int k = 0; k < activeCount; k++)
+                    if (active[k] == i) { active[k] = active[--activeCount]; break; }
+            } else {
+                for (int k = 0; k < activeCount; k++)
+                    if (overlap(i, active[k])) pairs.add(key(i, active[k]));
+                active[activeCount++] = i;
+            }
+        }
+    }
+
+    /** Sortiert die Grenzen einer Achse neu und aktualisiert dabei die Kandidatenpaare */
+    private void insertionSort(int a) {
+        int[] list = ends[a];
+        for (int k = 1; k < list.length; k++) {
+            int e = list[k];
+            int j = k - 1;
+            while (j >= 0 && before(a, e, list[j])) {
+                int f = list[j];
+                // e wandert links an f vorbei
+                if (!isEnd(e) && isEnd(f)) {
+                    // Anfang von e liegt jetzt vor dem Ende von f: Überschneidung möglich
+                    if (overlap(e >>> 1, f >>> 1)) pairs.add(key(e >>> 1, f >>> 1));
+                } else if (isEnd(e) && !isEnd(f)) {
+                    // Ende von e liegt jetzt vor dem Anfang von f: keine Überschneidung mehr
+                    pairs.remove(key(e >>> 1, f >>> 1));
+                }
+                list[j + 1] = f;
+                j--;
+            }
+            list[j + 1] = e;
+        }
+    }
+
+    /** Überträgt die Paare in die Kandidatenlisten (siehe PairFinder) */
+    private void buildCandidates(int n) {
+        if (offsets.length < n + 1) offsets = new int[n + 1];
+        int[] count = new int[n + 1];
+        pairs.each(k -> { count[(int) (k >>> 32)]++; count[(int) k]++; });
+        offsets[0] = 0;
+        for (int i = 0; i < n; i++)
+            offsets[i+1] = offsets[i] + count[i];
+        if (neighbors.length < offsets[n]) neighbors = new int[offsets[n]];
+        System.arraycopy(offsets, 0, count, 0, n + 1);
+        pairs.each(k -> {
+            int i = (int) (k >>> 32), j = (int) k;
+            neighbors[count[i]++] = j;
+            neighbors[count[j]++] = i;
+        });
+        IntStream.range(0, n).parallel().forEach(i -> Arrays.sort(neighbors, offsets[i], offsets[i+1]));
+    }
+
+    /** Sortierreihenfolge: nach Wert, bei Gleichheit Anfang vor Ende (berührende Intervalle überschneiden sich) */
+    private boolean before(int a, int e, int f) {
+        double ve = value(a, e), vf = value(a, f);
+        return ve < vf || (ve == vf && !isEnd(e) && isEnd(f));
+    }
+
+    /** Überschneiden sich die Hüllquader auf allen Achsen? */
+    private boolean overlap(int i, int j) {
+        for (int a = 0; a < 3; a++)
+            if (min[a][i] > max[a][j] || min[a][j] > max[a][i]) return false;
+        return true;
+    }
+
+    private double value(int a, int e) {
+        return isEnd(e) ? max[a][e >>> 1] : min[a][e >>> 1];
+    }
+
+    private static boolean isEnd(int e) {
+        return (e & 1) == 1;
+    }
+
+    private static long key(int i, int j) {
+        return ((long) Math.min(i, j) << 32) | Math.max(i, j);
+    }
+}
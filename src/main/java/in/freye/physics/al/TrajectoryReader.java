@@ -0,0 +1,155 @@
+package in.freye.physics.al;
+
+import in.freye.physics.al.TrajectoryRecorder.Field;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Liest eine Aufzeichnung von TrajectoryRecorder Frame für Frame, ohne die ganze Datei in den Speicher zu laden.
+ */
+public final class TrajectoryReader implements Iterator<TrajectoryReader.Frame>, AutoCloseable {
+
+    /** Zustand aller Körper nach einem Zwischenschritt */
+    public static final class Frame {
+        private final long substep;
+        private final double time;
+        private final long[] ids;
+        /** Je Field x-, y- und z-Komponenten (null: nicht aufgezeichnet) */
+        private final double[][][] values = new double[Field.values().length][][];
+
+        Frame(long substep, double time, long[] ids) {
+            this.substep = substep;
+            this.time = time;
+            this.ids = ids;
+        }
+
+        /** Nummer des Zwischenschritts seit Beginn der Aufzeichnung */
+        public long getSubstep() { return substep; }
+        /** Simulierte Zeit seit Beginn der Aufzeichnung */
+        public double getTime() { return time; }
+        /** IDs der Körper, Index i beschreibt in allen Spalten denselben Körper */
+        public long[] getIds() { return ids; }
+        /** Komponenten {x[], y[], z[]} eines Felds, null wenn es nicht aufgezeichnet wurde */
+        public double[][] get(Field field) { return values[field.ordinal()]; }
+    }
+
+    private final FileChannel channel;
+    private final Field[] fields;
+    private final int interval;
+    /** Puffer für Kopf und Inhalt des nächsten Frames, wächst mit der Größe der Frames */
+    private ByteBuffer buffer = ByteBuffer.allocate(TrajectoryRecorder.FRAME_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    /** Bereits gelesener, aber noch nicht zurückgegebener Frame */
+    private Frame next;
+
+    /**
+     * Öffnet die Aufzeichnung
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder keine Aufzeichnung ist
+     */
+    public TrajectoryReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(TrajectoryRecorder.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (!readFully(header) || header.getInt() != TrajectoryRecorder.MAGIC)
+                throw new IOException("Keine Aufzeichnung: " + file);
+            int version = header.getInt();
+            if (version != TrajectoryRecorder.VERSION)
+                throw new IOException("Nicht unterstützte Version " + version + ": " + file);
+            int mask = header.getInt();
+            EnumSet<Field> f = EnumSet.noneOf(Field.class);
+            for (Field field : Field.values())
+                if ((mask & 1 << field.ordinal()) != 0) f.add(field);
+            fields = f.toArray(new Field[0]);
+            interval = header.getInt();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Aufgezeichnete Felder */
+    public Set<Field> getFields() {
+        return fields.length == 0 ? EnumSet.noneOf(Field.class) : EnumSet.of(fields[0], fields);
+    }
+
+    /** Anzahl der Zwischenschritte zwischen zwei Frames */
+    public int getInterval() { return interval; }
+
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readFrame();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    public Frame next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Frame f = next;
+        next = null;
+        return f;
+    }
+
+    /** Alle (restlichen) Frames als sequentieller Stream */
+    public Stream<Frame> frames() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Liest den nächsten Frame, null am Dateiende (ein unvollständiger letzter Frame wird ignoriert) */
+    private Frame readFrame() throws IOException {
+        buffer.clear().limit(TrajectoryRecorder.FRAME_HEADER_SIZE);
+        if (!readFully(buffer)) return null;
+        int bytes = buffer.getInt();
+        long substep = buffer.getLong();
+        double time = buffer.getDouble();
+        int n = buffer.getInt();
+        int body = bytes - (TrajectoryRecorder.FRAME_HEADER_SIZE - 4);
+        if (n < 0 || body != 8 * n * (1 + 3 * fields.length))
+            throw new IOException("Beschädigte Aufzeichnung");
+        if (buffer.capacity() < body)
+            buffer = ByteBuffer.allocate(body).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.clear().limit(body);
+        if (!readFully(buffer)) return null;
+        long[] ids = new long[n];
+        buffer.asLongBuffer().get(ids);
+        buffer.position(8 * n);
+        Frame frame = new Frame(substep, time, ids);
+        for (Field f : fields) {
+            double[][] v = new double[3][n];
+            for (double[] column : v) {
+                buffer.asDoubleBuffer().get(column);
+                buffer.position(buffer.position() + 8 * n);
+            }
+            frame.values[f.ordinal()] = v;
+        }
+        return frame;
+    }
+
+    /** Füllt den Puffer bis zum Limit und setzt die Position auf den Anfang; false, wenn das Dateiende vorher erreicht wird */
+    private boolean readFully(ByteBuffer b) throws IOException {
+        while (b.hasRemaining())
+            if (channel.read(b) < 0) return false;
+        b.flip();
+        return true;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
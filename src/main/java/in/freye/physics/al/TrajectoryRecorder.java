@@ -0,0 +1,166 @@
+package in.freye.physics.al;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Zeichnet die Bahnen aller Körper während simulateTime() spaltenweise in eine Binärdatei auf
+ * (lesbar mit TrajectoryReader).
+ * Alle interval Zwischenschritte wird ein Frame mit ID und den gewählten Feldern aller Körper geschrieben.
+ *
+ * Der simulierende Thread kopiert die Werte nur in einen Puffer, geschrieben wird von einem eigenen Thread.
+ * Es gibt BUFFERS Puffer, die abwechselnd gefüllt und geschrieben werden. Sind alle voll, wartet die Simulation,
+ * bis der Schreiber einen freigibt (der Speicherbedarf bleibt also begrenzt, auch wenn die Platte langsamer ist).
+ *
+ * Aufbau der Datei (Little Endian):
+ * Kopf: Kennung, Version, Felder (Bitmaske der Field-Ordinalzahlen), interval.
+ * Je Frame: Länge in Bytes (ohne diese Angabe), Nummer des Zwischenschritts, Zeit, Anzahl n,
+ * n IDs (long), dann je gewähltem Feld n x-, n y- und n z-Komponenten (double).
+ */
+public final class TrajectoryRecorder implements StepObserver, AutoCloseable {
+    /** Aufzeichenbare Eigenschaften der Körper (die ID wird immer aufgezeichnet) */
+    public enum Field { POS, VEL, ACC }
+
+    /** Kennung am Dateianfang ("TRAJ") */
+    static final int MAGIC = 0x4A415254;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    /** Größe des Kopfs eines Frames: Länge, Zwischenschritt, Zeit, Anzahl */
+    static final int FRAME_HEADER_SIZE = 4 + 8 + 8 + 4;
+    /** Anzahl der Puffer zwischen Simulation und Schreiber */
+    private static final int BUFFERS = 4;
+    /** Leerer Puffer als Signal zum Beenden des Schreibers */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final int interval;
+    private final Field[] fields;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS), full = new ArrayBlockingQueue<>(BUFFERS + 1);
+    private final Thread writer;
+    /** Erster Fehler des Schreibers, wird an den simulierenden Thread weitergegeben */
+    private volatile IOException error;
+    private boolean closed;
+
+    /** Bisher beobachtete Zwischenschritte und simulierte Zeit */
+    private long substeps;
+    private double time;
+
+    /**
+     * Erzeugt (oder überschreibt) die Datei und startet den Schreiber
+     * @param interval Anzahl der Zwischenschritte zwischen zwei Frames
+     * @param fields aufzuzeichnende Eigenschaften
+     */
+    public TrajectoryRecorder(Path file, int interval, Set<Field> fields) throws IOException {
+        assert file != null && fields != null : "Datei und Felder müssen angegeben werden";
+        assert interval > 0 : "Es muss mindestens alle paar Zwischenschritte aufgezeichnet werden";
+        this.interval = interval;
+        this.fields = EnumSet.copyOf(fields).toArray(new Field[0]);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int mask = 0;
+        for (Field f : this.fields) mask |= 1 << f.ordinal();
+        header.putInt(MAGIC).putInt(VERSION).putInt(mask).putInt(interval).flip();
+        while (header.hasRemaining()) channel.write(header);
+        for (int i = 0; i < BUFFERS; i++)
+            free.add(ByteBuffer.allocateDirect(0));
+        writer = new Thread(this::write, "trajectory-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Zeichnet alle Zwischenschritte auf (alle Felder, jeden Zwischenschritt) */
+    public TrajectoryRecorder(Path file) throws IOException {
+        this(file, 1, EnumSet.allOf(Field.class));
+    }
+
+    public void stepped(double dt, Supplier<Physicable> world) {
+        assert !closed : "Der Recorder wurde bereits geschlossen";
+        substeps++;
+        time += dt;
+        if (substeps % interval == 0)
+            record(world.get());
+    }
+
+    /** Zeichnet einen Frame für den aktuellen Zustand auf, unabhängig von interval (z.B. den Startzustand) */
+    public void record(Physicable world) {
+        if (error != null) throw new UncheckedIOException(error);
+        Columns c = world instanceof ArrayWorld a ? a.getColumns() : Columns.of(world.getEntities());
+        // In long gerechnet, ein Frame mit allen Feldern überschreitet ab etwa 27 Mio. Körpern den int-Bereich
+        long size = FRAME_HEADER_SIZE + 8L * c.n * (1 + 3 * fields.length);
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Frame mit " + c.n + " Körpern zu groß für die Aufzeichnung (" + size + " Bytes)");
+        int bytes = (int) size;
+        ByteBuffer b;
+        try {
+            b = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Aufzeichnung unterbrochen", e);
+        }
+        if (b.capacity() < bytes)
+            b = ByteBuffer.allocateDirect((int) Math.max(bytes, Math.min(Integer.MAX_VALUE, 2L * b.capacity())));
+        b.clear().order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(bytes - 4).putLong(substeps).putDouble(time).putInt(c.n);
+        b.asLongBuffer().put(c.id, 0, c.n);
+        b.position(b.position() + 8 * c.n);
+        for (Field f : fields)
+            for (double[] column : columns(c, f)) {
+                b.asDoubleBuffer().put(column, 0, c.n);
+                b.position(b.position() + 8 * c.n);
+            }
+        b.flip();
+        full.add(b);
+    }
+
+    private static double[][] columns(Columns c, Field f) {
+        return switch (f) {
+            case POS -> new double[][] { c.px, c.py, c.pz };
+            case VEL -> new double[][] { c.vx, c.vy, c.vz };
+            case ACC -> new double[][] { c.ax, c.ay, c.az };
+        };
+    }
+
+    /** Schreiber: schreibt volle Puffer in die Datei und gibt sie wieder frei */
+    private void write() {
+        try {
+            while (true) {
+                ByteBuffer b = full.take();
+                if (b == END) return;
+                try {
+                    if (error == null)
+                        while (b.hasRemaining()) channel.write(b);
+                } catch (IOException e) {
+                    error = e;
+                }
+                // Auch nach einem Fehler freigeben, damit die Simulation nicht blockiert
+                free.add(b);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Wartet, bis alle Frames geschrieben sind, und schließt die Datei */
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        full.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (error != null) throw error;
+    }
+}
@@ -1,6 +1,7 @@
 package in.freye.physics.al;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.MathArrays;
 
 import java.util.Arrays;
 import java.util.function.BiFunction;
@@ -20,6 +21,24 @@ public class V3 {
         return bf.apply(v.getX(), w.getX()) && bf.apply(v.getY(), w.getY()) && bf.apply(v.getZ(), w.getZ());
     }
 
+    // Rechnen mit einzelnen Komponenten, ohne Vektor-Objekte zu erzeugen.
+    // Die Ergebnisse stimmen bitgenau mit den entsprechenden Methoden von Vector3D überein.
+
+    /** Komponente von v.add(factor, w): x + factor * w (über MathArrays.linearCombination wie in Vector3D) */
+    static double add(double x, double factor, double w) {
+        return MathArrays.linearCombination(1, x, factor, w);
+    }
+
+    /** Betrag des Vektors (x, y, z) wie Vector3D.getNorm() */
+    static double norm(double x, double y, double z) {
+        return Math.sqrt(x*x + y*y + z*z);
+    }
+
+    /** Kleinste Komponente des Vektors */
+    static double min(Vector3D v) {
+        return Math.min(v.getX(), Math.min(v.getY(), v.getZ()));
+    }
+
     /** Rundet Vektor für übersichtlichere Darstellung im Logging */
     static Vector3D r(Vector3D v) {
         return new Vector3D(Arrays.stream(v.toArray()).map(V3::r).toArray());
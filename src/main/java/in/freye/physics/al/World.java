@@ -5,8 +5,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.collections.api.factory.Lists;
 import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.map.primitive.ImmutableLongDoubleMap;
+import org.eclipse.collections.impl.factory.primitive.LongDoubleMaps;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 public class World implements Physicable {
     /** Minimale Aktualisierungen pro Sekunde */
@@ -15,8 +22,28 @@ public class World implements Physicable {
     private final Vector3D size, gravity;
     /** Dichte des Mediums, das den Raum ausfüllt (Bsp.: 0=Vakuum; 1.2≈Luft), Grundgröße für Strömungswiderstand */
     private final double airDensity;
-    /** Liste aller Körper im Raum */
-    private final ImmutableList<Shape> entities;
+    /** Verfahren, mit dem mögliche Kollisionspaare gesucht werden */
+    private final BroadPhase broadPhase;
+    /** Verfahren, mit dem die gegenseitige Gravitation der Körper berechnet wird */
+    private final GravitySolver gravitySolver;
+    /** Wahl der Länge der Zwischenschritte */
+    private final StepControl stepControl;
+    /** Verfahren, mit dem Position und Geschwindigkeit in einem Zwischenschritt fortgeschrieben werden */
+    private final Integrator integrator;
+    /** Einschlafen ruhender Körper; Ruhezeit der ruhenden Körper nach ID */
+    private final SleepPolicy sleepPolicy;
+    private final ImmutableLongDoubleMap restTimes;
+    /** Durch Bearbeitungen geweckte Körper, deren Ruhezeit in restTimes nicht mehr gilt (siehe restTimes()) */
+    private final IdMap woken;
+    /** Alle Körper im Raum in Einfügereihenfolge (Bearbeitung nach ID in O(log n), siehe EntityStore) */
+    private final EntityStore entities;
+    /**
+     * Hierarchie der unbeweglichen Körper (null: wird erst bei Bedarf aufgebaut, z.B. weil sich durch eine Bearbeitung
+     * die unbeweglichen Körper oder ihre Indizes geändert haben)
+     */
+    private volatile StaticBodies statics;
+    /** Ruhende Körper als Hierarchie zum Wecken bei Bearbeitungen (null: wird erst bei Bedarf aufgebaut) */
+    private volatile Resting resting;
 
     /** Allgemeine Gravitationskonstante G */
     public static final double GRAVITY_CONSTANT = 6.674e-11;
@@ -26,7 +53,7 @@ public class World implements Physicable {
      * Nach F=G*(m1*m2)/r² (mit F=m2*a und r=1m) folgt m1=a/G*r²
      *  = (0,001m/s²)/(6,674e-11Nm²/kg²)*(1m²) = 14.983.518,13 kg ≈ 1,4984e7 kg
      */
-    private static final double GRAVITY_SIGNIFICANT_MASS = 1.4984e7;
+    static final double GRAVITY_SIGNIFICANT_MASS = 1.4984e7;
 
     private static final Logger LOGGER = LogManager.getLogger("monitoring");
 
@@ -38,18 +65,133 @@ public class World implements Physicable {
      * @param size Größe des Quaders, der die Welt darstellt
      */
     public static Physicable create(double updateFrequency, Vector3D size) {
-        return new World(updateFrequency, size, Vector3D.ZERO, 0, Lists.immutable.empty());
+        return create(updateFrequency, size, Integrator.TAYLOR);
+    }
+
+    /**
+     * Factory-Methode:
+     * Erstellt eine neue Welt, deren Körper mit dem angegebenen Verfahren bewegt werden
+     * (z.B. Integrator.YOSHIDA4 für Umlaufbahnen mit wenigen Zwischenschritten)
+     * @see #create(double, Vector3D)
+     */
+    public static Physicable create(double updateFrequency, Vector3D size, Integrator integrator) {
+        return new World(updateFrequency, size, Vector3D.ZERO, 0, BroadPhase.SPATIAL_HASH, GravitySolver.DIRECT, StepControl.FIXED, integrator, SleepPolicy.NEVER, LongDoubleMaps.immutable.empty(), Lists.immutable.empty());
+    }
+
+    World(double updateFrequency, Vector3D size, Vector3D gravity, double airDensity, BroadPhase broadPhase, GravitySolver gravitySolver,
+          StepControl stepControl, Integrator integrator, SleepPolicy sleepPolicy, ImmutableLongDoubleMap restTimes, ImmutableList<Shape> entities) {
+        this(updateFrequency, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes, IdMap.EMPTY,
+                entities == null ? null : EntityStore.of(entities), null);
     }
 
-    private World(double updateFrequency, Vector3D size, Vector3D gravity, double airDensity, ImmutableList<Shape> entities) {
-        assert V3.isValidVector(size, gravity) && entities != null : "Die Eigenschaften müssen initialisiert sein";
+    private World(double updateFrequency, Vector3D size, Vector3D gravity, double airDensity, BroadPhase broadPhase, GravitySolver gravitySolver,
+                  StepControl stepControl, Integrator integrator, SleepPolicy sleepPolicy, ImmutableLongDoubleMap restTimes, IdMap woken, EntityStore entities, StaticBodies statics) {
+        assert V3.isValidVector(size, gravity) && broadPhase != null && gravitySolver != null && stepControl != null && integrator != null && sleepPolicy != null && restTimes != null && woken != null && entities != null : "Die Eigenschaften müssen initialisiert sein";
         assert DoubleStream.of(size.toArray()).allMatch(d -> d > 0) : "Der Raum muss ein realer Quader sein";
         assert updateFrequency > 0 : "Der minimale Update-Schritt muss positiv sein";
         this.updateFreq = updateFrequency;
         this.size = size;
         this.gravity = gravity;
         this.airDensity = airDensity;
+        this.broadPhase = broadPhase;
+        this.gravitySolver = gravitySolver;
+        this.stepControl = stepControl;
+        this.integrator = integrator;
+        this.sleepPolicy = sleepPolicy;
+        this.restTimes = restTimes;
+        this.woken = woken;
         this.entities = entities;
+        this.statics = statics;
+    }
+
+    /** Erzeugt eine Welt mit denselben Eigenschaften, aber anderen beweglichen Körpern (z.B. nach einem Zeitschritt) */
+    private World with(ImmutableList<Shape> newEntities) {
+        return with(EntityStore.of(newEntities), restTimes(), statics());
+    }
+
+    /** Erzeugt eine Welt mit denselben Eigenschaften, aber anderen Körpern, Ruhezeiten und unbeweglichen Körpern */
+    private World with(ImmutableList<Shape> newEntities, ImmutableLongDoubleMap newRestTimes, StaticBodies newStatics) {
+        return with(EntityStore.of(newEntities), newRestTimes, newStatics);
+    }
+
+    private World with(EntityStore newEntities, ImmutableLongDoubleMap newRestTimes, StaticBodies newStatics) {
+        return new World(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, newRestTimes, IdMap.EMPTY, newEntities, newStatics);
+    }
+
+    /**
+     * Welt nach der Bearbeitung einzelner Körper. Bearbeitungen wecken nur Körper (newWoken), die Ruhezeiten und die
+     * Hierarchie der ruhenden Körper werden unverändert übernommen.
+     */
+    private World edited(EntityStore newEntities, IdMap newWoken, StaticBodies newStatics) {
+        World w = new World(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes, newWoken, newEntities, newStatics);
+        w.resting = resting;
+        return w;
+    }
+
+    /**
+     * Ruhezeiten ohne die geweckten Körper. Kopiert wird nur einmal vor einem Zeitschritt (O(k) für k ruhende Körper),
+     * nicht bei jeder Bearbeitung.
+     */
+    private ImmutableLongDoubleMap restTimes() {
+        IdMap w = woken;
+        return w.isEmpty() ? restTimes : restTimes.reject((id, t) -> w.get(id) >= 0);
+    }
+
+    /** Hierarchie der unbeweglichen Körper, wird nach Bearbeitungen erst hier (z.B. im nächsten Zeitschritt) aufgebaut */
+    private StaticBodies statics() {
+        StaticBodies s = statics;
+        if (s == null) statics = s = StaticBodies.of(entities.list());
+        return s;
+    }
+
+    /**
+     * Ruhende Körper (mit Ruhezeit) und eine Hierarchie über ihre um den Abstand aus Sleepers.nearby() vergrößerten
+     * Hüllkugeln. Aufgebaut wird über die Ruhezeiten nach ID (O(k·log n) für k ruhende Körper), nicht über alle Körper.
+     */
+    private static final class Resting {
+        final Shape[] bodies;
+        final StaticBodies tree;
+
+        Resting(Shape[] bodies) {
+            this.bodies = bodies;
+            int k = bodies.length;
+            double[] x = new double[k], y = new double[k], z = new double[k], r = new double[k];
+            for (int i = 0; i < k; i++) {
+                Shape e = bodies[i];
+                x[i] = e.pos.getX(); y[i] = e.pos.getY(); z[i] = e.pos.getZ();
+                r[i] = 1.1 * e.boundingRadius();
+            }
+            tree = StaticBodies.of(x, y, z, r);
+        }
+    }
+
+    /** Nach einem Zeitschritt einmal aufgebaut, danach von allen bearbeiteten Welten übernommen (siehe edited()) */
+    private Resting resting() {
+        Resting r = resting;
+        if (r == null) {
+            Shape[] bodies = restTimes.keySet().collect(entities::get).select(e -> e != null).toArray(new Shape[0]);
+            resting = r = new Resting(bodies);
+        }
+        return r;
+    }
+
+    /**
+     * Geweckte Körper einschließlich des bearbeiteten Körpers und der ruhenden Körper in seiner Nähe.
+     * Die Nachbarn werden in der Hierarchie der ruhenden Körper gesucht, jeder geweckte Körper kostet O(log n).
+     */
+    private IdMap wakeAround(IdMap woken, Shape edited) {
+        if (restTimes.isEmpty()) return woken;
+        Resting r = resting();
+        IdMap[] result = {woken};
+        if (restTimes.containsKey(edited.id)) result[0] = result[0].put(edited.id, 0);
+        double x = edited.pos.getX(), y = edited.pos.getY(), z = edited.pos.getZ();
+        r.tree.query(x, y, z, 1.1 * edited.boundingRadius(), k -> {
+            Shape e = r.bodies[k];
+            // Bereits geweckte Körper (z.B. seit dem Aufbau bearbeitete) bleiben unverändert
+            if (result[0].get(e.id) < 0 && Sleepers.nearby(e.pos.getX() - x, e.pos.getY() - y, e.pos.getZ() - z, e.boundingRadius(), edited.boundingRadius()))
+                result[0] = result[0].put(e.id, 0);
+        });
+        return result[0];
     }
 
     public Spawner createSpawnableAt(Vector3D position) {
@@ -59,80 +201,262 @@ public class World implements Physicable {
 
     public Physicable spawn(Spawnable... entities) {
         assert entities != null : "Liste von Körpern muss existieren";
-        World w = this;
-        for (Spawnable s : entities)
-            w = w.spawn(s);
-        return w;
+        if (entities.length == 1) return spawn(entities[0]);
+        // Zwei Körper im Raum dürfen nicht dieselbe ID oder Position haben (auch nicht innerhalb der neuen Körper)
+        // Die neue Liste entsteht in einem Array, in dem auch die vorhandenen Körper durchsucht werden
+        int n = this.entities.size();
+        Shape[] all = this.entities.list().toArray(new Shape[n + entities.length]);
+        List<Shape> accepted = new SpawnFilter(entities).accept(all, n);
+        if (accepted.isEmpty()) return this;
+        // Neue Körper werden in einem Schritt angehängt, die Indizes der vorhandenen bleiben gleich
+        for (int i = 0; i < accepted.size(); i++)
+            all[n + i] = accepted.get(i);
+        ImmutableList<Shape> newEntities = Lists.immutable.with(n + accepted.size() == all.length ? all : Arrays.copyOf(all, n + accepted.size()));
+        ImmutableLongDoubleMap times = restTimes();
+        if (!times.isEmpty()) {
+            Columns c = Columns.of(newEntities.toArray(new Shape[0]));
+            times = Sleepers.wakeAround(times, size, c.n, c.id, c.px, c.py, c.pz, c.radius, this.entities.size());
+        }
+        // Nur neue unbewegliche Körper verändern die Hierarchie, sie wird dann einmal für alle neuen Körper aufgebaut
+        return with(newEntities, times, accepted.stream().allMatch(Shape::getMovable) ? statics : StaticBodies.of(newEntities));
     }
 
+    /** Einzelner Körper (z.B. im Editor): direkter Vergleich der Positionen, Anhängen in O(log n) */
     private World spawn(Spawnable entity) {
         assert entity instanceof Shape : "Körper muss existieren und Instanz von Shape sein";
-        // Zwei Körper im Raum dürfen nicht dieselbe ID oder Position haben
-        if (entities.anySatisfy(e -> e.equals(entity) || e.pos.equals(entity.getPos())))
+        if (entities.contains(entity.getId()) || entities.occupied(entity.getPos()))
             return this;
-        return new World(updateFreq, size, gravity, airDensity, entities.newWith((Shape) entity));
+        EntityStore newEntities = entities.with((Shape) entity);
+        // Ein unbeweglicher Körper verändert die Hierarchie, sie wird erst bei Bedarf neu aufgebaut
+        return edited(newEntities, wakeAround(woken, (Shape) entity), entity.getMovable() ? statics : null);
     }
 
     public Physicable replace(long id, Spawnable entity) {
-        assert entities.anySatisfy(e -> e.id == id) : "Die Welt muss den Körper mit der angegebenen ID enthalten";
+        assert entities.contains(id) : "Die Welt muss den Körper mit der angegebenen ID enthalten";
         if (entity == null) return destroy(id);
         assert entity instanceof Shape : "Körper muss existieren und Instanz von Shape sein";
-        // Reihung von vorherigen Körpern, dem neuen Körper und nachfolgenden Körpern
-        ImmutableList<Shape> pre = entities.takeWhile(e -> e.id != id);
-        return new World(updateFreq, size, gravity, airDensity,
-                pre.newWith((Shape) entity).newWithAll(entities.drop(pre.size()+1)));
+        // Körper in der Nähe des alten und des neuen Zustands wachen auf
+        Shape replaced = entities.get(id);
+        IdMap newWoken = wakeAround(wakeAround(woken, replaced), (Shape) entity);
+        // Der neue Körper übernimmt den Platz des alten, die übrigen Körper werden nicht kopiert
+        EntityStore newEntities = entities.replace(id, (Shape) entity);
+        return edited(newEntities, newWoken, replaced.movable && entity.getMovable() ? statics : null);
     }
 
     /** Löscht Objekt an angegebener Stelle */
     private Physicable destroy(long id) {
         // id wird in replace() abgesichert
-        return new World(updateFreq, size, gravity, airDensity, entities.newWithout(entities.select(e -> e.id == id).getAny()));
+        Shape destroyed = entities.get(id);
+        EntityStore newEntities = entities.without(id);
+        // Die Indizes der folgenden unbeweglichen Körper verschieben sich, die Hierarchie wird also erst bei Bedarf neu
+        // aufgebaut (ohne unbewegliche Körper bleibt sie leer), aufeinanderfolgende Bearbeitungen bleiben O(log n)
+        StaticBodies s = statics;
+        return edited(newEntities, wakeAround(woken, destroyed), destroyed.movable && s != null && s.isEmpty() ? s : null);
     }
 
     public Physicable simulateTime(double timeStep) {
+        return simulateTime(timeStep, null);
+    }
+
+    public Physicable simulateTime(double timeStep, StepObserver observer) {
+        return simulate(timeStep, observer, null).getWorld();
+    }
+
+    public SimulationResult simulateTimeUntil(double timeStep, long deadline) {
+        return simulate(timeStep, null, SimulationResult.stopAt(deadline));
+    }
+
+    /**
+     * @param stop wird nach jedem Zwischenschritt geprüft, der nicht der letzte ist (null: kein Abbruch)
+     */
+    private SimulationResult simulate(double timeStep, StepObserver observer, BooleanSupplier stop) {
         assert Double.isFinite(timeStep) && timeStep >= 0 : "Zeit kann nur endliche Schritte und nicht rückwärts laufen";
+        if (timeStep == 0) return new SimulationResult(this, 0, true);
+        if (stepControl.isEventDriven() || stepControl.isBlockStepped() || !integrator.isTaylor()) {
+            // Auf Spalten in einer Sitzung, die Zwischenschritte entsprechen denen von ArrayWorld
+            SimulationSession session = startSession();
+            return SimulationResult.of(session, timeStep, session.simulate(timeStep, observer, stop));
+        }
         // Wenn eine höhere Update-Frequenz gefordert ist, als timeStep bietet, wird wiederholt aktualisiert
         World world = this;
-        for (double dt = timeStep; dt > 0; dt -= 1/updateFreq)
-            world = new World(updateFreq, size, gravity, airDensity, world.calculateChanges(Math.min(dt, 1/updateFreq)));
-        return world;
+        // Die Breitphase wird über alle Zwischenschritte hinweg wiederverwendet, unbewegliche Körper über ihre Hierarchie
+        PairFinder pairs = broadPhase.create(size, statics());
+        // Mit adaptiver Schrittweite wird die Änderung der Beschleunigung über den vorherigen Schritt geschätzt
+        World previous = null;
+        // Die Reihenfolge der Körper bleibt in Zwischenschritten gleich, Ruhezeiten werden über den Index verwaltet
+        long[] ids = entities.list().collectLong(e -> e.id).toArray();
+        Sleepers sleepers = sleepPolicy.isEnabled() ? new Sleepers(sleepPolicy, ids, restTimes()) : null;
+        double maxStep = 1/updateFreq, step = 0, simulated = 0;
+        boolean complete = true;
+        for (double dt = timeStep; dt > 0; dt -= step) {
+            step = Math.min(dt, stepControl.isAdaptive() ? world.adaptiveStep(previous, step, maxStep) : maxStep);
+            World next = world.with(world.calculateChanges(step, pairs, sleepers));
+            if (observer != null) observer.stepped(step, () -> next);
+            previous = world;
+            world = next;
+            simulated += step;
+            if (stop != null && dt - step > 0 && stop.getAsBoolean()) {
+                complete = false;
+                break;
+            }
+        }
+        World result = sleepers == null ? world : world.with(world.entities, sleepers.toMap(ids), statics());
+        return new SimulationResult(result, complete ? timeStep : simulated, complete);
+    }
+
+    /** Sitzungen rechnen immer auf Spalten wie ArrayWorld, die Körper-Objekte entstehen erst in snapshot() */
+    public SimulationSession startSession() {
+        StaticBodies s = statics();
+        return new SimulationSession(this, Columns.of(getEntities()), false, s, restTimes(),
+                (c, times) -> with(Lists.immutable.with(c.toShapes()), times, s));
     }
 
-    /** Wendet physikalische Berechnungen auf jeden Körper an */
-    private ImmutableList<Shape> calculateChanges(double dt) {
-        LOGGER.info("Zeitschritt ({}s) wird simuliert.", V3.r(dt));
+    /**
+     * Größte Schrittweite, die StepControl für alle beweglichen Körper erlaubt
+     * @param previous Welt vor dem vorherigen Zwischenschritt (null: erster Zwischenschritt)
+     * @param previousStep Länge des vorherigen Zwischenschritts
+     */
+    private double adaptiveStep(World previous, double previousStep, double maxStep) {
+        ImmutableList<Shape> entities = this.entities.list(), previousEntities = previous == null ? null : previous.entities.list();
+        ImmutableList<Shape> gravityShapes = gravitySolver == GravitySolver.DIRECT
+                ? entities.select(e -> e.mass >= GRAVITY_SIGNIFICANT_MASS) : Lists.immutable.empty();
+        double g = gravity.getNorm();
+        return stepControl.limit(IntStream.range(0, entities.size()).parallel().mapToDouble(i -> {
+            Shape e = entities.get(i);
+            if (!e.movable) return maxStep;
+            // Reihenfolge der Körper bleibt in Zwischenschritten gleich
+            double jerk = previous == null ? 0 : e.acc.distance(previousEntities.get(i).acc) / previousStep;
+            double step = stepControl.bodyStep(e.vel.getNorm(), Math.max(e.acc.getNorm(), g), jerk, e.boundingRadius());
+            for (Shape source : gravityShapes)
+                if (source.id != e.id)
+                    step = Math.min(step, stepControl.gravityStep(source.pos.distance(e.pos), source.mass));
+            return step;
+        }).min().orElse(maxStep), previousStep, maxStep);
+    }
+
+    /**
+     * Wendet physikalische Berechnungen auf jeden Körper an
+     * @param pairs Breitphase der Kollisionsdetektion (null: jeder Körper wird gegen alle anderen getestet)
+     * @param sleepers Schlafzustand der Körper (null: alle Körper werden berechnet)
+     */
+    private ImmutableList<Shape> calculateChanges(double dt, PairFinder pairs, Sleepers sleepers) {
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Zeitschritt ({}s) wird simuliert.", V3.r(dt));
+        ImmutableList<Shape> entities = this.entities.list();
         // Filtern aller Körper, deren Masse eine signifikante Gravitation ausübt
         ImmutableList<Shape> gravityShapes = entities
                 .select(e1 -> e1.mass >= GRAVITY_SIGNIFICANT_MASS);
-        // Berechnung der Gesamtbeschleunigung, die jeder Körper zum neuen Zeitpunkt hat
-        ImmutableList<Shape> result1 = Lists.immutable.fromStream(entities.parallelStream()
-                .map(e -> e.calcAcceleration(gravity, airDensity, gravityShapes)));
-        // Aktualisieren der Position und Geschwindigkeit durch allgemeine Gravitation oder gleichförmige Bewegung
-        ImmutableList<Shape> result2 = Lists.immutable.fromStream(result1.parallelStream()
-                .map(e -> e.applyMovement(dt)));
-        // Kollisionen mit den Wänden (benötigt Zustand vor aktualisierter Position/Geschwindigkeit)
-        ImmutableList<Shape> result3 = Lists.immutable.fromStream(result2.parallelStream()
-                .map(e -> e.handleWallCollision(size, result1.select(e1 -> e1.equals(e)).getAny())));
-        // Kollision zwischen Körpern (Korrektur Position/Geschwindigkeit)
-        ImmutableList<Shape> result4 = Lists.immutable.fromStream(result3.parallelStream()
-                .map(e -> e.calcEntityCollisionCorrections(result3, result1.select(e1 -> e1.equals(e)).getAny())));
+        // Gravitationsfeld der Quellen wird einmal pro Zwischenschritt aufgebaut (null: direkte Summe)
+        GravitySolver.GravityField field = gravitySolver.build(gravityShapes, size);
+        int n = entities.size();
+        if (sleepers != null) sleepers.prepare();
+        boolean[] asleep = sleepers == null ? new boolean[n] : sleepers.asleep;
+        // Phasen ohne Wechselwirkung zwischen Körpern in einem Durchlauf je Körper:
+        // Gesamtbeschleunigung, Bewegung, Kollision mit den Wänden
+        Shape[] result1 = new Shape[n], result3 = new Shape[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            Shape e = entities.get(i);
+            // Schlafende Körper bleiben unverändert
+            if (asleep[i]) {
+                result1[i] = result3[i] = e;
+                return;
+            }
+            // Berechnung der Gesamtbeschleunigung, die jeder Körper zum neuen Zeitpunkt hat
+            Shape accelerated = field == null || !e.movable
+                    ? e.calcAcceleration(gravity, airDensity, gravityShapes)
+                    : e.calcAcceleration(gravity, airDensity, field.accelerationAt(e.pos));
+            result1[i] = accelerated;
+            // Aktualisieren der Position und Geschwindigkeit durch allgemeine Gravitation oder gleichförmige Bewegung,
+            // danach Kollisionen mit den Wänden (benötigt Zustand vor aktualisierter Position/Geschwindigkeit)
+            result3[i] = accelerated.applyMovement(dt).handleWallCollision(size, accelerated);
+        });
+        // Ab hier wirken die Körper aufeinander, jede Phase benötigt die vollständigen Ergebnisse der vorherigen.
+        // Alle Zwischenergebnisse haben dieselbe Reihenfolge wie entities,
+        // der vorherige Zustand eines Körpers liegt also am selben Index
+        ImmutableList<Shape> moved = Lists.immutable.with(result3);
+        if (pairs != null) pairs.update(moved);
+        // Schlafende Körper, die ein wacher (beweglicher) Körper berührt, wachen auf und werden ab hier berechnet
+        if (sleepers != null) {
+            IntStream.range(0, n).parallel().forEach(i -> {
+                Shape a = result3[i];
+                if (asleep[i] || !a.movable) return;
+                for (int k = pairs == null ? 0 : pairs.offsets[i], end = pairs == null ? n : pairs.offsets[i+1]; k < end; k++) {
+                    int j = pairs == null ? k : pairs.neighbors[k];
+                    Shape b = result3[j];
+                    sleepers.touch(i, j, b.pos.getX() - a.pos.getX(), b.pos.getY() - a.pos.getY(), b.pos.getZ() - a.pos.getZ(),
+                            a.boundingRadius(), b.boundingRadius());
+                }
+            });
+            sleepers.wakeTouched();
+        }
+        // Kollision zwischen Körpern (Korrektur Position/Geschwindigkeit),
+        // mit Breitphase werden nur Körper mit überlappenden Hüllquadern exakt getestet.
+        // Schlafende und unbewegliche Körper werden durch Kollisionen nicht verändert
+        Shape[] result4 = new Shape[n];
+        IntStream.range(0, n).parallel().forEach(i ->
+                result4[i] = asleep[i] || !result3[i].movable ? result3[i] : result3[i].calcEntityCollisionCorrections(pairs == null ? moved : pairs.select(i, moved), result1[i]));
+        // Zustände nach der Korrektur, nach ID abrufbar
+        LongObjectHashMap<Shape> corrected = new LongObjectHashMap<>(n);
+        for (Shape e : result4)
+            corrected.put(e.id, e);
         // Kollision zwischen Körpern (Kollisionsantwort mit Impulserhaltung, Energieerhaltung)
-        return Lists.immutable.fromStream(result4.parallelStream()
-                .map(e -> e.applyEntityCollisionDeflections(result3, result4)));
+        Shape[] result5 = new Shape[n];
+        IntStream.range(0, n).parallel().forEach(i ->
+                result5[i] = asleep[i] || !result4[i].movable ? result4[i] : result4[i].applyEntityCollisionDeflections(result3[i],
+                        pairs == null ? moved : pairs.select(i, moved), e -> corrected.get(e.id)));
+        // Ruhezeiten der wachen Körper über die tatsächliche Geschwindigkeitsänderung im Zwischenschritt
+        if (sleepers != null)
+            IntStream.range(0, n).parallel().filter(i -> result5[i].movable).forEach(i ->
+                    sleepers.update(i, result5[i].vel.getNorm(), result5[i].vel.distance(entities.get(i).vel), dt));
+        return Lists.immutable.with(result5);
     }
 
     public Physicable setGravity(Vector3D newGravity) {
         assert V3.isValidVector(newGravity) : "Gravitation muss in Rechnungen anwendbar sein";
-        return new World(updateFreq, size, newGravity, airDensity, entities);
+        return new World(updateFreq, size, newGravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, LongDoubleMaps.immutable.empty(), IdMap.EMPTY, entities, statics);
     }
 
     public Physicable setAirDensity(double newAirDensity) {
         assert newAirDensity >= 0 && Double.isFinite(airDensity) : "Dichte des Mediums im Raum muss eine endliche, positive Größe sein";
-        return new World(updateFreq, size, gravity, newAirDensity, entities);
+        return new World(updateFreq, size, gravity, newAirDensity, broadPhase, gravitySolver, stepControl, integrator, sleepPolicy, LongDoubleMaps.immutable.empty(), IdMap.EMPTY, entities, statics);
+    }
+
+    public Physicable setBroadPhase(BroadPhase newBroadPhase) {
+        assert newBroadPhase != null : "Ein Verfahren für die Breitphase muss angegeben werden";
+        return new World(updateFreq, size, gravity, airDensity, newBroadPhase, gravitySolver, stepControl, integrator, sleepPolicy, restTimes(), IdMap.EMPTY, entities, statics);
+    }
+
+    public Physicable setGravitySolver(GravitySolver newGravitySolver) {
+        assert newGravitySolver != null : "Ein Verfahren für die Gravitation muss angegeben werden";
+        return new World(updateFreq, size, gravity, airDensity, broadPhase, newGravitySolver, stepControl, integrator, sleepPolicy, LongDoubleMaps.immutable.empty(), IdMap.EMPTY, entities, statics);
+    }
+
+    public Physicable setStepControl(StepControl newStepControl) {
+        assert newStepControl != null : "Ein Verfahren für die Schrittweite muss angegeben werden";
+        return new World(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, newStepControl, integrator, sleepPolicy, restTimes(), IdMap.EMPTY, entities, statics);
+    }
+
+    public Physicable setIntegrator(Integrator newIntegrator) {
+        assert newIntegrator != null : "Ein Verfahren für die Bewegung muss angegeben werden";
+        return new World(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, newIntegrator, sleepPolicy, restTimes(), IdMap.EMPTY, entities, statics);
+    }
+
+    public Physicable setSleepPolicy(SleepPolicy newSleepPolicy) {
+        assert newSleepPolicy != null : "Ein Verfahren für das Einschlafen muss angegeben werden";
+        return new World(updateFreq, size, gravity, airDensity, broadPhase, gravitySolver, stepControl, integrator, newSleepPolicy, restTimes(), IdMap.EMPTY, entities, statics);
     }
 
+    public double getUpdateFreq() { return updateFreq; }
     public Vector3D getSize() { return size; }
     public Vector3D getGravity() { return gravity; }
     public double getAirDensity() { return airDensity; }
-    public Shape[] getEntities() { return entities.toArray(new Shape[0]); }
+    public BroadPhase getBroadPhase() { return broadPhase; }
+    public GravitySolver getGravitySolver() { return gravitySolver; }
+    public StepControl getStepControl() { return stepControl; }
+    public Integrator getIntegrator() { return integrator; }
+    public SleepPolicy getSleepPolicy() { return sleepPolicy; }
+    /** Ruhezeit der ruhenden Körper nach ID */
+    ImmutableLongDoubleMap getRestTimes() { return restTimes(); }
+    public boolean isSleeping(long id) { return woken.get(id) < 0 && Sleepers.isAsleep(sleepPolicy, restTimes, id); }
+    public Shape[] getEntities() { return entities.toArray(); }
 }
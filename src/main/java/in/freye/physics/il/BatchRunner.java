@@ -0,0 +1,247 @@
+package in.freye.physics.il;
+
+import in.freye.physics.al.Physicable;
+import in.freye.physics.al.SimulationResult;
+import in.freye.physics.al.Spawnable;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Führt Beispiel-Szenarien ohne GUI aus, optional mit einem Parameter-Sweep über alle Prozessorkerne,
+ * und schreibt eine Zusammenfassung je Lauf als CSV.
+ *
+ * Start: java -cp target/classes:[Abhängigkeiten] in.freye.physics.il.BatchRunner pool --param 11:17:600 --time 5 --out pool.csv
+ * (Processing wird nicht benötigt)
+ */
+public final class BatchRunner {
+
+    /** Szenarien mit einem variierbaren Parameter und einer szenariospezifischen Kennzahl */
+    public enum Scenario {
+        /** Parameter: Startgeschwindigkeit der weißen Kugel in x-Richtung; Kennzahl: größte Verschiebung einer Kugel */
+        POOL("startSpeed", Templates.POOL_BREAK_VELOCITY.getX(), "maxDisplacement") {
+            Physicable create(double updateFreq, double p) {
+                return Templates.poolTable(updateFreq, new Vector3D(p, 0, Templates.POOL_BREAK_VELOCITY.getZ()));
+            }
+            double metric(Physicable start, Physicable end) {
+                Spawnable[] s = start.getEntities(), e = end.getEntities();
+                return IntStream.range(0, e.length).mapToDouble(i -> s[i].getPos().distance(e[i].getPos())).max().orElse(0);
+            }
+        },
+        /** Parameter: Dichte des Mediums; Kennzahl: Höhenunterschied der beiden Kugeln */
+        AIR("airDensity", 1.2, "heightDifference") {
+            Physicable create(double updateFreq, double p) { return Templates.airResistance(updateFreq, p); }
+            double metric(Physicable start, Physicable end) {
+                Spawnable[] e = end.getEntities();
+                return e[0].getPos().getY() - e[1].getPos().getY();
+            }
+        },
+        /** Parameter: Abweichung von der Kreisbahngeschwindigkeit; Kennzahl: relative Änderung des Bahnradius */
+        ORBIT("startVelDeviation", 0, "radiusDrift") {
+            Physicable create(double updateFreq, double p) { return Templates.starWithOrbit(updateFreq, p); }
+            double metric(Physicable start, Physicable end) {
+                return distance(end, 0, 1) / distance(start, 0, 1) - 1;
+            }
+        },
+        /** Parameter: Anzahl der Kugeln; Kennzahl: mittlere Höhe */
+        CLUSTER("count", 100, "meanHeight") {
+            Physicable create(double updateFreq, double p) { return Templates.sphereCluster(updateFreq, (int) p, new Random(1)); }
+            double metric(Physicable start, Physicable end) {
+                return Arrays.stream(end.getEntities()).mapToDouble(e -> e.getPos().getY()).average().orElse(Double.NaN);
+            }
+        },
+        /** Ohne Parameter; Kennzahl: mittlere Höhe */
+        BOUNCE("none", 0, "meanHeight") {
+            Physicable create(double updateFreq, double p) { return Templates.gravityBouncing(updateFreq); }
+            double metric(Physicable start, Physicable end) { return CLUSTER.metric(start, end); }
+        },
+        /** Ohne Parameter; Kennzahl: Geschwindigkeit der letzten Kugel */
+        NEWTON("none", 0, "lastSpeed") {
+            Physicable create(double updateFreq, double p) { return Templates.newtonPendulum(updateFreq); }
+            double metric(Physicable start, Physicable end) {
+                Spawnable[] e = end.getEntities();
+                return e[e.length - 1].getVel().getNorm();
+            }
+        },
+        /** Ohne Parameter (eigene Simulationsrate); Kennzahl: relative Änderung des Abstands Erde–Sonne */
+        SOLAR("none", 0, "radiusDrift") {
+            Physicable create(double updateFreq, double p) { return Templates.solarSystem(Templates.SOLAR_SYSTEM_UPDATE_FREQ); }
+            double metric(Physicable start, Physicable end) { return ORBIT.metric(start, end); }
+        };
+
+        final String parameterName, metricName;
+        final double defaultParameter;
+
+        Scenario(String parameterName, double defaultParameter, String metricName) {
+            this.parameterName = parameterName;
+            this.defaultParameter = defaultParameter;
+            this.metricName = metricName;
+        }
+
+        abstract Physicable create(double updateFreq, double parameter);
+        abstract double metric(Physicable start, Physicable end);
+
+        private static double distance(Physicable w, int i, int j) {
+            Spawnable[] e = w.getEntities();
+            return e[i].getPos().distance(e[j].getPos());
+        }
+    }
+
+    /** Zusammenfassung eines Laufs */
+    static final class Result {
+        final double parameter, simulatedTime, wallMillis;
+        final int entities, moving;
+        final double kineticEnergyStart, kineticEnergyEnd, momentum, metric;
+
+        Result(double parameter, double simulatedTime, double wallMillis, Physicable start, Physicable end, double metric) {
+            this.parameter = parameter;
+            this.simulatedTime = simulatedTime;
+            this.wallMillis = wallMillis;
+            this.entities = end.getEntities().length;
+            this.moving = (int) Arrays.stream(end.getEntities()).filter(e -> e.getMovable() && e.getVel().getNorm() > 1e-3).count();
+            this.kineticEnergyStart = kineticEnergy(start);
+            this.kineticEnergyEnd = kineticEnergy(end);
+            this.momentum = Arrays.stream(end.getEntities()).filter(Spawnable::getMovable)
+                    .map(e -> e.getVel().scalarMultiply(e.getMass())).reduce(Vector3D.ZERO, Vector3D::add).getNorm();
+            this.metric = metric;
+        }
+
+        private static double kineticEnergy(Physicable w) {
+            return Arrays.stream(w.getEntities()).filter(Spawnable::getMovable)
+                    .mapToDouble(e -> 0.5 * e.getMass() * e.getVel().getNormSq()).sum();
+        }
+    }
+
+    private BatchRunner() {}
+
+    /**
+     * Führt einen Lauf je Parameterwert aus, die Läufe werden auf threads Threads verteilt
+     * (die Simulation selbst teilt sich dieselben Threads)
+     * @return Ergebnisse in der Reihenfolge der Parameter
+     */
+    static List<Result> run(Scenario scenario, double[] parameters, double time, double updateFreq, int threads) {
+        return run(scenario, parameters, time, updateFreq, threads, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Wie run(), jeder Lauf endet aber spätestens nach limit Sekunden Rechenzeit
+     * (Result.simulatedTime enthält dann die tatsächlich simulierte Zeit)
+     */
+    static List<Result> run(Scenario scenario, double[] parameters, double time, double updateFreq, int threads, double limit) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // Parallele Streams, die aus einer Aufgabe des Pools gestartet werden, laufen in diesem Pool
+            return pool.submit(() -> IntStream.range(0, parameters.length).parallel()
+                    .mapToObj(i -> {
+                        Physicable start = scenario.create(updateFreq, parameters[i]);
+                        long t0 = System.nanoTime();
+                        SimulationResult result = start.simulateTimeUntil(time, t0 + (long) Math.min(limit * 1e9, Long.MAX_VALUE / 2));
+                        double wallMillis = (System.nanoTime() - t0) / 1e6;
+                        Physicable end = result.getWorld();
+                        return new Result(parameters[i], result.getSimulatedTime(), wallMillis, start, end, scenario.metric(start, end));
+                    })
+                    .toList()).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Schreibt die Ergebnisse als CSV (Dezimalpunkt, Komma als Trennzeichen) */
+    static void writeCsv(Scenario scenario, List<Result> results, Writer out) {
+        PrintWriter w = new PrintWriter(out);
+        w.println("scenario," + scenario.parameterName + ",simulatedTime,entities,wallMillis,kineticEnergyStart,kineticEnergyEnd,momentum,moving," + scenario.metricName);
+        for (Result r : results)
+            w.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%.3f,%s,%s,%s,%d,%s", scenario.name().toLowerCase(Locale.ROOT),
+                    r.parameter, r.simulatedTime, r.entities, r.wallMillis, r.kineticEnergyStart, r.kineticEnergyEnd, r.momentum, r.moving, r.metric));
+        w.flush();
+    }
+
+    /**
+     * Linearer Sweep "von:bis:anzahl" (z.B. "11:17:25") oder ein einzelner Wert
+     */
+    static double[] parseSweep(String s) {
+        String[] parts = s.split(":");
+        if (parts.length == 1)
+            return new double[]{ Double.parseDouble(parts[0]) };
+        if (parts.length != 3)
+            throw new IllegalArgumentException("Sweep muss die Form von:bis:anzahl haben: " + s);
+        double from = Double.parseDouble(parts[0]), to = Double.parseDouble(parts[1]);
+        int count = Integer.parseInt(parts[2]);
+        if (count < 1)
+            throw new IllegalArgumentException("Anzahl muss positiv sein: " + s);
+        return count == 1 ? new double[]{ from } : IntStream.range(0, count).mapToDouble(i -> from + (to - from) * i / (count - 1)).toArray();
+    }
+
+    private static void usage(PrintStream out) {
+        out.println("Verwendung: BatchRunner <szenario> [optionen]");
+        out.println("Szenarien (Parameter):");
+        for (Scenario s : Scenario.values())
+            out.printf(Locale.ROOT, "  %-8s %s (Standard %s)%n", s.name().toLowerCase(Locale.ROOT), s.parameterName, s.defaultParameter);
+        out.println("Optionen:");
+        out.println("  --param von:bis:anzahl | wert   Parameter-Sweep (linear)");
+        out.println("  --time sekunden                 simulierte Zeit je Lauf (Standard 10)");
+        out.println("  --freq hz                       Aktualisierungen pro Sekunde (Standard 100)");
+        out.println("  --threads n                     parallele Threads (Standard: alle Kerne)");
+        out.println("  --limit sekunden                höchste Rechenzeit je Lauf (Standard: unbegrenzt)");
+        out.println("  --out datei                     CSV-Datei (Standard: Standardausgabe)");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].equals("--help")) {
+            usage(args.length == 0 ? System.err : System.out);
+            System.exit(args.length == 0 ? 2 : 0);
+        }
+        Scenario scenario;
+        double[] parameters;
+        double time = 10, updateFreq = 100, limit = Double.POSITIVE_INFINITY;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = null;
+        try {
+            scenario = Scenario.valueOf(args[0].toUpperCase(Locale.ROOT));
+            parameters = new double[]{ scenario.defaultParameter };
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Wert fehlt für " + args[i]);
+                String v = args[i + 1];
+                switch (args[i]) {
+                    case "--param" -> parameters = parseSweep(v);
+                    case "--time" -> time = Double.parseDouble(v);
+                    case "--freq" -> updateFreq = Double.parseDouble(v);
+                    case "--threads" -> threads = Integer.parseInt(v);
+                    case "--limit" -> limit = Double.parseDouble(v);
+                    case "--out" -> out = Path.of(v);
+                    default -> throw new IllegalArgumentException("Unbekannte Option " + args[i]);
+                }
+            }
+            if (!(time >= 0 && Double.isFinite(time)) || !(updateFreq > 0) || threads < 1 || !(limit > 0))
+                throw new IllegalArgumentException("Zeit, Frequenz, Threads und Rechenzeit müssen positiv sein");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage(System.err);
+            System.exit(2);
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        List<Result> results = run(scenario, parameters, time, updateFreq, threads, limit);
+        if (out == null) {
+            writeCsv(scenario, results, new PrintWriter(System.out));
+        } else {
+            try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                writeCsv(scenario, results, w);
+            }
+        }
+        System.err.printf(Locale.ROOT, "%d Läufe in %.1fs%n", results.size(), (System.nanoTime() - t0) / 1e9);
+    }
+}
@@ -8,13 +8,8 @@ import processing.event.MouseEvent;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
 import java.util.function.*;
-import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class SimularthurGUI extends PApplet {
 
@@ -83,14 +78,17 @@ public class SimularthurGUI extends PApplet {
     double updateFreq = 100, updateFreqSimStart;
 
     // Variablen (Verbindung Simulation & Display)
-    double timeToSimulate, currentTimeDelta;
+    double timeToSimulate;
     // Wenn timeToSimulate über 1s Echtzeit (Simulationszeit abhängig von simSpeed) beträgt, "hinkt" die Simulation hinterher
     double realTimeThreshold = 1;
     double timeSinceStart;
     long timeLastLoop;
     Physicable worldSimStart;
     List<WorldEdit> worldEdits;
-    CompletableFuture<Physicable> braveNewWorld;
+    // Simuliert im Hintergrund ab simWorld (Welt, von der der Thread ausgeht), simTime ist die seit simWorld simulierte Zeit
+    SimulationThread simThread;
+    Physicable simWorld;
+    double simTime;
     Map<Long, Entity> entities;
     Map<Long, Entity> entitiesSimStart;
     long minId = Shape.NO_ID;
@@ -187,6 +185,7 @@ public class SimularthurGUI extends PApplet {
         boxSide.disableStyle();
 
         resetColors();
+        simThread = new SimulationThread();
         resetWorld();
         resetView(world.getSize());
 
@@ -234,7 +233,7 @@ public class SimularthurGUI extends PApplet {
                 m3, 0, indent).setFont("Monospaced");
         Label timeInfo3 = new Label(fs3,
                 () -> (timeToSimulate < realTimeThreshold ? stringRes("realTime") : stringRes("noRealTime"))
-                    + (braveNewWorld != null ? " ("+stringRes("running").toLowerCase()+")" : ""),
+                    + (simThread.isBusy() ? " ("+stringRes("running").toLowerCase()+")" : ""),
                 5, 0, indent).setFont("Monospaced");
         timeInfo3.color = () -> Colors.successError(timeToSimulate < realTimeThreshold, theme);
         lbRealTime = timeInfo3;
@@ -542,7 +541,7 @@ public class SimularthurGUI extends PApplet {
                     double r = (double) target.getTypeData()[0];
                     try {
                         newId = manipulateSphere(entities.get(currEnt), (Vector3D) o[0], (Vector3D) o[1], (Vector3D) o[2],
-                                (boolean) o[3], r, calcSphereDensity(r, (double) o[4]), (double) o[5]);
+                                (boolean) o[3], r, Templates.calcSphereDensity(r, (double) o[4]), (double) o[5]);
                     } catch (Exception e) {
                         newId = Shape.NO_ID;
                     }
@@ -608,7 +607,7 @@ public class SimularthurGUI extends PApplet {
                 if (s1.getPos().subtract(s2.getPos()).equals(vel)) {tfV.error=true; return;}
                 vel = vel.crossProduct(s1.getPos().subtract(s2.getPos()))
                         .normalize()
-                        .scalarMultiply(calcCircularOrbitVel(Vector3D.distance(s1.getPos(), s2.getPos()), s2.getMass()))
+                        .scalarMultiply(Templates.calcCircularOrbitVel(Vector3D.distance(s1.getPos(), s2.getPos()), s2.getMass()))
                         .scalarMultiply(factor);
                 long newId = manipulateSphere(entities.get(ids[0]), s1.getPos(), vel, s1.getSelfAcc(), true, (double)s1.getTypeData()[0], s1.getDensity(), s1.getBounciness());
                 if (newId != Shape.NO_ID) {
@@ -692,7 +691,7 @@ public class SimularthurGUI extends PApplet {
                 Spawnable s = world
                         .createSpawnableAt(rp.checked ? world.randomPos(radius) : pos)
                         .withVelocityAndAccel(vel, acc)
-                        .ofTypeSphere(radius, useM.checked ? calcSphereDensity(radius, mass) : density, bounciness);
+                        .ofTypeSphere(radius, useM.checked ? Templates.calcSphereDensity(radius, mass) : density, bounciness);
                 worldEdits.add(new WorldSpawn(s, color));
                 spawn.success = stdSuccess;
             };
@@ -859,11 +858,16 @@ public class SimularthurGUI extends PApplet {
     }
 
     void copyWithUpdateFreq(double updateFreq) {
-        if (braveNewWorld != null || this.updateFreq == updateFreq)
+        if (this.updateFreq == updateFreq)
             return;
         Physicable w0 = World.create(updateFreq, world.getSize())
                 .setGravity(world.getGravity())
-                .setAirDensity(world.getAirDensity());
+                .setAirDensity(world.getAirDensity())
+                .setBroadPhase(world.getBroadPhase())
+                .setGravitySolver(world.getGravitySolver())
+                .setStepControl(world.getStepControl())
+                .setIntegrator(world.getIntegrator())
+                .setSleepPolicy(world.getSleepPolicy());
         world = w0.spawn(world.getEntities());
         this.updateFreq = updateFreq;
         // Einstellungen vor Start?
@@ -875,11 +879,16 @@ public class SimularthurGUI extends PApplet {
     }
 
     void copyWithSize(Vector3D size) {
-        if (braveNewWorld != null || world.getSize().equals(size))
+        if (world.getSize().equals(size))
             return;
         Physicable w0 = World.create(updateFreq, size)
                 .setGravity(world.getGravity())
-                .setAirDensity(world.getAirDensity());
+                .setAirDensity(world.getAirDensity())
+                .setBroadPhase(world.getBroadPhase())
+                .setGravitySolver(world.getGravitySolver())
+                .setStepControl(world.getStepControl())
+                .setIntegrator(world.getIntegrator())
+                .setSleepPolicy(world.getSleepPolicy());
         Spawnable[] inNewRoom = Arrays.stream(world.getEntities())
                 .filter(e -> V3.compareComponents(e.getPos(), size, (a,b) -> a >= 0 && a < b))
                 .toArray(Spawnable[]::new);
@@ -899,8 +908,7 @@ public class SimularthurGUI extends PApplet {
             entities = entitiesSimStart;
             updateFreq = updateFreqSimStart;
         }));
-        if (braveNewWorld == null)
-            applyWorldEdits();
+        applyWorldEdits();
     }
 
     void resetSimulatedTime() {
@@ -980,27 +988,6 @@ public class SimularthurGUI extends PApplet {
         return color;
     }
 
-    double calcSphereDensity(double radius, double mass) {
-        // m = dens * 4/3 * PI * r³
-        // dens = m * 3/4 / PI / r³
-        return mass * 3.0/4.0 / PI / radius/radius/radius;
-    }
-
-    /**
-     * Berechnet Bahngeschwindigkeit (v) für einen Körper (m1),
-     * der eine Kreisbahn um ein massereiches Objekt (m2) fliegen soll
-     * @param distance Abstand der beiden Massen
-     * @param centerMass Masse des umkreisten Objekts (m2)
-     * @return Betrag der Bahngeschwindigkeit
-     */
-    double calcCircularOrbitVel(double distance, double centerMass) {
-        // Zentripetalkraft: Fz = m1 * v² / r
-        // Gravitationskraft: Fg = G * m1 * m2 / r²
-        // Fz = Fg
-        // v = sqrt(G * m2 / r)
-        return Math.sqrt(World.GRAVITY_CONSTANT * centerMass / distance);
-    }
-
     void update() {
         float factor = moveSpeedFactor / frameRate;
 //        PVector mv = PVector.sub(camCenter, camEye).normalize().mult(factor);
@@ -1013,23 +1000,22 @@ public class SimularthurGUI extends PApplet {
 
         minId();
 
-        // Ergebnis der asynchronen Berechnung?
-        if (braveNewWorld != null && braveNewWorld.isDone()) {
-            try {
-                if (!braveNewWorld.isCancelled()) {
-                    world = braveNewWorld.get();
-                    timeToSimulate = Math.max(timeToSimulate - currentTimeDelta, 0);
-                    timeSinceStart += currentTimeDelta;
-                    currentTimeDelta = 0;
-                }
-            } catch (InterruptedException | ExecutionException ignored) {
-            }
-            braveNewWorld = null;
-        }
-        // Änderungen aus Liste anwenden, während keine asynchrone Änderung läuft
-        if (braveNewWorld == null) {
-            if (applyWorldEdits())
-                currentPane.runningUpdate();
+        // Welt außerhalb des Simulations-Threads geändert (z.B. Größe)? Dann ab dieser Welt weiterrechnen
+        if (world != simWorld)
+            restartSim();
+        // Neuester Abschnitt des Simulations-Threads (wartet nicht, ältere Abschnitte wurden übersprungen)
+        SimulationThread.Frame frame = simThread.poll();
+        if (frame != null) {
+            double delta = frame.time - simTime;
+            world = simWorld = frame.world;
+            simTime = frame.time;
+            timeToSimulate = Math.max(timeToSimulate - delta, 0);
+            timeSinceStart += delta;
+        }
+        // Änderungen aus Liste anwenden, der Thread rechnet danach ab der geänderten Welt
+        if (applyWorldEdits()) {
+            restartSim();
+            currentPane.runningUpdate();
         }
         // Zeit fortschreiten
         if (running) {
@@ -1037,15 +1023,11 @@ public class SimularthurGUI extends PApplet {
             long t = System.nanoTime();
             timeToSimulate += (t - timeLastLoop) / 1.0e9 * simSpeed;
             timeLastLoop = t;
-            // Nächste Berechnung asynchron starten?
-            if (braveNewWorld == null) {
-                currentTimeDelta = Math.min(timeToSimulate, simSpeed/2);  // Maximaler Sim-Schritt: 0.5 Echtzeit-Sekunden
-                braveNewWorld = new CompletableFuture<>();
-                Executors.newCachedThreadPool().submit(() -> {
-                    braveNewWorld.complete(world.simulateTime(currentTimeDelta));
-                });
-            }
+            // Der Thread rechnet höchstens 0.5 Echtzeit-Sekunden über die angezeigte Welt hinaus
+            simThread.request(simTime + Math.min(timeToSimulate, simSpeed/2));
         } else {
+            // Angehalten: laufenden Abschnitt abbrechen, die angezeigte Welt bleibt stehen
+            simThread.request(simTime);
             timeLastLoop = System.nanoTime();
             if (timeToSimulate >= realTimeThreshold) {
                 // Restzeit, die simuliert werden soll, zurücksetzen, um Aufstauen zu vermeiden
@@ -1075,10 +1057,21 @@ public class SimularthurGUI extends PApplet {
     void cancelSim() {
         running = false;
         timeToSimulate = 0;
-        if (braveNewWorld != null) {
-            braveNewWorld.cancel(true);
-        }
-        braveNewWorld = null;
+        // Die Simulation endet nach dem laufenden Zwischenschritt, der Abschnitt wird verworfen
+        restartSim();
+    }
+
+    void restartSim() {
+        simThread.restart(world);
+        simWorld = world;
+        simTime = 0;
+    }
+
+    @Override
+    public void dispose() {
+        if (simThread != null)
+            simThread.close();
+        super.dispose();
     }
 
     void setSimSpeed(double d) {
@@ -1945,34 +1938,18 @@ public class SimularthurGUI extends PApplet {
     //
     Physicable templatePoolTable() { return templatePoolTable(false); }
     Physicable templatePoolTable(boolean randomStartSpeed) {
-        // Billard
-        // Standard: neun Fuß Tisch (254cm x 127cm), Kugeln: 57.2mm Durchmesser, 170g
-        double radius = 0.5 * 57.2e-3, bounciness = 0.95;
-        final Physicable w1 = World.create(updateFreq, new Vector3D(2.54, radius*2.1, 1.27))
-                // Imitieren von Gleitreibung/Rollreibung
-                .setAirDensity(1200);
         // Tischfarben
         int green = color(0,210,0), brown = color(110, 39, 1);
         boxSideColors = new int[]{brown,brown,green,brown,brown,brown};
         boxSideVisible = new int[]{1,1,1,-1,1,1};
         // Startgeschwindigkeit variiert
         Random r = new Random();
-        Vector3D startVel = randomStartSpeed ? new Vector3D(r.nextDouble(11,17),0,r.nextDouble(-0.2,0.2)) : new Vector3D(14.34,0,-0.13);
-        Spawnable whiteBall = w1.createSpawnableAt(new Vector3D(2.54/5, radius+0.001, 1.27/2))
-                .withVelocityAndAccel(startVel, Vector3D.ZERO)
-                .ofTypeSphere(radius, calcSphereDensity(radius, 0.17), bounciness);
-        final Physicable w2 = w1.spawn(whiteBall);
-        // Kugeldreieck
-        Vector3D firstPos = new Vector3D(2.54*0.75, radius+0.001, 1.27/2);
-        int rows = 5;
-        Spawnable[] balls = IntStream.range(0, rows).boxed()
-                .flatMap(i -> IntStream.rangeClosed(0, i).mapToObj(j ->
-                        firstPos.add(radius, new Vector3D(Math.sqrt(3) * i, 0, 2*j-i))))
-                .map(x -> w2.createSpawnableAt(x).ofTypeSphere(radius, calcSphereDensity(radius, 0.17), bounciness))
-                .toArray(Spawnable[]::new);
-        Physicable w3 = w2.spawn(balls);
-        Arrays.stream(w3.getEntities()).forEach(e -> entities.put(e.getId(), new Entity(e, color(random(80,180)))));
-        entities.get(whiteBall.getId()).color = color(255);
+        Vector3D startVel = randomStartSpeed ? new Vector3D(r.nextDouble(11,17),0,r.nextDouble(-0.2,0.2)) : Templates.POOL_BREAK_VELOCITY;
+        Physicable w = Templates.poolTable(updateFreq, startVel);
+        Spawnable[] balls = w.getEntities();
+        Arrays.stream(balls).forEach(e -> entities.put(e.getId(), new Entity(e, color(random(80,180)))));
+        // Die weiße Kugel ist der erste Körper, danach folgt das Kugeldreieck
+        entities.get(balls[0].getId()).color = color(255);
         int[] c = {
                 0xffffd700,
                 0xff0000ff,0xff0000ff,
@@ -1980,104 +1957,35 @@ public class SimularthurGUI extends PApplet {
                 0xff4b0082,0xffff4500,0xffff4500,0xff4b0082,
                 0xff228b22,0xff800000,0xffffd500,0xff800000,0xff228b22,
         };
-        for (int i = 0; i < balls.length; i++)
-            entities.get(balls[i].getId()).color = c[i];
-        return w3;
+        for (int i = 0; i < c.length; i++)
+            entities.get(balls[i+1].getId()).color = c[i];
+        return w;
     }
 
     Physicable templateAirResistance() { return templateAirResistance(1.2); }
     Physicable templateAirResistance(double drag) {
-        Physicable w0 = World.create(updateFreq, new Vector3D(5, 10, 5))
-                .setGravity(new Vector3D(0, -9.81, 0))
-                .setAirDensity(drag);
-        Spawnable[] shapes = {
-                w0.createSpawnableAt(new Vector3D(3, 8, 3))
-                        .ofTypeSphere(1.5, calcSphereDensity(1.5, 1), 1),
-                w0.createSpawnableAt(new Vector3D(1, 6.55, 1))
-                        //.withVelocityAndAccel(new Vector3D(0,-1,0), Vector3D.ZERO)
-                        .ofTypeSphere(0.05, calcSphereDensity(0.05, 1), 1)
-        };
-        w0 = w0.spawn(shapes);
-        int[] c = {0xFFffff55, 0xFFff55ff};
-        entities.put(shapes[0].getId(), new Entity(shapes[0], c[0]));
-        entities.put(shapes[1].getId(), new Entity(shapes[1], c[1]));
-        return w0;
+        return colorEntities(Templates.airResistance(updateFreq, drag), 0xFFffff55, 0xFFff55ff);
     }
 
     Physicable templateStarWithOrbit() { return templateStarWithOrbit(0); }
     Physicable templateStarWithOrbit(double startVelDeviation) {
-        double m = 3e9;
-        double r = 0.2;
-        Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1));
         boxSideColors = IntStream.generate(() -> 0xFF0c1445).limit(6).toArray();
-        Spawnable[] stars = {
-                w0.createSpawnableAt(new Vector3D(0.5,0.5,0.5))
-                        .immovable()
-                        .ofTypeSphere(0.1, calcSphereDensity(0.1, m)),
-                w0.createSpawnableAt(new Vector3D(0.5 - r,0.5,0.5))
-                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(r, m)+startVelDeviation), Vector3D.ZERO)
-                        .ofTypeSphere(0.03, calcSphereDensity(0.03, 1), 1)};
-        w0 = w0.spawn(stars);
-        entities.put(stars[0].getId(), new Entity(stars[0], color(249, 215, 28)));
-        entities.put(stars[1].getId(), new Entity(stars[1], color(40, 122, 184)));
-        return w0;
+        return colorEntities(Templates.starWithOrbit(updateFreq, startVelDeviation), color(249, 215, 28), color(40, 122, 184));
     }
 
     Physicable templateStarWithOrbitAndMoon() {
-        double m = 3e10;
-        double m2 = 3e9;
-        double r = 0.06;
-        double r2 = 0.025;
-        double r3 = 0.01;
-        double d = 0.25;
-        double d2 = 0.05;
-        Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1));
         boxSideColors = IntStream.generate(() -> 0xFF0c1445).limit(6).toArray();
-        Spawnable[] stars = {
-                w0.createSpawnableAt(new Vector3D(0.5,0.5,0.5))
-                        .immovable()
-                        .ofTypeSphere(r, calcSphereDensity(r, m)),
-                w0.createSpawnableAt(new Vector3D(0.5 - d,0.5,0.5))
-                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(d, m)), Vector3D.ZERO)
-                        .ofTypeSphere(r2, calcSphereDensity(r2, m2), 1),
-                w0.createSpawnableAt(new Vector3D(0.5 - d - d2,0.5,0.5))
-                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(d, m) - calcCircularOrbitVel(d2, m2)), Vector3D.ZERO)
-                        .ofTypeSphere(r3, calcSphereDensity(r3, 1), 1)};
-        w0 = w0.spawn(stars);
-        entities.put(stars[0].getId(), new Entity(stars[0], color(249, 215, 28)));
-        entities.put(stars[1].getId(), new Entity(stars[1], color(40, 122, 184)));
-        entities.put(stars[2].getId(), new Entity(stars[2], color(244, 242, 205)));
-        return w0;
+        return colorEntities(Templates.starWithOrbitAndMoon(updateFreq), color(249, 215, 28), color(40, 122, 184), color(244, 242, 205));
     }
 
     Physicable templateSolarSystem() {
-        double mSun = 1.989e30;
         double rSun = 6.957e8;
-        double dEarth = 1.5e11;
-        double mEarth = 5.972e24;
-        double rEarth = 6.371e6;
-        double mMoon = 7.35e22;
-        double dMoon = 3.844e8;
-        double rMoon = 1.74e6;
         // Schnellere Simulation setzen
-        updateFreq = 0.005;
+        updateFreq = Templates.SOLAR_SYSTEM_UPDATE_FREQ;
         setSimSpeed(5e5);
-        Physicable w0 = World.create(updateFreq, new Vector3D(4e11, 2e11, 4e11));
         boxSideColors = IntStream.generate(() -> 0xFF0c1445).limit(6).toArray();
-        Spawnable[] stars = {
-                // Sonne
-                w0.createSpawnableAt(w0.getSize().scalarMultiply(0.5))
-                        .immovable()
-                        .ofTypeSphere(rSun, calcSphereDensity(rSun, mSun)),
-                // Erde
-                w0.createSpawnableAt(w0.getSize().scalarMultiply(0.5).add(new Vector3D(dEarth,0,0)))
-                        .withVelocityAndAccel(new Vector3D(0,0, -calcCircularOrbitVel(dEarth, mSun)), Vector3D.ZERO)
-                        .ofTypeSphere(rEarth, calcSphereDensity(rEarth, mEarth), 1),
-                // Mond
-                w0.createSpawnableAt(w0.getSize().scalarMultiply(0.5).add(new Vector3D(dEarth + dMoon,0,0)))
-                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(dMoon, mEarth)-calcCircularOrbitVel(dEarth, mSun)), Vector3D.ZERO)
-                        .ofTypeSphere(rMoon, calcSphereDensity(rMoon, mMoon), 1)};
-        w0 = w0.spawn(stars);
+        Physicable w0 = Templates.solarSystem(updateFreq);
+        Spawnable[] stars = w0.getEntities();
         entities.put(stars[0].getId(), new Entity(stars[0], color(249, 215, 28)).setR(rSun*20));
         entities.put(stars[1].getId(), new Entity(stars[1], color(40, 122, 184)).setR(rSun/10));
         entities.put(stars[2].getId(), new Entity(stars[2], color(254, 252, 215)).setR(rSun/10));
@@ -2085,28 +1993,13 @@ public class SimularthurGUI extends PApplet {
     }
 
     Physicable templateGravityBouncing() {
-        final Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1))
-                .setGravity(new Vector3D(0, -9.81, 0));
-        Physicable w1 = DoubleStream.iterate(0.1, d -> d < 0.9, d -> d + 0.1)
-                .mapToObj(d -> w0.spawn(w0.createSpawnableAt(new Vector3D(d, 0.5+0.4*d, 0.3)).ofTypeSphere(0.04, 1, 1)))
-                .reduce(w0, (a, b) -> a.spawn(b.getEntities()));
-//        w1 = DoubleStream.iterate(0.1, d -> d < 0.9, d -> d + 0.1)
-//                .mapToObj(d -> world.spawn(world.at(new Vector3D(d, 0.5+0.4*(1-d), 0.65)).newSphere(0.04, 1, 1)))
-//                .reduce(w1, (a, b) -> a.spawn(b.getEntities()));
+        Physicable w1 = Templates.gravityBouncing(updateFreq);
         Arrays.stream(w1.getEntities()).forEach(e -> entities.put(e.getId(), new Entity(e, color(random(100,200),0,random(200,250)))));
         return w1;
     }
 
     Physicable templateNewtonPendel() {
-        // "Newton-Pendel" (Gute Demonstration von Genauigkeitsversprechen) (sehr lustig mit Gravitation)
-        Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1));
-        Physicable w1 = w0.spawn(w0.createSpawnableAt(new Vector3D(0.1,0.5,0.2))
-                .withVelocityAndAccel(new Vector3D(1,0,0), Vector3D.ZERO)
-                .ofTypeSphere(0.05, 1, 1));
-        Physicable w2 = DoubleStream.iterate(0.4, d -> d < 0.7, d -> d + 0.1)
-                .mapToObj(d -> w1.spawn(w1.createSpawnableAt(new Vector3D(d, 0.5, 0.2))
-                        .ofTypeSphere(0.05, 1, 1)))
-                .reduce(w1, (a, b) -> a.spawn(b.getEntities()));
+        Physicable w2 = Templates.newtonPendulum(updateFreq);
         Arrays.stream(w2.getEntities()).forEach(e -> entities.put(e.getId(), new Entity(e, color(random(200,250),random(100,150),0))));
         return w2;
     }
@@ -2118,31 +2011,20 @@ public class SimularthurGUI extends PApplet {
             sphereDetail = max(sd, 6);
             sphereDetail(sphereDetail);
         }
-        Physicable w0 = World.create(updateFreq, new Vector3D(1,1,1))
-                .setGravity(new Vector3D(0, -9.81, 0))
-                .setAirDensity(1.2);
-        Physicable w1 = w0.spawn(Stream.generate(() -> w0.randomPos(0.4).add(new Vector3D(0,0.3,0)))
-                .limit(n)
-                .map(p -> w0.createSpawnableAt(p).ofTypeSphere(0.02, 1, 0.95))
-                .toList().toArray(new Spawnable[0]));
+        Physicable w1 = Templates.sphereCluster(updateFreq, n, new Random());
         Arrays.stream(w1.getEntities()).forEach(e -> entities.put(e.getId(), new Entity(e, color(random(220,250),random(80,160),0))));
         return w1;
     }
 
     Physicable templateLoggingScenario() {
-        Physicable w0 = World.create(1, new Vector3D(10, 10, 10))
-                .setGravity(new Vector3D(0, -1, 0));
-        Spawnable[] shapes = {
-                w0.createSpawnableAt(new Vector3D(5, 3, 2))
-                        .withVelocityAndAccel(new Vector3D(1, 0, 0), Vector3D.ZERO)
-                        .ofTypeSphere(1, 1, 1),
-                w0.createSpawnableAt(new Vector3D(8, 2.5, 2))
-                        .immovable()
-                        .ofTypeSphere(1, 1)
-        };
-        w0 = w0.spawn(shapes);
-        entities.put(shapes[0].getId(), new Entity(shapes[0], color(230, 10, 190)));
-        entities.put(shapes[1].getId(), new Entity(shapes[1], color(255)));
-        return w0;
+        return colorEntities(Templates.loggingScenario(), color(230, 10, 190), color(255));
+    }
+
+    /** Weist den Körpern einer Vorlage der Reihe nach feste Farben zu */
+    Physicable colorEntities(Physicable w, int... colors) {
+        Spawnable[] shapes = w.getEntities();
+        for (int i = 0; i < colors.length; i++)
+            entities.put(shapes[i].getId(), new Entity(shapes[i], colors[i]));
+        return w;
     }
 }
@@ -0,0 +1,132 @@
+package in.freye.physics.il;
+
+import in.freye.physics.al.Physicable;
+import in.freye.physics.al.SimulationSession;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Langlebiger Thread, der die Welt der GUI simuliert, während gezeichnet wird.
+ * Ein Auftrag (restart()) beginnt eine SimulationSession ab einer Welt, request() legt fest, wie viel Zeit seit
+ * Beginn des Auftrags simuliert werden soll. Bis dahin rechnet der Thread ohne Pause in Abschnitten weiter, jeder
+ * Abschnitt endet spätestens nach CHUNK_NANOS Echtzeit. Nach jedem Abschnitt wird die Momentaufnahme in den
+ * hinteren Puffer gelegt, die GUI holt mit poll() den neuesten Abschnitt ab (der vordere Puffer ist die angezeigte
+ * Welt). Die Übergabe ist lock-frei, nicht abgeholte Abschnitte werden vom nächsten überschrieben.
+ * Sinkt die gewünschte Zeit (z.B. beim Anhalten), wird der laufende Abschnitt abgebrochen und nicht mehr übergeben.
+ */
+final class SimulationThread {
+    /** Echtzeit, nach der ein Abschnitt spätestens übergeben wird (Nanosekunden) */
+    static final long CHUNK_NANOS = 50_000_000L;
+
+    /**
+     * Fertiger Abschnitt: world ist die Welt nach time Sekunden seit Beginn des Auftrags generation,
+     * simuliert für die gewünschte Zeit target
+     */
+    static final class Frame {
+        final long generation;
+        final Physicable world;
+        final double time, target;
+
+        Frame(long generation, Physicable world, double time, double target) {
+            this.generation = generation;
+            this.world = world;
+            this.time = time;
+            this.target = target;
+        }
+    }
+
+    private final Thread thread;
+    /** Aktueller Auftrag: Ausgangswelt zur Zeit 0 */
+    private final AtomicReference<Frame> job = new AtomicReference<>();
+    /** Hinterer Puffer (null: kein neuer Abschnitt) */
+    private final AtomicReference<Frame> back = new AtomicReference<>();
+    /** Gewünschte simulierte Zeit seit Beginn des Auftrags */
+    private volatile double target;
+    private volatile boolean busy, closed;
+    /** Nur von der GUI verwendet */
+    private long generation;
+
+    SimulationThread() {
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Beginnt einen neuen Auftrag ab world, der laufende Abschnitt wird nach dem aktuellen Zwischenschritt abgebrochen
+     * und wie alle nicht abgeholten Abschnitte verworfen
+     */
+    void restart(Physicable world) {
+        // target vor job zurücksetzen, der Thread liest job zuerst
+        target = 0;
+        job.set(new Frame(++generation, world, 0, 0));
+        back.set(null);
+        thread.interrupt();
+    }
+
+    /**
+     * Simuliert bis time Sekunden seit Beginn des Auftrags. Ist time kleiner als zuvor, wird der laufende Abschnitt
+     * nach dem aktuellen Zwischenschritt abgebrochen, Abschnitte für die vorherige Zeit gibt poll() nicht mehr zurück.
+     */
+    void request(double time) {
+        double previous = target;
+        target = time;
+        if (time < previous) thread.interrupt();
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Gibt den neuesten fertigen Abschnitt des aktuellen Auftrags zurück, ohne zu warten (null: keiner).
+     * Abschnitte, die für eine größere als die aktuell gewünschte Zeit simuliert wurden, werden verworfen.
+     */
+    Frame poll() {
+        Frame frame = back.getAndSet(null);
+        return frame != null && frame.generation == generation && frame.target <= target ? frame : null;
+    }
+
+    /** Ob gerade ein Abschnitt simuliert wird */
+    boolean isBusy() {
+        return busy;
+    }
+
+    /** Beendet den Thread */
+    void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    private void run() {
+        Frame current = null;
+        SimulationSession session = null;
+        while (!closed) {
+            // Eine Unterbrechung (neuer Auftrag) gilt nur für den laufenden Abschnitt
+            Thread.interrupted();
+            Frame j = job.get();
+            double goal = target;
+            // Ein fehlgeschlagener Auftrag (session == null) wird nicht weiter simuliert
+            double remaining = j == null || j == current && session == null ? 0 : goal - (j == current ? session.getTime() : 0);
+            if (remaining <= 0) {
+                LockSupport.park(this);
+                continue;
+            }
+            busy = true;
+            try {
+                if (j != current) {
+                    current = j;
+                    session = j.world.startSession();
+                }
+                session.simulateTimeUntil(remaining, System.nanoTime() + CHUNK_NANOS);
+                // Während des Abschnitts begonnene Aufträge und gesunkene Zeiten verwerfen ihn
+                if (job.get() == current && target >= goal)
+                    back.set(new Frame(current.generation, session.snapshot(), session.getTime(), goal));
+            } catch (RuntimeException | AssertionError e) {
+                // Die GUI behält die letzte Welt
+                e.printStackTrace();
+                session = null;
+            } finally {
+                busy = false;
+            }
+        }
+    }
+}
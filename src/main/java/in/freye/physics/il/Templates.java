@@ -0,0 +1,200 @@
+package in.freye.physics.il;
+
+import in.freye.physics.al.Integrator;
+import in.freye.physics.al.Physicable;
+import in.freye.physics.al.Spawnable;
+import in.freye.physics.al.World;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.Random;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Vordefinierte Beispiel-Szenarien (nur die Physik, ohne Darstellung).
+ * Werden von der GUI geladen und außerdem für Benchmarks und Stapelläufe verwendet.
+ * Die Reihenfolge der Körper in getEntities() entspricht der Reihenfolge, in der sie hier erzeugt werden.
+ */
+public final class Templates {
+
+    /** Startgeschwindigkeit der weißen Kugel beim Billard (Anstoß) */
+    public static final Vector3D POOL_BREAK_VELOCITY = new Vector3D(14.34, 0, -0.13);
+    /** Simulationsrate des Sonnensystems (ein Zwischenschritt alle 10000s, mit Integrator.YOSHIDA4) */
+    public static final double SOLAR_SYSTEM_UPDATE_FREQ = 0.0001;
+
+    private Templates() {}
+
+    /** Rechnet von Masse und Radius auf die Dichte einer Kugel zurück */
+    public static double calcSphereDensity(double radius, double mass) {
+        // m = dens * 4/3 * PI * r³
+        // dens = m * 3/4 / PI / r³
+        return mass * 3.0/4.0 / Math.PI / radius/radius/radius;
+    }
+
+    /**
+     * Berechnet Bahngeschwindigkeit (v) für einen Körper (m1),
+     * der eine Kreisbahn um ein massereiches Objekt (m2) fliegen soll
+     * @param distance Abstand der beiden Massen
+     * @param centerMass Masse des umkreisten Objekts (m2)
+     * @return Betrag der Bahngeschwindigkeit
+     */
+    public static double calcCircularOrbitVel(double distance, double centerMass) {
+        // Zentripetalkraft: Fz = m1 * v² / r
+        // Gravitationskraft: Fg = G * m1 * m2 / r²
+        // Fz = Fg
+        // v = sqrt(G * m2 / r)
+        return Math.sqrt(World.GRAVITY_CONSTANT * centerMass / distance);
+    }
+
+    /**
+     * Billard
+     * Standard: neun Fuß Tisch (254cm x 127cm), Kugeln: 57.2mm Durchmesser, 170g
+     * @param startVel Startgeschwindigkeit der weißen Kugel (erster Körper), danach folgt das Kugeldreieck
+     */
+    public static Physicable poolTable(double updateFreq, Vector3D startVel) {
+        double radius = 0.5 * 57.2e-3, bounciness = 0.95;
+        final Physicable w1 = World.create(updateFreq, new Vector3D(2.54, radius*2.1, 1.27))
+                // Imitieren von Gleitreibung/Rollreibung
+                .setAirDensity(1200);
+        Spawnable whiteBall = w1.createSpawnableAt(new Vector3D(2.54/5, radius+0.001, 1.27/2))
+                .withVelocityAndAccel(startVel, Vector3D.ZERO)
+                .ofTypeSphere(radius, calcSphereDensity(radius, 0.17), bounciness);
+        final Physicable w2 = w1.spawn(whiteBall);
+        // Kugeldreieck
+        Vector3D firstPos = new Vector3D(2.54*0.75, radius+0.001, 1.27/2);
+        int rows = 5;
+        Spawnable[] balls = IntStream.range(0, rows).boxed()
+                .flatMap(i -> IntStream.rangeClosed(0, i).mapToObj(j ->
+                        firstPos.add(radius, new Vector3D(Math.sqrt(3) * i, 0, 2*j-i))))
+                .map(x -> w2.createSpawnableAt(x).ofTypeSphere(radius, calcSphereDensity(radius, 0.17), bounciness))
+                .toArray(Spawnable[]::new);
+        return w2.spawn(balls);
+    }
+
+    /** Zwei unterschiedlich große Kugeln fallen mit Luftwiderstand */
+    public static Physicable airResistance(double updateFreq, double drag) {
+        Physicable w0 = World.create(updateFreq, new Vector3D(5, 10, 5))
+                .setGravity(new Vector3D(0, -9.81, 0))
+                .setAirDensity(drag);
+        return w0.spawn(
+                w0.createSpawnableAt(new Vector3D(3, 8, 3))
+                        .ofTypeSphere(1.5, calcSphereDensity(1.5, 1), 1),
+                w0.createSpawnableAt(new Vector3D(1, 6.55, 1))
+                        .ofTypeSphere(0.05, calcSphereDensity(0.05, 1), 1));
+    }
+
+    /**
+     * Ein Planet umkreist einen unbeweglichen Stern (symplektisch integriert, die Bahn bleibt geschlossen)
+     * @param startVelDeviation Abweichung von der Geschwindigkeit für eine Kreisbahn
+     */
+    public static Physicable starWithOrbit(double updateFreq, double startVelDeviation) {
+        double m = 3e9;
+        double r = 0.2;
+        Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1), Integrator.YOSHIDA4);
+        return w0.spawn(
+                w0.createSpawnableAt(new Vector3D(0.5,0.5,0.5))
+                        .immovable()
+                        .ofTypeSphere(0.1, calcSphereDensity(0.1, m)),
+                w0.createSpawnableAt(new Vector3D(0.5 - r,0.5,0.5))
+                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(r, m)+startVelDeviation), Vector3D.ZERO)
+                        .ofTypeSphere(0.03, calcSphereDensity(0.03, 1), 1));
+    }
+
+    /** Ein Planet mit Mond umkreist einen unbeweglichen Stern (symplektisch integriert) */
+    public static Physicable starWithOrbitAndMoon(double updateFreq) {
+        double m = 3e10;
+        double m2 = 3e9;
+        double r = 0.06;
+        double r2 = 0.025;
+        double r3 = 0.01;
+        double d = 0.25;
+        double d2 = 0.05;
+        Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1), Integrator.YOSHIDA4);
+        return w0.spawn(
+                w0.createSpawnableAt(new Vector3D(0.5,0.5,0.5))
+                        .immovable()
+                        .ofTypeSphere(r, calcSphereDensity(r, m)),
+                w0.createSpawnableAt(new Vector3D(0.5 - d,0.5,0.5))
+                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(d, m)), Vector3D.ZERO)
+                        .ofTypeSphere(r2, calcSphereDensity(r2, m2), 1),
+                w0.createSpawnableAt(new Vector3D(0.5 - d - d2,0.5,0.5))
+                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(d, m) - calcCircularOrbitVel(d2, m2)), Vector3D.ZERO)
+                        .ofTypeSphere(r3, calcSphereDensity(r3, 1), 1));
+    }
+
+    /** Sonne, Erde und Mond in realen Größenordnungen (sinnvoll mit SOLAR_SYSTEM_UPDATE_FREQ) */
+    public static Physicable solarSystem(double updateFreq) {
+        double mSun = 1.989e30;
+        double rSun = 6.957e8;
+        double dEarth = 1.5e11;
+        double mEarth = 5.972e24;
+        double rEarth = 6.371e6;
+        double mMoon = 7.35e22;
+        double dMoon = 3.844e8;
+        double rMoon = 1.74e6;
+        Physicable w0 = World.create(updateFreq, new Vector3D(4e11, 2e11, 4e11), Integrator.YOSHIDA4);
+        return w0.spawn(
+                // Sonne
+                w0.createSpawnableAt(w0.getSize().scalarMultiply(0.5))
+                        .immovable()
+                        .ofTypeSphere(rSun, calcSphereDensity(rSun, mSun)),
+                // Erde
+                w0.createSpawnableAt(w0.getSize().scalarMultiply(0.5).add(new Vector3D(dEarth,0,0)))
+                        .withVelocityAndAccel(new Vector3D(0,0, -calcCircularOrbitVel(dEarth, mSun)), Vector3D.ZERO)
+                        .ofTypeSphere(rEarth, calcSphereDensity(rEarth, mEarth), 1),
+                // Mond
+                w0.createSpawnableAt(w0.getSize().scalarMultiply(0.5).add(new Vector3D(dEarth + dMoon,0,0)))
+                        .withVelocityAndAccel(new Vector3D(0,0, calcCircularOrbitVel(dMoon, mEarth)-calcCircularOrbitVel(dEarth, mSun)), Vector3D.ZERO)
+                        .ofTypeSphere(rMoon, calcSphereDensity(rMoon, mMoon), 1));
+    }
+
+    /** Acht Kugeln fallen aus unterschiedlicher Höhe auf den Boden */
+    public static Physicable gravityBouncing(double updateFreq) {
+        final Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1))
+                .setGravity(new Vector3D(0, -9.81, 0));
+        return w0.spawn(DoubleStream.iterate(0.1, d -> d < 0.9, d -> d + 0.1)
+                .mapToObj(d -> w0.createSpawnableAt(new Vector3D(d, 0.5+0.4*d, 0.3)).ofTypeSphere(0.04, 1, 1))
+                .toArray(Spawnable[]::new));
+    }
+
+    /** "Newton-Pendel" (Gute Demonstration von Genauigkeitsversprechen) (sehr lustig mit Gravitation) */
+    public static Physicable newtonPendulum(double updateFreq) {
+        Physicable w0 = World.create(updateFreq, new Vector3D(1, 1, 1));
+        Physicable w1 = w0.spawn(w0.createSpawnableAt(new Vector3D(0.1,0.5,0.2))
+                .withVelocityAndAccel(new Vector3D(1,0,0), Vector3D.ZERO)
+                .ofTypeSphere(0.05, 1, 1));
+        return w1.spawn(DoubleStream.iterate(0.4, d -> d < 0.7, d -> d + 0.1)
+                .mapToObj(d -> w1.createSpawnableAt(new Vector3D(d, 0.5, 0.2))
+                        .ofTypeSphere(0.05, 1, 1))
+                .toArray(Spawnable[]::new));
+    }
+
+    /**
+     * Kugelhaufen mit Luftwiderstand, der auf den Boden fällt
+     * @param n Anzahl der Kugeln
+     * @param random Zufallsquelle für die Startpositionen (mit festem Seed reproduzierbar)
+     */
+    public static Physicable sphereCluster(double updateFreq, int n, Random random) {
+        Physicable w0 = World.create(updateFreq, new Vector3D(1,1,1))
+                .setGravity(new Vector3D(0, -9.81, 0))
+                .setAirDensity(1.2);
+        // Zufällige Position mit mindestens 0.4m Abstand zu den Wänden, um 0.3m nach oben verschoben
+        return w0.spawn(IntStream.range(0, n)
+                .mapToObj(i -> new Vector3D(0.4 + 0.2 * random.nextDouble(), 0.7 + 0.2 * random.nextDouble(), 0.4 + 0.2 * random.nextDouble()))
+                .map(p -> w0.createSpawnableAt(p).ofTypeSphere(0.02, 1, 0.95))
+                .toArray(Spawnable[]::new));
+    }
+
+    /** Waagerechter Wurf mit Kollisionen, siehe LoggingScenario */
+    public static Physicable loggingScenario() {
+        Physicable w0 = World.create(1, new Vector3D(10, 10, 10))
+                .setGravity(new Vector3D(0, -1, 0));
+        return w0.spawn(
+                w0.createSpawnableAt(new Vector3D(5, 3, 2))
+                        .withVelocityAndAccel(new Vector3D(1, 0, 0), Vector3D.ZERO)
+                        .ofTypeSphere(1, 1, 1),
+                w0.createSpawnableAt(new Vector3D(8, 2.5, 2))
+                        .immovable()
+                        .ofTypeSphere(1, 1));
+    }
+}
@@ -0,0 +1,134 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet, dass ArrayWorld dieselben Ergebnisse wie World liefert.
+ * Beide Welten werden aus denselben Spawnable-Objekten aufgebaut und gleich lange simuliert.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ArrayWorldTest {
+
+    double tolerance;
+
+    /**
+     * Die Toleranz wird auf 1 Nanometer eingestellt,
+     * um Problemen mit der Floating-Point-Präzision vorzubeugen, da double-Werte verglichen werden.
+     */
+    @BeforeEach
+    void setup() {
+        tolerance = 1e-9;
+    }
+
+    void assertSameEntities(Physicable expected, Physicable actual) {
+        Helper.assertSameEntities(expected, actual, tolerance);
+    }
+
+    /**
+     * Baut in beiden Implementierungen dieselbe Welt auf
+     * @param scenario erhält eine leere Welt und gibt die Körper zurück, die eingefügt werden
+     */
+    Physicable[] createBoth(double updateFreq, Vector3D size, Vector3D gravity, double airDensity,
+                            BiFunction<Physicable, Random, Spawnable[]> scenario) {
+        Physicable w = World.create(updateFreq, size).setGravity(gravity).setAirDensity(airDensity);
+        Physicable a = ArrayWorld.create(updateFreq, size).setGravity(gravity).setAirDensity(airDensity);
+        Spawnable[] entities = scenario.apply(w, new Random(42));
+        return new Physicable[]{ w.spawn(entities), a.spawn(entities) };
+    }
+
+    /**
+     * Viele Kugeln fallen mit Luftwiderstand auf den Boden und kollidieren miteinander und mit den Wänden.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Kugelhaufen mit Kollisionen verhält sich identisch")
+    void sphereCluster() {
+        Physicable[] w = createBoth(100, new Vector3D(1, 1, 1), new Vector3D(0, -9.81, 0), 1.2,
+                (w0, r) -> IntStream.range(0, 60)
+                        .mapToObj(i -> w0.createSpawnableAt(new Vector3D(0.1 + 0.8 * r.nextDouble(), 0.3 + 0.6 * r.nextDouble(), 0.1 + 0.8 * r.nextDouble()))
+                                .withVelocityAndAccel(new Vector3D(r.nextDouble() - 0.5, 0, r.nextDouble() - 0.5), Vector3D.ZERO)
+                                .ofTypeSphere(0.05, 1, 0.95))
+                        .toArray(Spawnable[]::new));
+        assertSameEntities(w[0].simulateTime(2), w[1].simulateTime(2));
+    }
+
+    /**
+     * Eine Kugel kollidiert mit einem unbeweglichen Körper und wird von einem massereichen Körper angezogen.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Unbewegliche und massereiche Körper wirken identisch")
+    void immovableAndGravity() {
+        Physicable[] w = createBoth(60, new Vector3D(10, 10, 10), new Vector3D(0, -1, 0), 0,
+                (w0, r) -> new Spawnable[]{
+                        w0.createSpawnableAt(new Vector3D(5, 3, 2))
+                                .withVelocityAndAccel(new Vector3D(1, 0, 0), Vector3D.ZERO)
+                                .ofTypeSphere(1, 1, 1),
+                        w0.createSpawnableAt(new Vector3D(8, 2.5, 2))
+                                .immovable()
+                                .ofTypeSphere(1, 1),
+                        w0.createSpawnableAt(new Vector3D(5, 5, 7))
+                                .immovable()
+                                .ofTypeSphere(1, Helper.calcSphereDensity(1, 1e9)),
+                        w0.createSpawnableAt(new Vector3D(5, 5, 4))
+                                .withVelocityAndAccel(new Vector3D(0.1, 0, 0), Vector3D.ZERO)
+                                .ofTypeSphere(0.5, 1, 0.8)});
+        assertSameEntities(w[0].simulateTime(3), w[1].simulateTime(3));
+    }
+
+    /**
+     * Einfügen, Ersetzen und Löschen verhalten sich wie in World.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Manipulation der Körper verhält sich identisch")
+    void spawnAndReplace() {
+        Physicable[] w = createBoth(60, new Vector3D(10, 10, 10), Vector3D.ZERO, 0,
+                (w0, r) -> new Spawnable[]{
+                        w0.createSpawnableAt(new Vector3D(1, 1, 1)).ofTypeSphere(0.5, 1, 1),
+                        // gleiche Position, wird nicht eingefügt
+                        w0.createSpawnableAt(new Vector3D(1, 1, 1)).ofTypeSphere(0.2, 1, 1),
+                        w0.createSpawnableAt(new Vector3D(3, 3, 3)).ofTypeSphere(0.5, 1, 1),
+                        w0.createSpawnableAt(new Vector3D(5, 5, 5)).ofTypeSphere(0.5, 1, 1)});
+        long first = w[0].getEntities()[0].getId(), second = w[0].getEntities()[1].getId();
+        Spawnable moved = w[0].createSpawnableAt(new Vector3D(7, 7, 7)).ofTypeSphere(1, 1, 1);
+        assertAll(
+                () -> assertEquals(3, w[1].getEntities().length),
+                () -> assertSameEntities(w[0].replace(first, null), w[1].replace(first, null)),
+                () -> assertSameEntities(w[0].replace(second, moved), w[1].replace(second, moved)));
+    }
+
+    /**
+     * Viele Körper auf einmal (Prüfung über Hash-Tabellen): Körper mit vorhandener ID oder Position werden nicht
+     * eingefügt, innerhalb der neuen Körper gewinnt der erste.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Einfügen vieler Körper verwirft Doppelte identisch")
+    void spawnManyWithDuplicates() {
+        Physicable[] w = createBoth(60, new Vector3D(10, 10, 10), Vector3D.ZERO, 0,
+                (w0, r) -> IntStream.range(0, 10)
+                        .mapToObj(i -> w0.createSpawnableAt(new Vector3D(1 + i * 0.4, 1, 1)).ofTypeSphere(0.1, 1, 1))
+                        .toArray(Spawnable[]::new));
+        Spawnable existing = w[0].getEntities()[3];
+        Spawnable[] more = IntStream.range(0, 40)
+                .mapToObj(i -> w[0].createSpawnableAt(new Vector3D(1 + (i % 20) * 0.4, 1 + (i < 30 ? 0 : 1), 1)).ofTypeSphere(0.2, 1, 1))
+                .toArray(Spawnable[]::new);
+        // gleiche ID wie ein vorhandener Körper und zweimal derselbe neue Körper
+        more[39] = existing;
+        more[38] = more[37];
+        Physicable world = w[0].spawn(more), array = w[1].spawn(more);
+        assertAll(
+                // 10 vorhandene, 10 neue Positionen in der ersten Reihe, 8 in der zweiten (ohne Doppelte)
+                () -> assertEquals(28, world.getEntities().length),
+                () -> assertEquals(more[10].getId(), world.getEntities()[10].getId()),
+                () -> assertSameEntities(world, array));
+    }
+}
@@ -0,0 +1,69 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die Blockschritte (StepControl.blocks()).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BlockStepperTest {
+
+    static final double DAY = 86400;
+
+    /**
+     * Stern (unbeweglich) mit einem inneren Planeten (Umlaufzeit etwa 6 Tage) und einem äußeren Planeten
+     * (Umlaufzeit etwa 1 Jahr), ein Zwischenschritt pro Tag
+     */
+    Physicable system(Physicable w0) {
+        double mStar = 2e30, dInner = 1e10, dOuter = 1.5e11;
+        Vector3D center = w0.getSize().scalarMultiply(0.5);
+        return w0.spawn(
+                w0.createSpawnableAt(center).immovable().ofTypeSphere(7e8, Helper.calcSphereDensity(7e8, mStar)),
+                w0.createSpawnableAt(center.add(new Vector3D(dInner, 0, 0)))
+                        .withVelocityAndAccel(new Vector3D(0, 0, Math.sqrt(World.GRAVITY_CONSTANT * mStar / dInner)), Vector3D.ZERO)
+                        .ofTypeSphere(6e6, 5000, 1),
+                w0.createSpawnableAt(center.add(new Vector3D(-dOuter, 0, 0)))
+                        .withVelocityAndAccel(new Vector3D(0, 0, -Math.sqrt(World.GRAVITY_CONSTANT * mStar / dOuter)), Vector3D.ZERO)
+                        .ofTypeSphere(6e6, 5000, 1));
+    }
+
+    /**
+     * Erzwingt die Toleranz auf jeder Stufe die kleinste Schrittweite 1 Tag / 2³, rechnen die Blockschritte exakt
+     * wie feste Schritte mit dieser Länge.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Auf einer Stufe entsprechen Blockschritte festen Schritten")
+    void matchesFixedStep() {
+        Physicable w0 = system(World.create(1 / DAY, new Vector3D(4e11, 4e11, 4e11)));
+        Physicable blocks = w0.setStepControl(StepControl.blocks(1e-30, 0.03, 3)).simulateTime(5 * DAY);
+        Physicable fixed = World.create(8 / DAY, w0.getSize()).spawn(w0.getEntities()).simulateTime(5 * DAY);
+        Helper.assertSameEntities(fixed, blocks, 0);
+    }
+
+    /**
+     * Mit einem Zwischenschritt pro Tag verlässt der innere Planet seine Bahn, mit Blockschritten wählt er
+     * kleinere Schritte und liegt mindestens zehnmal näher an einer Referenz mit Schritten von einer Minute
+     * (in beiden Welten gleich).
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Schnelle Körper wählen kleinere Schritte")
+    void fastBodiesRefine() {
+        Physicable w0 = system(World.create(1 / DAY, new Vector3D(4e11, 4e11, 4e11)));
+        double time = 6 * DAY;
+        Vector3D reference = World.create(1 / 60.0, w0.getSize()).spawn(w0.getEntities()).simulateTime(time).getEntities()[1].getPos();
+        Physicable fixed = w0.simulateTime(time);
+        Physicable blocks = w0.setStepControl(StepControl.blocks()).simulateTime(time);
+        Physicable array = ArrayWorld.create(1 / DAY, w0.getSize()).setStepControl(StepControl.blocks()).spawn(w0.getEntities()).simulateTime(time);
+        double fixedError = fixed.getEntities()[1].getPos().distance(reference);
+        double blocksError = blocks.getEntities()[1].getPos().distance(reference);
+        assertAll(
+                () -> assertTrue(fixedError > 1e10),
+                () -> assertTrue(blocksError < fixedError / 10),
+                () -> Helper.assertSameEntities(blocks, array, 0));
+    }
+}
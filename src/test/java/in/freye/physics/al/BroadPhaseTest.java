@@ -0,0 +1,100 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Testet, dass alle Verfahren der Breitphase dieselben Kollisionen wie der Test aller Paare liefern.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BroadPhaseTest {
+
+    double tolerance;
+
+    /**
+     * Die Toleranz wird auf 1 Nanometer eingestellt,
+     * um Problemen mit der Floating-Point-Präzision vorzubeugen, da double-Werte verglichen werden.
+     */
+    @BeforeEach
+    void setup() {
+        tolerance = 1e-9;
+    }
+
+    /**
+     * Dichter Kugelhaufen mit verschiedenen Radien, der auf den Boden fällt (viele Kollisionen gleichzeitig)
+     */
+    Physicable cluster(Physicable w0) {
+        Random r = new Random(7);
+        return w0.setGravity(new Vector3D(0, -9.81, 0))
+                .setAirDensity(1.2)
+                .spawn(IntStream.range(0, 200)
+                        .mapToObj(i -> w0.createSpawnableAt(new Vector3D(0.1 + 0.8 * r.nextDouble(), 0.2 + 0.7 * r.nextDouble(), 0.1 + 0.8 * r.nextDouble()))
+                                .withVelocityAndAccel(new Vector3D(r.nextDouble() - 0.5, 0, r.nextDouble() - 0.5), Vector3D.ZERO)
+                                .ofTypeSphere(0.01 + 0.04 * r.nextDouble(), 1, 0.9))
+                        .toArray(Spawnable[]::new));
+    }
+
+    /** Simuliert den Kugelhaufen mit beiden Implementierungen und vergleicht mit dem Test aller Paare */
+    void assertSameAsAllPairs(BroadPhase broadPhase) {
+        Physicable w = cluster(World.create(100, new Vector3D(1, 1, 1)));
+        Physicable a = cluster(ArrayWorld.create(100, new Vector3D(1, 1, 1)));
+        assertAll(
+                () -> Helper.assertSameEntities(
+                        w.setBroadPhase(BroadPhase.ALL_PAIRS).simulateTime(1.5),
+                        w.setBroadPhase(broadPhase).simulateTime(1.5),
+                        tolerance),
+                () -> Helper.assertSameEntities(
+                        a.setBroadPhase(BroadPhase.ALL_PAIRS).simulateTime(1.5),
+                        a.setBroadPhase(broadPhase).simulateTime(1.5),
+                        tolerance));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Uniformes Gitter findet alle Kollisionen")
+    void spatialHash() {
+        assertSameAsAllPairs(BroadPhase.SPATIAL_HASH);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Sweep and Prune findet alle Kollisionen")
+    void sweepAndPrune() {
+        assertSameAsAllPairs(BroadPhase.SWEEP_AND_PRUNE);
+    }
+
+    /**
+     * Kugelhaufen fällt durch ein Gitter unbeweglicher Kugeln. Nach der Hälfte der Zeit wird ein Hindernis verschoben,
+     * eines gelöscht und ein neues erzeugt, die Hierarchie der unbeweglichen Körper muss dabei neu aufgebaut werden.
+     */
+    Physicable obstacles(Physicable w0, Spawnable moved, Spawnable added, BroadPhase broadPhase) {
+        Physicable w = w0.setBroadPhase(broadPhase).simulateTime(0.75);
+        Spawnable[] e = w.getEntities();
+        return w.replace(e[200].getId(), moved).replace(e[201].getId(), null).spawn(added).simulateTime(0.75);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Unbewegliche Körper werden über ihre Hierarchie gefunden")
+    void staticBodies() {
+        for (Physicable w0 : new Physicable[] { World.create(100, new Vector3D(1, 1, 1)), ArrayWorld.create(100, new Vector3D(1, 1, 1)) }) {
+            Physicable w = cluster(w0);
+            w = w.spawn(IntStream.range(0, 64)
+                    .mapToObj(i -> w0.createSpawnableAt(new Vector3D(0.0625 + 0.125 * (i % 8), 0.15, 0.0625 + 0.125 * (i / 8)))
+                            .immovable().ofTypeSphere(0.03, 1))
+                    .toArray(Spawnable[]::new));
+            Spawnable moved = w0.createSpawnableAt(new Vector3D(0.5, 0.1, 0.5)).immovable().ofTypeSphere(0.05, 1);
+            Spawnable added = w0.createSpawnableAt(new Vector3D(0.3, 0.1, 0.7)).immovable().ofTypeSphere(0.05, 1);
+            Physicable start = w;
+            Physicable expected = obstacles(start, moved, added, BroadPhase.ALL_PAIRS);
+            assertAll(
+                    () -> Helper.assertSameEntities(expected, obstacles(start, moved, added, BroadPhase.SPATIAL_HASH), tolerance),
+                    () -> Helper.assertSameEntities(expected, obstacles(start, moved, added, BroadPhase.SWEEP_AND_PRUNE), tolerance));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.factory.Lists;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die persistente Menge der Körper von World (EntityStore).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EntityStoreTest {
+
+    final Physicable world = World.create(60, new Vector3D(10, 10, 10));
+    final Random random = new Random(7);
+
+    Shape sphere() {
+        return (Shape) world.createSpawnableAt(new Vector3D(10 * random.nextDouble(), 10 * random.nextDouble(), 10 * random.nextDouble()))
+                .ofTypeSphere(0.1, 1, 1);
+    }
+
+    /**
+     * Zufälliges Einfügen, Ersetzen (mit gleicher und neuer ID) und Löschen entspricht einer LinkedHashMap,
+     * auch über das kompakte Neuaufbauen nach vielen Löschungen hinweg
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Bearbeitung nach ID erhält die Einfügereihenfolge")
+    void matchesLinkedMap() {
+        Map<Long, Shape> expected = new LinkedHashMap<>();
+        List<Shape> initial = new ArrayList<>();
+        for (int i = 0; i < 500; i++) initial.add(sphere());
+        for (Shape e : initial) expected.put(e.id, e);
+        EntityStore store = EntityStore.of(Lists.immutable.withAll(initial));
+        for (int k = 0; k < 5000; k++) {
+            int op = random.nextInt(4);
+            if (op == 0 || expected.isEmpty()) {
+                Shape e = sphere();
+                expected.put(e.id, e);
+                store = store.with(e);
+                continue;
+            }
+            long id = new ArrayList<>(expected.keySet()).get(random.nextInt(expected.size()));
+            assertSame(expected.get(id), store.get(id));
+            if (op == 1) {
+                // Gleiche ID, anderes Objekt
+                Shape e = expected.get(id).applyMovement(1);
+                expected.put(id, e);
+                store = store.replace(id, e);
+            } else if (op == 2) {
+                // Neue ID am selben Platz
+                Shape e = sphere();
+                Map<Long, Shape> copy = new LinkedHashMap<>();
+                for (Map.Entry<Long, Shape> entry : expected.entrySet())
+                    copy.put(entry.getKey() == id ? e.id : entry.getKey(), entry.getKey() == id ? e : entry.getValue());
+                expected = copy;
+                store = store.replace(id, e);
+            } else {
+                expected.remove(id);
+                store = store.without(id);
+                assertFalse(store.contains(id));
+            }
+        }
+        // equals() vergleicht nur IDs, daher werden die Objekte selbst verglichen
+        Shape[] actual = store.toArray(), list = store.list().toArray(new Shape[0]);
+        List<Shape> values = new ArrayList<>(expected.values());
+        assertEquals(values.size(), store.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertSame(values.get(i), actual[i]);
+            assertSame(values.get(i), list[i]);
+        }
+    }
+
+    /** Bearbeitungen verändern die vorherige Menge nicht, in World ebenso wenig die vorherige Welt */
+    @Test
+    @Order(2)
+    @DisplayName("Vorherige Mengen bleiben unverändert")
+    void persistent() {
+        Shape a = sphere(), b = sphere(), c = sphere(), d = sphere();
+        EntityStore before = EntityStore.EMPTY.with(a).with(b).with(c);
+        EntityStore after = before.replace(b.id, d).without(a.id);
+        Physicable w0 = world.spawn(a, b, c), w1 = w0.replace(b.id, d).replace(c.id, null);
+        assertAll(
+                () -> assertArrayEquals(new Shape[]{ a, b, c }, before.toArray()),
+                () -> assertArrayEquals(new Shape[]{ d, c }, after.toArray()),
+                () -> assertNull(after.get(b.id)),
+                () -> assertEquals(d, after.get(d.id)),
+                () -> assertArrayEquals(new Shape[]{ a, b, c }, w0.getEntities()),
+                () -> assertArrayEquals(new Shape[]{ a, d }, w1.getEntities()));
+    }
+}
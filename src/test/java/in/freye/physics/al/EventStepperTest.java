@@ -0,0 +1,120 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die ereignisgesteuerte Simulation (StepControl.EVENT_DRIVEN).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EventStepperTest {
+
+    double tolerance;
+
+    /**
+     * Die Toleranz wird auf 1 Nanometer eingestellt,
+     * um Problemen mit der Floating-Point-Präzision vorzubeugen, da double-Werte verglichen werden.
+     */
+    @BeforeEach
+    void setup() {
+        tolerance = 1e-9;
+    }
+
+    /**
+     * Zentraler elastischer Stoß gleicher Massen bei nur einem Update pro Sekunde: Die Kugeln berühren sich nach 0.9s,
+     * danach ruht die erste und die zweite übernimmt ihre Geschwindigkeit. Feste Schritte würden die Kugeln
+     * 0.2m ineinander schieben.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Kollisionszeitpunkt wird exakt getroffen")
+    void exactCollision() {
+        Physicable w0 = World.create(1, new Vector3D(10, 2, 2)).setStepControl(StepControl.EVENT_DRIVEN);
+        Physicable w = w0.spawn(
+                w0.createSpawnableAt(new Vector3D(1, 1, 1)).withVelocityAndAccel(new Vector3D(2, 0, 0), Vector3D.ZERO).ofTypeSphere(0.1, 1, 1),
+                w0.createSpawnableAt(new Vector3D(3, 1, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 1))
+                .simulateTime(1);
+        Spawnable[] e = w.getEntities();
+        assertAll(
+                () -> assertArrayEquals(new double[]{ 2.8, 1, 1 }, e[0].getPos().toArray(), tolerance),
+                () -> assertArrayEquals(new double[]{ 0, 0, 0 }, e[0].getVel().toArray(), tolerance),
+                () -> assertArrayEquals(new double[]{ 3.2, 1, 1 }, e[1].getPos().toArray(), tolerance),
+                () -> assertArrayEquals(new double[]{ 2, 0, 0 }, e[1].getVel().toArray(), tolerance));
+    }
+
+    /**
+     * Eine vollständig elastische Kugel fällt 5m auf den Boden und erreicht nach der doppelten Fallzeit wieder
+     * exakt die Starthöhe, in World und ArrayWorld gleich.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Springende Kugel erreicht wieder ihre Starthöhe")
+    void bouncingBall() {
+        Physicable w0 = World.create(1, new Vector3D(2, 10, 2)).setGravity(new Vector3D(0, -9.81, 0)).setStepControl(StepControl.EVENT_DRIVEN);
+        w0 = w0.spawn(w0.createSpawnableAt(new Vector3D(1, 5.1, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 1));
+        double period = 2 * Math.sqrt(2 * 5 / 9.81);
+        Physicable w = w0.simulateTime(period);
+        Physicable a = ArrayWorld.create(1, w0.getSize()).setGravity(w0.getGravity()).setStepControl(StepControl.EVENT_DRIVEN)
+                .spawn(w0.getEntities()).simulateTime(period);
+        assertAll(
+                () -> assertEquals(5.1, w.getEntities()[0].getPos().getY(), tolerance),
+                () -> assertEquals(0, w.getEntities()[0].getVel().getY(), tolerance),
+                () -> Helper.assertSameEntities(w, a, tolerance));
+    }
+
+    /**
+     * Eine Kugel liegt auf dem Boden (dort ohne Beschleunigung), eine zweite fällt seitlich versetzt auf sie und hebt
+     * sie an. Danach muss die Gravitation wieder wirken: Bei vollständig elastischen Stößen bleibt die Energie erhalten,
+     * und ein Aufruf von simulateTime(1) rechnet wie 100 Aufrufe von simulateTime(0.01).
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Angestoßene Kugel fällt wieder")
+    void liftedFromWall() {
+        Physicable w0 = World.create(100, new Vector3D(1, 1, 1)).setGravity(new Vector3D(0, -9.81, 0)).setStepControl(StepControl.EVENT_DRIVEN);
+        w0 = w0.spawn(
+                w0.createSpawnableAt(new Vector3D(0.5, 0.05, 0.5)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.05, 1, 1),
+                w0.createSpawnableAt(new Vector3D(0.53, 0.5, 0.5)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.05, 1, 1));
+        Physicable once = w0.simulateTime(1), lifted = w0.simulateTime(0.5), many = w0;
+        for (int i = 0; i < 100; i++)
+            many = many.simulateTime(0.01);
+        double energy = energy(w0);
+        Physicable w = many;
+        assertAll(
+                () -> assertTrue(lifted.getEntities()[0].getPos().getY() > 0.05 + tolerance),
+                () -> assertEquals(energy, energy(once), energy * 1e-12),
+                () -> Helper.assertSameEntities(once, w, tolerance));
+    }
+
+    /**
+     * Eine Kugel fällt auf eine unbewegliche Kugel und springt mehrmals auf ihr. Nach jedem Stoß muss das nächste
+     * Ereignis desselben Paars vorhergesagt werden, sonst fällt die Kugel durch die untere hindurch auf den Boden.
+     * Ein Aufruf von simulateTime(3) rechnet wie 300 Aufrufe von simulateTime(0.01).
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Kugeln stoßen nach einem Stoß erneut zusammen")
+    void repeatedPairCollision() {
+        Physicable w0 = World.create(100, new Vector3D(10, 10, 10)).setGravity(new Vector3D(0, -9.81, 0)).setStepControl(StepControl.EVENT_DRIVEN);
+        w0 = w0.spawn(
+                w0.createSpawnableAt(new Vector3D(5, 2, 5)).immovable().ofTypeSphere(1, 1),
+                w0.createSpawnableAt(new Vector3D(5, 5, 5)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.5, 1, 0.8));
+        Physicable once = w0.simulateTime(3), many = w0;
+        for (int i = 0; i < 300; i++)
+            many = many.simulateTime(0.01);
+        Physicable w = many;
+        assertAll(
+                () -> assertTrue(once.getEntities()[1].getPos().getY() >= 3.5 - tolerance),
+                () -> Helper.assertSameEntities(once, w, tolerance));
+    }
+
+    /** Kinetische und potentielle Energie aller Körper (Gravitation in -y) */
+    double energy(Physicable w) {
+        double e = 0;
+        for (Spawnable s : w.getEntities())
+            e += s.getMass() * (0.5 * s.getVel().getNormSq() - w.getGravity().getY() * s.getPos().getY());
+        return e;
+    }
+}
@@ -0,0 +1,129 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die Näherungsverfahren für die gegenseitige Gravitation gegen die direkte Summe.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GravitySolverTest {
+
+    double tolerance;
+
+    /**
+     * Die Toleranz wird auf 1 Nanometer eingestellt,
+     * um Problemen mit der Floating-Point-Präzision vorzubeugen, da double-Werte verglichen werden.
+     */
+    @BeforeEach
+    void setup() {
+        tolerance = 1e-9;
+    }
+
+    /**
+     * Sternhaufen: Viele massereiche Kugeln, die sich gegenseitig anziehen (alle sind Gravitationsquellen)
+     */
+    Spawnable[] starCluster(Physicable w0) {
+        Random r = new Random(3);
+        return IntStream.range(0, 400)
+                .mapToObj(i -> w0.createSpawnableAt(new Vector3D(50 + 100 * r.nextDouble(), 50 + 100 * r.nextDouble(), 50 + 100 * r.nextDouble()))
+                        .ofTypeSphere(0.1, Helper.calcSphereDensity(0.1, 1e9 * (1 + r.nextDouble())), 1))
+                .toArray(Spawnable[]::new);
+    }
+
+    /**
+     * Mit theta = 0 wird jeder Knoten geöffnet, das Ergebnis entspricht also der direkten Summe
+     * (bis auf die Reihenfolge der Summanden).
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Barnes-Hut mit theta = 0 entspricht der direkten Summe")
+    void barnesHutExact() {
+        Physicable w0 = World.create(100, new Vector3D(200, 200, 200));
+        Spawnable[] stars = starCluster(w0);
+        Physicable w = w0.spawn(stars);
+        Physicable a = ArrayWorld.create(100, new Vector3D(200, 200, 200)).spawn(stars);
+        assertAll(
+                () -> Helper.assertSameEntities(w.simulateTime(1), w.setGravitySolver(GravitySolver.barnesHut(0)).simulateTime(1), tolerance),
+                () -> Helper.assertSameEntities(a.simulateTime(1), a.setGravitySolver(GravitySolver.barnesHut(0)).simulateTime(1), tolerance));
+    }
+
+    /**
+     * Mit theta = 0.5 liegt der mittlere (quadratische) Fehler unter 1% und der größte Fehler unter 10%
+     * der mittleren Beschleunigung (im Inneren des Haufens heben sich die Kräfte fast auf, ein relativer Fehler
+     * je Körper wäre dort nicht aussagekräftig).
+     * Verglichen wird nach einem Zwischenschritt, die Beschleunigung wurde also an den Startpositionen berechnet.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Barnes-Hut mit theta = 0.5 ist genau genug")
+    void barnesHutApproximation() {
+        Physicable w0 = ArrayWorld.create(100, new Vector3D(200, 200, 200));
+        Physicable w = w0.spawn(starCluster(w0));
+        Spawnable[] direct = w.simulateTime(0.01).getEntities();
+        Spawnable[] tree = w.setGravitySolver(GravitySolver.barnesHut(0.5)).simulateTime(0.01).getEntities();
+        double mean = Arrays.stream(direct).mapToDouble(e -> e.getAcc().getNorm()).average().orElse(0);
+        double[] errors = IntStream.range(0, direct.length).mapToDouble(i -> direct[i].getAcc().distance(tree[i].getAcc())).toArray();
+        assertAll(
+                () -> assertTrue(Math.sqrt(Arrays.stream(errors).map(e -> e * e).average().orElse(0)) < 0.01 * mean),
+                () -> assertTrue(Arrays.stream(errors).max().orElse(0) < 0.1 * mean));
+    }
+
+    /**
+     * Beide Implementierungen fragen denselben Baum ab.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Barnes-Hut verhält sich in World und ArrayWorld identisch")
+    void barnesHutBothWorlds() {
+        GravitySolver solver = GravitySolver.barnesHut(0.7);
+        Physicable w = World.create(100, new Vector3D(200, 200, 200)).setGravitySolver(solver);
+        Spawnable[] stars = starCluster(w);
+        Helper.assertSameEntities(
+                w.spawn(stars).simulateTime(1),
+                ArrayWorld.create(100, new Vector3D(200, 200, 200)).setGravitySolver(solver).spawn(stars).simulateTime(1),
+                tolerance);
+    }
+
+    /**
+     * Ein massereicher Körper zieht leichte Probekörper an, die mindestens acht Gitterzellen entfernt sind.
+     * Auf diese Entfernung weicht die Beschleunigung um weniger als 5% von der direkten Summe ab.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Particle-Mesh entspricht im Fernfeld der direkten Summe")
+    void particleMeshFarField() {
+        Physicable w0 = World.create(100, new Vector3D(100, 100, 100));
+        Physicable w = w0.spawn(w0.createSpawnableAt(new Vector3D(30, 50, 50)).immovable().ofTypeSphere(1, Helper.calcSphereDensity(1, 1e12)));
+        w = w.spawn(IntStream.range(0, 20)
+                .mapToObj(i -> w0.createSpawnableAt(new Vector3D(30 + 25 * Math.cos(i * Math.PI / 10), 50 + 25 * Math.sin(i * Math.PI / 10), 40 + i))
+                        .ofTypeSphere(0.5, 1, 1))
+                .toArray(Spawnable[]::new));
+        Spawnable[] direct = w.simulateTime(0.01).getEntities();
+        Spawnable[] mesh = w.setGravitySolver(GravitySolver.particleMesh(32)).simulateTime(0.01).getEntities();
+        assertAll(IntStream.range(1, direct.length).mapToObj(i -> () ->
+                assertTrue(direct[i].getAcc().distance(mesh[i].getAcc()) < 0.05 * direct[i].getAcc().getNorm())));
+    }
+
+    /**
+     * Beide Implementierungen verwenden dasselbe Gitter.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Particle-Mesh verhält sich in World und ArrayWorld identisch")
+    void particleMeshBothWorlds() {
+        GravitySolver solver = GravitySolver.particleMesh(16);
+        Physicable w = World.create(100, new Vector3D(200, 200, 200)).setGravitySolver(solver);
+        Spawnable[] stars = starCluster(w);
+        Helper.assertSameEntities(
+                w.spawn(stars).simulateTime(0.5),
+                ArrayWorld.create(100, new Vector3D(200, 200, 200)).setGravitySolver(solver).spawn(stars).simulateTime(0.5),
+                tolerance);
+    }
+}
@@ -1,7 +1,11 @@
 package in.freye.physics.al;
 
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
- * Hilfsmethoden zum Berechnen
+ * Hilfsmethoden zum Berechnen und Vergleichen
  */
 public class Helper {
 
@@ -11,4 +15,18 @@ public class Helper {
         // density = m * 3/4 / π / r³
         return mass * 3.0/4.0 / Math.PI / radius/radius/radius;
     }
+
+    /**
+     * Vergleicht alle Körper zweier Welten (Reihenfolge, ID, Position, Geschwindigkeit, Beschleunigung)
+     */
+    static void assertSameEntities(Physicable expected, Physicable actual, double tolerance) {
+        Spawnable[] e = expected.getEntities(), a = actual.getEntities();
+        assertEquals(e.length, a.length);
+        assertAll(IntStream.range(0, e.length).mapToObj(i -> () -> {
+            assertEquals(e[i].getId(), a[i].getId());
+            assertArrayEquals(e[i].getPos().toArray(), a[i].getPos().toArray(), tolerance);
+            assertArrayEquals(e[i].getVel().toArray(), a[i].getVel().toArray(), tolerance);
+            assertArrayEquals(e[i].getAcc().toArray(), a[i].getAcc().toArray(), tolerance);
+        }));
+    }
 }
@@ -0,0 +1,72 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die Verfahren für die Bewegung in Zwischenschritten (Integrator).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class IntegratorTest {
+
+    static final double DAY = 86400;
+
+    /** Stern (unbeweglich) mit einem Planeten auf einer Kreisbahn (Umlaufzeit etwa 6 Tage) */
+    Physicable system(Physicable w0) {
+        double mStar = 2e30, d = 1e10;
+        Vector3D center = w0.getSize().scalarMultiply(0.5);
+        return w0.spawn(
+                w0.createSpawnableAt(center).immovable().ofTypeSphere(7e8, Helper.calcSphereDensity(7e8, mStar)),
+                w0.createSpawnableAt(center.add(new Vector3D(d, 0, 0)))
+                        .withVelocityAndAccel(new Vector3D(0, 0, Math.sqrt(World.GRAVITY_CONSTANT * mStar / d)), Vector3D.ZERO)
+                        .ofTypeSphere(6e6, 5000, 1));
+    }
+
+    /**
+     * TAYLOR (Standard) mit Schritten von einer Minute weicht über einen Umlauf um etwa 2e8 m von einer Referenz ab
+     * (Yoshida mit Schritten von einer Minute). Leapfrog mit zehnmal und Yoshida mit hundertmal weniger
+     * Zwischenschritten liegen mindestens hundertmal näher.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Symplektische Verfahren benötigen weniger Zwischenschritte")
+    void fewerSteps() {
+        Vector3D size = new Vector3D(4e10, 4e10, 4e10);
+        double time = 6 * DAY, freq = 1 / 60.0;
+        assertEquals(Integrator.TAYLOR, World.create(freq, size).getIntegrator());
+        Physicable reference = system(World.create(freq, size, Integrator.YOSHIDA4)).simulateTime(time);
+        double taylor = error(reference, system(World.create(freq, size)).simulateTime(time));
+        double leapfrog = error(reference, system(World.create(freq / 10, size, Integrator.LEAPFROG)).simulateTime(time));
+        double yoshida = error(reference, system(World.create(freq / 100, size, Integrator.YOSHIDA4)).simulateTime(time));
+        assertAll(
+                () -> assertTrue(taylor > 1e8),
+                () -> assertTrue(leapfrog < taylor / 100, "Leapfrog: " + leapfrog + " m, TAYLOR: " + taylor + " m"),
+                () -> assertTrue(yoshida < taylor / 100, "Yoshida: " + yoshida + " m, TAYLOR: " + taylor + " m"));
+    }
+
+    /**
+     * Symplektische Verfahren laufen in World über dieselben Spalten wie in ArrayWorld,
+     * auch mit Kollisionen, Wänden und Luftwiderstand
+     */
+    @Test
+    @Order(2)
+    @DisplayName("World und ArrayWorld integrieren gleich")
+    void sameInBothWorlds() {
+        Physicable w0 = World.create(100, new Vector3D(1, 1, 1), Integrator.YOSHIDA4).setGravity(new Vector3D(0, -9.81, 0)).setAirDensity(1.2);
+        w0 = w0.spawn(
+                w0.createSpawnableAt(new Vector3D(0.5, 0.2, 0.5)).immovable().ofTypeSphere(0.1, 1e10),
+                w0.createSpawnableAt(new Vector3D(0.52, 0.6, 0.5)).ofTypeSphere(0.05, 1000, 0.9),
+                w0.createSpawnableAt(new Vector3D(0.2, 0.8, 0.3))
+                        .withVelocityAndAccel(new Vector3D(1, 0, 0.5), Vector3D.ZERO).ofTypeSphere(0.04, 2000, 0.8));
+        Physicable array = ArrayWorld.create(100, w0.getSize()).setIntegrator(Integrator.YOSHIDA4)
+                .setGravity(w0.getGravity()).setAirDensity(w0.getAirDensity()).spawn(w0.getEntities());
+        Helper.assertSameEntities(w0.simulateTime(2), array.simulateTime(2), 0);
+    }
+
+    /** Abstand des Planeten zur Referenz */
+    static double error(Physicable reference, Physicable world) {
+        return world.getEntities()[1].getPos().distance(reference.getEntities()[1].getPos());
+    }
+}
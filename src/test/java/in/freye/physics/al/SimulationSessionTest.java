@@ -0,0 +1,127 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die veränderliche Simulation (SimulationSession).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SimulationSessionTest {
+
+    /** Kugeln mit Gravitation, Luftwiderstand und Kollisionen */
+    Physicable spheres(Physicable w0) {
+        Random r = new Random(3);
+        Physicable w = w0.setGravity(new Vector3D(0, -9.81, 0)).setAirDensity(1.2);
+        return w.spawn(IntStream.range(0, 40)
+                .mapToObj(i -> w.createSpawnableAt(new Vector3D(0.1 + 0.8 * r.nextDouble(), 0.3 + 0.6 * r.nextDouble(), 0.1 + 0.8 * r.nextDouble()))
+                        .withVelocityAndAccel(new Vector3D(r.nextDouble() - 0.5, 0, r.nextDouble() - 0.5), Vector3D.ZERO)
+                        .ofTypeSphere(0.05, 1, 0.9))
+                .toArray(Spawnable[]::new));
+    }
+
+    /**
+     * Mit festen Zwischenschritten entspricht eine Sitzung aufeinanderfolgenden Aufrufen von simulateTime(),
+     * eine Momentaufnahme ändert sich durch weitere Zwischenschritte nicht
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Sitzung rechnet wie simulateTime()")
+    void matchesSimulateTime() {
+        Physicable start = spheres(ArrayWorld.create(100, new Vector3D(1, 1, 1)));
+        Physicable once = start.simulateTime(0.5), twice = once.simulateTime(0.5);
+        SimulationSession session = start.startSession();
+        Physicable first = session.simulateTime(0.5).snapshot();
+        Shape[] before = (Shape[]) first.getEntities();
+        Physicable second = session.simulateTime(0.5).snapshot();
+        assertAll(
+                () -> assertEquals(1, session.getTime(), 1e-12),
+                () -> assertSame(second, session.snapshot()),
+                () -> Helper.assertSameEntities(once, first, 0),
+                () -> Helper.assertSameEntities(twice, second, 0),
+                () -> assertArrayEquals(before, first.getEntities()),
+                () -> assertEquals(before[0].pos, first.getEntities()[0].getPos()));
+    }
+
+    /** Eine Sitzung von World rechnet auf Spalten wie ArrayWorld und erzeugt wieder eine World */
+    @Test
+    @Order(2)
+    @DisplayName("Sitzung von World entspricht ArrayWorld")
+    void worldSession() {
+        Physicable world = spheres(World.create(100, new Vector3D(1, 1, 1)));
+        Physicable array = ArrayWorld.create(100, world.getSize()).setGravity(world.getGravity())
+                .setAirDensity(world.getAirDensity()).spawn(world.getEntities());
+        Physicable snapshot = world.startSession().simulateTime(1).snapshot();
+        assertAll(
+                () -> assertInstanceOf(World.class, snapshot),
+                () -> Helper.assertSameEntities(array.simulateTime(1), snapshot, 0),
+                () -> Helper.assertSameEntities(world.simulateTime(1), snapshot, 1e-9));
+    }
+
+    /**
+     * Mit abgelaufener Frist endet simulateTimeUntil() nach dem ersten Zwischenschritt,
+     * in World (Objekte und Spalten) und ArrayWorld
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Frist beendet die Simulation nach einem Zwischenschritt")
+    void deadline() {
+        Physicable world = spheres(World.create(100, new Vector3D(1, 1, 1)));
+        for (Physicable w : new Physicable[]{ world, world.setIntegrator(Integrator.LEAPFROG),
+                ArrayWorld.create(100, world.getSize()).setGravity(world.getGravity()).setAirDensity(world.getAirDensity()).spawn(world.getEntities()) }) {
+            SimulationResult partial = w.simulateTimeUntil(1, System.nanoTime());
+            SimulationResult complete = w.simulateTimeUntil(0.05, System.nanoTime() + 60_000_000_000L);
+            assertAll(
+                    () -> assertFalse(partial.isComplete()),
+                    () -> assertEquals(0.01, partial.getSimulatedTime(), 1e-12),
+                    () -> Helper.assertSameEntities(w.simulateTime(0.01), partial.getWorld(), 0),
+                    () -> assertTrue(complete.isComplete()),
+                    () -> assertEquals(0.05, complete.getSimulatedTime()),
+                    () -> Helper.assertSameEntities(w.simulateTime(0.05), complete.getWorld(), 0));
+        }
+    }
+
+    /** Ein unterbrochener Thread (z.B. durch Future.cancel(true)) simuliert nur bis zum nächsten Zwischenschritt */
+    @Test
+    @Order(4)
+    @DisplayName("Unterbrechung beendet die Simulation")
+    void interrupted() {
+        SimulationSession session = spheres(ArrayWorld.create(100, new Vector3D(1, 1, 1))).startSession();
+        Thread.currentThread().interrupt();
+        boolean complete = session.simulateTimeUntil(1, System.nanoTime() + 60_000_000_000L);
+        // Die Unterbrechung bleibt gesetzt (und wird hier zurückgesetzt)
+        assertTrue(Thread.interrupted());
+        assertFalse(complete);
+        assertEquals(0.01, session.getTime(), 1e-12);
+    }
+
+    /**
+     * Momentaufnahmen werden erst beim Verbrauch simuliert und entsprechen simulateTime() nach dem jeweiligen
+     * Abstand, nach Zeit und nach Anzahl der Zwischenschritte
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Strom von Momentaufnahmen ist bedarfsgesteuert")
+    void snapshotStream() {
+        Physicable start = spheres(ArrayWorld.create(100, new Vector3D(1, 1, 1)));
+        SimulationSession byTime = start.startSession(), bySteps = start.startSession();
+        Stream<Physicable> stream = byTime.snapshots(0.25).limit(3);
+        assertEquals(0, byTime.getTime());
+        List<Physicable> frames = stream.toList();
+        List<Physicable> stepFrames = bySteps.snapshotsEvery(25).limit(3).toList();
+        assertAll(
+                () -> assertEquals(0.5, byTime.getTime(), 1e-12),
+                () -> assertEquals(0.5, bySteps.getTime(), 1e-12),
+                () -> Helper.assertSameEntities(start, frames.get(0), 0),
+                () -> Helper.assertSameEntities(start.simulateTime(0.25), frames.get(1), 0),
+                () -> Helper.assertSameEntities(start.simulateTime(0.25).simulateTime(0.25), frames.get(2), 0),
+                () -> Helper.assertSameEntities(frames.get(2), stepFrames.get(2), 1e-12));
+    }
+}
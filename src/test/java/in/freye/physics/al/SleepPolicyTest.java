@@ -0,0 +1,95 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet das Einschlafen ruhender Körper mit SleepPolicy.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SleepPolicyTest {
+
+    double tolerance;
+
+    /**
+     * Die Toleranz wird auf 1 Mikrometer eingestellt: Schlafende Körper führen die kleinen Korrekturen
+     * ruhender Körper nicht mehr aus.
+     */
+    @BeforeEach
+    void setup() {
+        tolerance = 1e-6;
+    }
+
+    /** Eine Kugel, die auf den Boden fällt und nach einigen Sprüngen liegen bleibt */
+    Physicable settling(Physicable w0) {
+        w0 = w0.setGravity(new Vector3D(0, -9.81, 0));
+        return w0.spawn(w0.createSpawnableAt(new Vector3D(1, 0.5, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 0.3));
+    }
+
+    /**
+     * Die liegende Kugel schläft nach einiger Zeit ein und bleibt, wo sie ohne Einschlafen auch liegen würde
+     * (in World und ArrayWorld).
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Ruhende Körper schlafen ein")
+    void fallsAsleep() {
+        for (Physicable w0 : new Physicable[]{ World.create(100, new Vector3D(2, 2, 2)), ArrayWorld.create(100, new Vector3D(2, 2, 2)) }) {
+            Physicable awake = settling(w0).simulateTime(3);
+            Physicable sleeping = settling(w0).setSleepPolicy(SleepPolicy.enabled()).simulateTime(3);
+            long id = sleeping.getEntities()[0].getId();
+            assertAll(
+                    () -> assertFalse(awake.isSleeping(awake.getEntities()[0].getId())),
+                    () -> assertTrue(sleeping.isSleeping(id)),
+                    () -> assertArrayEquals(awake.getEntities()[0].getPos().toArray(), sleeping.getEntities()[0].getPos().toArray(), tolerance),
+                    () -> assertEquals(sleeping.getEntities()[0].getPos(), sleeping.simulateTime(1).getEntities()[0].getPos()));
+        }
+    }
+
+    /**
+     * Eine neue Kugel weit entfernt weckt die schlafende nicht, rollt aber in sie hinein und stößt sie an.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Kontakt weckt schlafende Körper")
+    void wokenByContact() {
+        for (Physicable w0 : new Physicable[]{ World.create(100, new Vector3D(2, 2, 2)), ArrayWorld.create(100, new Vector3D(2, 2, 2)) }) {
+            Physicable w = settling(w0).setSleepPolicy(SleepPolicy.enabled()).simulateTime(3);
+            long id = w.getEntities()[0].getId();
+            w = w.spawn(w.createSpawnableAt(new Vector3D(0.4, 0.1, 1)).withVelocityAndAccel(new Vector3D(2, 0, 0), Vector3D.ZERO).ofTypeSphere(0.1, 1, 1));
+            assertTrue(w.isSleeping(id));
+            Physicable end = w.simulateTime(0.5);
+            assertAll(
+                    () -> assertFalse(end.isSleeping(id)),
+                    () -> assertTrue(end.getEntities()[0].getVel().getX() > 0.3));
+        }
+    }
+
+    /**
+     * Zwei liegende Kugeln schlafen ein. Eine neue Kugel neben der ersten weckt nur diese, auch nachdem die neue Kugel
+     * wieder gelöscht und die Welt weiter simuliert wurde.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Bearbeitungen wecken nur Körper in der Nähe")
+    void wokenByEdit() {
+        for (Physicable w0 : new Physicable[]{ World.create(100, new Vector3D(2, 2, 2)), ArrayWorld.create(100, new Vector3D(2, 2, 2)) }) {
+            w0 = w0.setGravity(new Vector3D(0, -9.81, 0)).setSleepPolicy(SleepPolicy.enabled());
+            w0 = w0.spawn(w0.createSpawnableAt(new Vector3D(0.5, 0.1, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 0.3),
+                    w0.createSpawnableAt(new Vector3D(1.5, 0.1, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 0.3));
+            Physicable w = w0.simulateTime(3);
+            long near = w.getEntities()[0].getId(), far = w.getEntities()[1].getId();
+            assertTrue(w.isSleeping(near) && w.isSleeping(far));
+            Spawnable added = w.createSpawnableAt(new Vector3D(0.71, 0.1, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 0.3);
+            Physicable edited = w.spawn(added).replace(added.getId(), null);
+            Physicable end = edited.simulateTime(0.01);
+            assertAll(
+                    () -> assertFalse(edited.isSleeping(near)),
+                    () -> assertTrue(edited.isSleeping(far)),
+                    () -> assertFalse(end.isSleeping(near)),
+                    () -> assertTrue(end.isSleeping(far)));
+        }
+    }
+}
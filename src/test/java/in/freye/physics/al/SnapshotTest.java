@@ -0,0 +1,147 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet das Speichern und Laden von Welten als Snapshot.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    /** Kugelhaufen mit Luftwiderstand, der schon einige Zeit simuliert wurde (Beschleunigungen sind gesetzt) */
+    Physicable cluster(Physicable w0) {
+        Random r = new Random(5);
+        return w0.setGravity(new Vector3D(0, -9.81, 0)).setAirDensity(1.2)
+                .spawn(IntStream.range(0, 50)
+                        .mapToObj(i -> w0.createSpawnableAt(new Vector3D(0.1 + 0.8 * r.nextDouble(), 0.3 + 0.6 * r.nextDouble(), 0.1 + 0.8 * r.nextDouble()))
+                                .withVelocityAndAccel(new Vector3D(r.nextDouble() - 0.5, 0, r.nextDouble() - 0.5), Vector3D.ZERO)
+                                .ofTypeSphere(0.05, 1, 0.95))
+                        .toArray(Spawnable[]::new))
+                .spawn(w0.createSpawnableAt(new Vector3D(0.5, 0.1, 0.5)).immovable().ofTypeSphere(0.08, 2))
+                .simulateTime(0.5);
+    }
+
+    double[] stepParameters(StepControl s) {
+        return new double[] { s.tolerance, s.collisionFraction, s.gravityFactor, s.minStepFraction };
+    }
+
+    void assertSameWorld(Physicable expected, Physicable actual) {
+        assertAll(
+                () -> assertEquals(expected.getClass(), actual.getClass()),
+                () -> assertEquals(expected.getUpdateFreq(), actual.getUpdateFreq()),
+                () -> assertEquals(expected.getSize(), actual.getSize()),
+                () -> assertEquals(expected.getGravity(), actual.getGravity()),
+                () -> assertEquals(expected.getAirDensity(), actual.getAirDensity()),
+                () -> assertEquals(expected.getBroadPhase(), actual.getBroadPhase()),
+                () -> assertEquals(expected.getGravitySolver().toString(), actual.getGravitySolver().toString()),
+                () -> assertEquals(expected.getIntegrator().toString(), actual.getIntegrator().toString()),
+                () -> assertArrayEquals(expected.getIntegrator().drift, actual.getIntegrator().drift),
+                () -> assertArrayEquals(expected.getIntegrator().kick, actual.getIntegrator().kick),
+                () -> assertEquals(expected.getStepControl().kind, actual.getStepControl().kind),
+                () -> assertArrayEquals(stepParameters(expected.getStepControl()), stepParameters(actual.getStepControl())),
+                () -> assertEquals(expected.getSleepPolicy().toString(), actual.getSleepPolicy().toString()),
+                () -> assertArrayEquals(Arrays.stream(expected.getEntities()).map(e -> expected.isSleeping(e.getId())).toArray(),
+                        Arrays.stream(actual.getEntities()).map(e -> actual.isSleeping(e.getId())).toArray()),
+                () -> assertArrayEquals(
+                        Arrays.stream(expected.getEntities()).map(e -> new Object[]{ e.getMovable(), e.getMass(), e.getDensity(), e.getBounciness(), e.getSelfAcc(), e.getTypeData()[0] }).toArray(),
+                        Arrays.stream(actual.getEntities()).map(e -> new Object[]{ e.getMovable(), e.getMass(), e.getDensity(), e.getBounciness(), e.getSelfAcc(), e.getTypeData()[0] }).toArray()),
+                // Exakt gleich, auch nach weiterer Simulation
+                () -> Helper.assertSameEntities(expected, actual, 0),
+                () -> Helper.assertSameEntities(expected.simulateTime(0.5), actual.simulateTime(0.5), 0));
+    }
+
+    /**
+     * Eine gespeicherte World wird mit allen Eigenschaften und Körpern exakt wiederhergestellt.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("World wird exakt wiederhergestellt")
+    void worldRoundTrip() throws IOException {
+        Physicable w = cluster(World.create(100, new Vector3D(1, 1, 1), Integrator.LEAPFROG)
+                .setStepControl(StepControl.adaptive(2e-3, 0.4, 0.05, 1e-2)));
+        Path file = dir.resolve("world.snapshot");
+        Snapshot.save(w, file);
+        Physicable loaded = Snapshot.load(file);
+        assertSameWorld(w, loaded);
+        // Vordefinierte Verfahren werden als dieselben Objekte geladen
+        assertSame(Integrator.LEAPFROG, loaded.getIntegrator());
+    }
+
+    /**
+     * Auch die Implementierung, die Breitphase, das Gravitationsverfahren, die Blockschritte und eine eigene
+     * Zerlegung für die Bewegung bleiben erhalten.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("ArrayWorld wird mit allen Einstellungen wiederhergestellt")
+    void arrayWorldRoundTrip() throws IOException {
+        Physicable w = cluster(ArrayWorld.create(100, new Vector3D(1, 1, 1))
+                .setBroadPhase(BroadPhase.SWEEP_AND_PRUNE)
+                .setGravitySolver(GravitySolver.barnesHut(0.5))
+                .setStepControl(StepControl.blocks(2e-3, 0.05, 6))
+                .setIntegrator(Integrator.composition("LEAPFROG2", new double[] { 0.25, 0.5, 0.25 }, new double[] { 0.5, 0.5 })));
+        Path file = dir.resolve("array.snapshot");
+        Snapshot.save(w, file);
+        // Überschreiben einer vorhandenen Datei
+        Snapshot.save(w, file);
+        Physicable loaded = Snapshot.load(file);
+        assertSameWorld(w, loaded);
+        // Neue Körper erhalten eine bisher nicht verwendete ID
+        long maxId = Arrays.stream(loaded.getEntities()).mapToLong(Spawnable::getId).max().orElseThrow();
+        assertTrue(loaded.createSpawnableAt(new Vector3D(0.5, 0.95, 0.5)).ofTypeSphere(0.01, 1, 1).getId() > maxId);
+    }
+
+    /**
+     * Dateien, die kein (vollständiger) Snapshot sind, werden abgelehnt.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Ungültige Dateien werden abgelehnt")
+    void invalidFile() throws IOException {
+        Path text = Files.writeString(dir.resolve("text.snapshot"), "kein Snapshot, aber lang genug für den Kopf der Datei ".repeat(3));
+        Path file = dir.resolve("world.snapshot");
+        Snapshot.save(cluster(World.create(100, new Vector3D(1, 1, 1))), file);
+        Path cut = Files.write(dir.resolve("cut.snapshot"), Arrays.copyOf(Files.readAllBytes(file), (int) Files.size(file) - 1));
+        assertAll(
+                () -> assertThrows(IOException.class, () -> Snapshot.load(text)),
+                () -> assertThrows(IOException.class, () -> Snapshot.load(cut)));
+    }
+
+    /**
+     * Das Einschlafen und die Ruhezeiten bleiben erhalten: Eine liegende Kugel schläft nach dem Laden weiter,
+     * eine fallende bewegt sich und schläft ein wie ohne Speichern.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Schlafende Körper bleiben nach dem Laden schlafend")
+    void sleepingRoundTrip() throws IOException {
+        for (Physicable w0 : new Physicable[]{ World.create(100, new Vector3D(1, 1, 1)), ArrayWorld.create(100, new Vector3D(1, 1, 1)) }) {
+            Physicable w = w0.setGravity(new Vector3D(0, -9.81, 0)).setSleepPolicy(SleepPolicy.enabled(0.01, 1, 0.25));
+            w = w.spawn(w.createSpawnableAt(new Vector3D(0.3, 0.5, 0.5)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 0.3))
+                    .simulateTime(3);
+            w = w.spawn(w.createSpawnableAt(new Vector3D(0.7, 0.5, 0.5)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 0.3))
+                    .simulateTime(0.2);
+            Path file = dir.resolve("sleeping.snapshot");
+            Snapshot.save(w, file);
+            Physicable loaded = Snapshot.load(file);
+            long resting = w.getEntities()[0].getId(), falling = w.getEntities()[1].getId();
+            assertTrue(w.isSleeping(resting) && !w.isSleeping(falling));
+            assertSameWorld(w, loaded);
+            assertSameWorld(w.simulateTime(1), loaded.simulateTime(1));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package in.freye.physics.al;
+
+import in.freye.physics.il.Templates;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Misst die einzelnen Phasen eines Zwischenschritts von Sphere (sequentiell, ohne Broad-Phase und Parallelisierung).
+ * Grundlage ist ein Kugelhaufen mit 1000 Kugeln nach 0.3s, in dem bereits viele Kollisionen stattfinden.
+ * Ein Aufruf führt die Phase für alle Kugeln aus, die Eingaben entsprechen denen in World.calculateChanges.
+ * Start: mvn -Pbenchmark verify -Djmh.args="SphereBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SphereBenchmark {
+
+    static final double DT = 0.01;
+
+    Vector3D size, gravity;
+    double airDensity;
+    /** Zustände der Kugeln vor und nach den einzelnen Phasen */
+    Shape[] start, accelerated, moved, corrected;
+    /** Kollisionskandidaten je Kugel (alle Kugeln im Umkreis) */
+    List<ImmutableList<Shape>> candidates;
+    /** Massereiche Gravitationsquellen für calcAcceleration */
+    ImmutableList<Shape> gravitySources;
+    LongObjectHashMap<Shape> correctedById;
+
+    @Setup
+    public void setup() {
+        Physicable w = Templates.sphereCluster(1 / DT, 1000, new Random(1)).simulateTime(0.3);
+        size = w.getSize();
+        gravity = w.getGravity();
+        airDensity = w.getAirDensity();
+        start = Arrays.stream(w.getEntities()).map(e -> (Shape) e).toArray(Shape[]::new);
+        int n = start.length;
+        Random r = new Random(2);
+        gravitySources = Lists.immutable.fromStream(IntStream.range(0, 16).mapToObj(i ->
+                new Sphere(w.randomPos(0).add(new Vector3D(2, 0, 0)), Vector3D.ZERO, Vector3D.ZERO, false, 0.1, Templates.calcSphereDensity(0.1, 1e9 * (1 + r.nextDouble())), 1)));
+
+        accelerated = new Shape[n];
+        moved = new Shape[n];
+        for (int i = 0; i < n; i++) {
+            accelerated[i] = start[i].calcAcceleration(gravity, airDensity, Lists.immutable.empty());
+            moved[i] = accelerated[i].applyMovement(DT).handleWallCollision(size, accelerated[i]);
+        }
+        candidates = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Shape s = moved[i];
+            candidates.add(Lists.immutable.fromStream(Arrays.stream(moved)
+                    .filter(e -> e.pos.distance(s.pos) < 4 * s.boundingRadius())));
+        }
+        corrected = new Shape[n];
+        correctedById = new LongObjectHashMap<>();
+        for (int i = 0; i < n; i++) {
+            corrected[i] = moved[i].calcEntityCollisionCorrections(candidates.get(i), accelerated[i]);
+            correctedById.put(corrected[i].id, corrected[i]);
+        }
+    }
+
+    @Benchmark
+    public void calcAcceleration(Blackhole bh) {
+        for (Shape s : start)
+            bh.consume(s.calcAcceleration(gravity, airDensity, gravitySources));
+    }
+
+    @Benchmark
+    public void applyMovement(Blackhole bh) {
+        for (Shape s : accelerated)
+            bh.consume(s.applyMovement(DT));
+    }
+
+    @Benchmark
+    public void handleWallCollision(Blackhole bh) {
+        for (int i = 0; i < moved.length; i++)
+            bh.consume(moved[i].handleWallCollision(size, accelerated[i]));
+    }
+
+    @Benchmark
+    public void calcEntityCollisionCorrections(Blackhole bh) {
+        for (int i = 0; i < moved.length; i++)
+            bh.consume(moved[i].calcEntityCollisionCorrections(candidates.get(i), accelerated[i]));
+    }
+
+    @Benchmark
+    public void applyEntityCollisionDeflections(Blackhole bh) {
+        for (int i = 0; i < corrected.length; i++)
+            bh.consume(corrected[i].applyEntityCollisionDeflections(moved[i], candidates.get(i), e -> correctedById.get(e.id)));
+    }
+}
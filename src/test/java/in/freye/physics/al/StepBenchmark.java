@@ -0,0 +1,52 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Misst die Dauer eines Zwischenschritts in beiden Implementierungen.
+ * Start: mvn -Pbenchmark verify -Djmh.args="StepBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepBenchmark {
+
+    @Param({ "World", "ArrayWorld" })
+    String engine;
+
+    @Param({ "1000", "10000" })
+    int count;
+
+    Physicable world;
+
+    /** Kugelhaufen mit Luftwiderstand, der auf den Boden fällt */
+    @Setup
+    public void setup() {
+        Vector3D size = new Vector3D(10, 10, 10);
+        Physicable w0 = (engine.equals("World") ? World.create(100, size) : ArrayWorld.create(100, size))
+                .setGravity(new Vector3D(0, -9.81, 0))
+                .setAirDensity(1.2);
+        Random r = new Random(1);
+        world = w0.spawn(IntStream.range(0, count)
+                .mapToObj(i -> w0.createSpawnableAt(new Vector3D(0.5 + 9 * r.nextDouble(), 3 + 6.5 * r.nextDouble(), 0.5 + 9 * r.nextDouble()))
+                        .withVelocityAndAccel(new Vector3D(r.nextDouble() - 0.5, 0, r.nextDouble() - 0.5), Vector3D.ZERO)
+                        .ofTypeSphere(0.02, 1, 0.9))
+                .toArray(Spawnable[]::new))
+                // einige Zwischenschritte, damit schon Kollisionen stattfinden
+                .simulateTime(0.5);
+    }
+
+    /** Ein Zwischenschritt (1 / updateFreq) */
+    @Benchmark
+    public Physicable step() {
+        return world.simulateTime(0.01);
+    }
+}
@@ -0,0 +1,60 @@
+package in.freye.physics.al;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die Wahl der Schrittweite mit StepControl.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class StepControlTest {
+
+    /** Schnelle Kugel (20 m/s, Radius 0.1 m) auf eine ruhende Kugel zu, ohne Gravitation */
+    Physicable shot(Physicable w0) {
+        return w0.spawn(
+                w0.createSpawnableAt(new Vector3D(1, 1, 1)).withVelocityAndAccel(new Vector3D(20, 0, 0), Vector3D.ZERO).ofTypeSphere(0.1, 1, 1),
+                w0.createSpawnableAt(new Vector3D(3.3, 1, 1)).withVelocityAndAccel(Vector3D.ZERO, Vector3D.ZERO).ofTypeSphere(0.1, 1, 1));
+    }
+
+    /**
+     * Mit 10 Updates pro Sekunde legt die Kugel 2 m pro Schritt zurück und fliegt ohne Kollision durch die andere
+     * hindurch. Die adaptive Schrittweite verkleinert die Schritte, sodass der Stoß erkannt wird (in beiden Welten).
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Adaptive Schrittweite verhindert Durchtunneln")
+    void preventsTunnelling() {
+        Vector3D size = new Vector3D(10, 2, 2);
+        Physicable fixed = shot(World.create(10, size)).simulateTime(0.3);
+        Physicable start = shot(World.create(10, size).setStepControl(StepControl.adaptive()));
+        Physicable adaptive = start.simulateTime(0.3);
+        Physicable array = ArrayWorld.create(10, size).setStepControl(StepControl.adaptive()).spawn(start.getEntities()).simulateTime(0.3);
+        assertAll(
+                () -> assertEquals(Vector3D.ZERO, fixed.getEntities()[1].getVel()),
+                () -> assertTrue(adaptive.getEntities()[1].getVel().getX() > 15),
+                () -> assertTrue(adaptive.getEntities()[0].getVel().getX() < 5),
+                () -> Helper.assertSameEntities(adaptive, array, 1e-9));
+    }
+
+    /**
+     * Erlauben alle Körper größere Schritte als 1 / updateFreq, rechnet die adaptive Schrittweite exakt
+     * wie die feste.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Ohne kritische Momente entspricht adaptiv der festen Schrittweite")
+    void matchesFixedStep() {
+        Physicable w0 = World.create(1000, new Vector3D(10, 10, 10)).setGravity(new Vector3D(0, -9.81, 0));
+        w0 = w0.spawn(w0.createSpawnableAt(new Vector3D(5, 5, 5)).withVelocityAndAccel(new Vector3D(1, 0, 0), Vector3D.ZERO).ofTypeSphere(1, 1, 0.5));
+        AtomicInteger steps = new AtomicInteger();
+        Physicable adaptive = w0.setStepControl(StepControl.adaptive()).simulateTime(0.5, (dt, w) -> steps.incrementAndGet());
+        Physicable fixed = w0.simulateTime(0.5);
+        assertAll(
+                () -> assertEquals(500, steps.get()),
+                () -> Helper.assertSameEntities(fixed, adaptive, 0));
+    }
+}
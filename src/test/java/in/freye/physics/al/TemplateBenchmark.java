@@ -0,0 +1,74 @@
+package in.freye.physics.al;
+
+import in.freye.physics.il.Templates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den Durchsatz von simulateTime auf den Beispiel-Szenarien der GUI.
+ * Die parallelen Streams der Simulation laufen in einem eigenen ForkJoinPool, dessen Größe über "parallelism"
+ * eingestellt wird, so lässt sich die Skalierung mit der Anzahl der Threads in einem Lauf messen.
+ * Start: mvn -Pbenchmark verify -Djmh.args="TemplateBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateBenchmark {
+
+    /** Anzahl der Zwischenschritte pro Aufruf */
+    static final int STEPS = 10;
+
+    public enum Scenario {
+        GRAVITY_BOUNCING, CLUSTER_100, CLUSTER_1000, CLUSTER_10000, POOL_TABLE, NEWTON_PENDULUM, SOLAR_SYSTEM;
+
+        Physicable create() {
+            return switch (this) {
+                case GRAVITY_BOUNCING -> Templates.gravityBouncing(100);
+                case CLUSTER_100 -> Templates.sphereCluster(100, 100, new Random(1));
+                case CLUSTER_1000 -> Templates.sphereCluster(100, 1000, new Random(1));
+                case CLUSTER_10000 -> Templates.sphereCluster(100, 10000, new Random(1));
+                case POOL_TABLE -> Templates.poolTable(100, Templates.POOL_BREAK_VELOCITY);
+                case NEWTON_PENDULUM -> Templates.newtonPendulum(100);
+                case SOLAR_SYSTEM -> Templates.solarSystem(Templates.SOLAR_SYSTEM_UPDATE_FREQ);
+            };
+        }
+
+        double updateFreq() {
+            return this == SOLAR_SYSTEM ? Templates.SOLAR_SYSTEM_UPDATE_FREQ : 100;
+        }
+    }
+
+    @Param
+    Scenario scenario;
+
+    /** Anzahl der Threads für die parallelen Abschnitte eines Zwischenschritts */
+    @Param({ "1", "2", "4" })
+    int parallelism;
+
+    Physicable world;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        world = scenario.create();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /** STEPS Zwischenschritte ab dem Startzustand des Szenarios */
+    @Benchmark
+    public Physicable simulate() {
+        // Parallele Streams, die aus einer Aufgabe des Pools gestartet werden, laufen in diesem Pool
+        return pool.submit(() -> world.simulateTime(STEPS / scenario.updateFreq())).join();
+    }
+}
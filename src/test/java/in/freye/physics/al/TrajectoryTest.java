@@ -0,0 +1,124 @@
+package in.freye.physics.al;
+
+import in.freye.physics.al.TrajectoryRecorder.Field;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet die Aufzeichnung von Bahnen mit TrajectoryRecorder und das Lesen mit TrajectoryReader.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TrajectoryTest {
+
+    @TempDir
+    Path dir;
+
+    double tolerance;
+
+    /**
+     * Die Toleranz wird auf 1 Nanometer eingestellt,
+     * um Problemen mit der Floating-Point-Präzision vorzubeugen, da double-Werte verglichen werden.
+     */
+    @BeforeEach
+    void setup() {
+        tolerance = 1e-9;
+    }
+
+    /** Kugeln mit Kollisionen, die auf den Boden fallen */
+    Physicable cluster(Physicable w0) {
+        Random r = new Random(7);
+        return w0.setGravity(new Vector3D(0, -9.81, 0))
+                .spawn(IntStream.range(0, 30)
+                        .mapToObj(i -> w0.createSpawnableAt(new Vector3D(0.1 + 0.8 * r.nextDouble(), 0.3 + 0.6 * r.nextDouble(), 0.1 + 0.8 * r.nextDouble()))
+                                .withVelocityAndAccel(new Vector3D(r.nextDouble() - 0.5, 0, r.nextDouble() - 0.5), Vector3D.ZERO)
+                                .ofTypeSphere(0.05, 1, 0.9))
+                        .toArray(Spawnable[]::new));
+    }
+
+    /** Vergleicht einen Frame mit den Körpern einer Welt */
+    void assertFrame(Physicable expected, TrajectoryReader.Frame frame, Field field) {
+        Spawnable[] e = expected.getEntities();
+        double[][] v = frame.get(field);
+        assertEquals(e.length, frame.getIds().length);
+        assertAll(IntStream.range(0, e.length).mapToObj(i -> () -> {
+            Vector3D expectedValue = switch (field) {
+                case POS -> e[i].getPos();
+                case VEL -> e[i].getVel();
+                case ACC -> e[i].getAcc();
+            };
+            assertEquals(e[i].getId(), frame.getIds()[i]);
+            assertArrayEquals(expectedValue.toArray(), new double[]{ v[0][i], v[1][i], v[2][i] }, tolerance);
+        }));
+    }
+
+    /**
+     * Alle zwei Zwischenschritte wird ein Frame geschrieben, über mehrere Aufrufe von simulateTime hinweg.
+     * Der letzte Frame entspricht dem Endzustand der Simulation, nicht gewählte Felder fehlen.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Frames werden im gewählten Abstand aufgezeichnet")
+    void recordWorld() throws IOException {
+        Path file = dir.resolve("world.traj");
+        Physicable w = cluster(World.create(100, new Vector3D(1, 1, 1)));
+        try (TrajectoryRecorder recorder = new TrajectoryRecorder(file, 2, EnumSet.of(Field.POS, Field.VEL))) {
+            w = w.simulateTime(0.3, recorder);
+            w = w.simulateTime(0.3, recorder);
+        }
+        List<TrajectoryReader.Frame> frames;
+        try (TrajectoryReader reader = new TrajectoryReader(file)) {
+            assertEquals(EnumSet.of(Field.POS, Field.VEL), reader.getFields());
+            assertEquals(2, reader.getInterval());
+            frames = reader.frames().toList();
+        }
+        TrajectoryReader.Frame last = frames.get(frames.size() - 1);
+        Physicable end = w;
+        assertAll(
+                () -> assertEquals(30, frames.size()),
+                () -> assertEquals(60, last.getSubstep()),
+                () -> assertEquals(0.6, last.getTime(), tolerance),
+                () -> assertEquals(0.02, frames.get(0).getTime(), tolerance),
+                () -> assertNull(last.get(Field.ACC)),
+                () -> assertFrame(end, last, Field.POS),
+                () -> assertFrame(end, last, Field.VEL));
+    }
+
+    /**
+     * In ArrayWorld werden dieselben Bahnen aufgezeichnet wie in World.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("ArrayWorld zeichnet dieselben Bahnen auf wie World")
+    void recordArrayWorld() throws IOException {
+        Physicable w = cluster(World.create(100, new Vector3D(1, 1, 1)));
+        Physicable a = ArrayWorld.create(100, new Vector3D(1, 1, 1)).setGravity(w.getGravity()).spawn(w.getEntities());
+        Path file = dir.resolve("array.traj");
+        try (TrajectoryRecorder recorder = new TrajectoryRecorder(file)) {
+            recorder.record(a);
+            a.simulateTime(0.5, recorder);
+        }
+        try (TrajectoryReader reader = new TrajectoryReader(file)) {
+            assertFrame(w, reader.next(), Field.POS);
+            for (int i = 1; i <= 50; i++) {
+                TrajectoryReader.Frame frame = reader.next();
+                assertEquals(i, frame.getSubstep());
+                if (i % 10 == 0) {
+                    Physicable expected = w.simulateTime(i / 100.0);
+                    for (Field f : Field.values())
+                        assertFrame(expected, frame, f);
+                }
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package in.freye.physics.il;
+
+import org.junit.jupiter.api.*;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testet den Stapellauf von Szenarien ohne GUI.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BatchRunnerTest {
+
+    /**
+     * Ein Sweep "von:bis:anzahl" enthält beide Grenzen und gleichmäßige Abstände.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Parameter-Sweep wird korrekt aufgelöst")
+    void parseSweep() {
+        assertAll(
+                () -> assertArrayEquals(new double[]{ 11, 12.5, 14, 15.5, 17 }, BatchRunner.parseSweep("11:17:5"), 1e-12),
+                () -> assertArrayEquals(new double[]{ 0.3 }, BatchRunner.parseSweep("0.3")),
+                () -> assertThrows(IllegalArgumentException.class, () -> BatchRunner.parseSweep("1:2")));
+    }
+
+    /**
+     * Jeder Lauf erhält seinen Parameter (höhere Startgeschwindigkeit: höhere Bewegungsenergie) und eine Kennzahl.
+     * Die Ergebnisse stehen in der Reihenfolge der Parameter, auch wenn sie parallel berechnet werden.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Sweep über die Bahngeschwindigkeit")
+    void orbitSweep() {
+        List<BatchRunner.Result> results = BatchRunner.run(BatchRunner.Scenario.ORBIT, new double[]{ 0, 0.02, 0.04 }, 1, 100, 2);
+        StringWriter csv = new StringWriter();
+        BatchRunner.writeCsv(BatchRunner.Scenario.ORBIT, results, csv);
+        String[] lines = csv.toString().split("\\R");
+        assertAll(
+                () -> assertEquals(3, results.size()),
+                () -> assertEquals(0.02, results.get(1).parameter),
+                () -> assertTrue(results.get(1).kineticEnergyStart > results.get(0).kineticEnergyStart),
+                () -> assertTrue(results.get(2).kineticEnergyStart > results.get(1).kineticEnergyStart),
+                () -> assertTrue(results.stream().allMatch(r -> Double.isFinite(r.metric))),
+                () -> assertEquals(4, lines.length),
+                () -> assertTrue(lines[0].startsWith("scenario,startVelDeviation,")),
+                () -> assertTrue(lines[1].startsWith("orbit,0.0,1.0,2,")));
+    }
+}